@@ -1,13 +1,14 @@
 package org.nemotech.rsc;
 
-import java.io.FileNotFoundException;
-
 import org.nemotech.rsc.client.mudclient;
 import org.nemotech.rsc.client.action.ActionManager;
 import org.nemotech.rsc.client.action.impl.SleepHandler;
 import org.nemotech.rsc.client.update.UpdateManager;
 import org.nemotech.rsc.core.EngineThread;
+import org.nemotech.rsc.core.Startup;
+import org.nemotech.rsc.core.Startup.Stage;
 import org.nemotech.rsc.external.EntityManager;
+import org.nemotech.rsc.model.World;
 import org.nemotech.rsc.plugins.PluginManager;
 
 /**
@@ -28,26 +29,40 @@ public final class Main {
         System.out.println("Welcome to RSC Single Player v" + Constants.VERSION + "\n");
         System.out.println("To report any bugs, exploits, missing or incorrect content, etc. you can contact");
         System.out.println("the developer at sean@nemotech.org [Sean Niemann / Zoso]\n");
+        /*
+         * Each stage starts as soon as the ones it needs are done. The client loads its
+         * archives on its own thread from the moment it starts, and the updaters and
+         * some action handlers take the client, world and player instances when they are
+         * created, so the world stage creates the player before they start.
+         */
+        Startup startup = new Startup();
         // initialize gson
-        EntityManager.init();
+        Stage definitions = startup.add("definitions", EntityManager::init);
         // start client
-        mudclient.INSTANCE = new mudclient();
-        mudclient.INSTANCE.start();
+        Stage client = startup.add("client", () -> {
+            mudclient.INSTANCE = new mudclient();
+            mudclient.INSTANCE.start();
+        }, definitions);
+        // load the landscape and spawns
+        Stage world = startup.add("world", () -> World.getWorld().getPlayer(), definitions);
         // initialize core components
-        try {
-            PluginManager.getInstance().init();
-        } catch(ReflectiveOperationException e) {
-            e.printStackTrace();
-            System.exit(1);
-        }
+        Stage plugins = startup.add("plugins", () -> {
+            try {
+                PluginManager.getInstance().init();
+            } catch(ReflectiveOperationException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }, world);
         // start core services
-        new EngineThread().start();
+        startup.add("engine", () -> new EngineThread().start(), world, plugins);
         // load action handlers
-        new ActionManager().init();
+        Stage actions = startup.add("actions", () -> new ActionManager().init(), client, world);
         // load updaters
-        new UpdateManager().init();
+        startup.add("updaters", () -> new UpdateManager().init(), client, world);
         // load captcha into memory
-        ActionManager.get(SleepHandler.class).init();
+        startup.add("captcha", () -> ActionManager.get(SleepHandler.class).init(), actions);
+        startup.await();
     }
     
 }
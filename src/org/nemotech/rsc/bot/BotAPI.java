@@ -4,6 +4,7 @@ import org.nemotech.rsc.model.*;
 import org.nemotech.rsc.model.player.*;
 import org.nemotech.rsc.model.landscape.Path;
 import org.nemotech.rsc.model.landscape.ActiveTile;
+import org.nemotech.rsc.model.landscape.Region;
 import org.nemotech.rsc.model.landscape.RegionManager;
 import org.nemotech.rsc.external.EntityManager;
 import org.nemotech.rsc.external.definition.*;
@@ -546,24 +547,8 @@ public class BotAPI {
      * Finds the nearest NPC by ID.
      */
     public NPC getNearestNpc(int... ids) {
-        NPC nearest = null;
-        int nearestDist = Integer.MAX_VALUE;
-        
-        for (NPC npc : getNpcs()) {
-            if (npc == null || npc.isRemoved()) continue;
-            
-            for (int id : ids) {
-                if (npc.getID() == id) {
-                    int dist = distanceTo(npc);
-                    if (dist < nearestDist) {
-                        nearestDist = dist;
-                        nearest = npc;
-                    }
-                    break;
-                }
-            }
-        }
-        return nearest;
+        return RegionManager.getNearest(getPlayer().getLocation(), Integer.MAX_VALUE, Region::getNpcs,
+            npc -> !npc.isRemoved() && matches(npc.getID(), ids));
     }
     
     /**
@@ -577,24 +562,8 @@ public class BotAPI {
      * Finds the nearest attackable NPC by ID.
      */
     public NPC getNearestAttackableNpc(int... ids) {
-        NPC nearest = null;
-        int nearestDist = Integer.MAX_VALUE;
-        
-        for (NPC npc : getNpcs()) {
-            if (npc == null || npc.isRemoved() || npc.inCombat() || npc.isBusy()) continue;
-            
-            for (int id : ids) {
-                if (npc.getID() == id) {
-                    int dist = distanceTo(npc);
-                    if (dist < nearestDist) {
-                        nearestDist = dist;
-                        nearest = npc;
-                    }
-                    break;
-                }
-            }
-        }
-        return nearest;
+        return RegionManager.getNearest(getPlayer().getLocation(), Integer.MAX_VALUE, Region::getNpcs,
+            npc -> !npc.isRemoved() && !npc.inCombat() && !npc.isBusy() && matches(npc.getID(), ids));
     }
     
     /**
@@ -603,18 +572,13 @@ public class BotAPI {
     public List<NPC> getNpcsInRadius(int radius, int... ids) {
         List<NPC> result = new ArrayList<>();
         
-        for (NPC npc : getNpcs()) {
-            if (npc == null || npc.isRemoved()) continue;
-            if (distanceTo(npc) > radius) continue;
-            
-            if (ids.length == 0) {
-                result.add(npc);
-            } else {
-                for (int id : ids) {
-                    if (npc.getID() == id) {
-                        result.add(npc);
-                        break;
-                    }
+        for (Region region : RegionManager.getRegionsInArea(getX() - radius, getY() - radius, getX() + radius, getY() + radius)) {
+            for (NPC npc : region.getNpcs()) {
+                if (npc.isRemoved()) continue;
+                if (distanceTo(npc) > radius) continue;
+                
+                if (ids.length == 0 || matches(npc.getID(), ids)) {
+                    result.add(npc);
                 }
             }
         }
@@ -659,7 +623,7 @@ public class BotAPI {
      * Gets a game object at a specific location.
      */
     public GameObject getObjectAt(int x, int y) {
-        ActiveTile tile = World.getWorld().getTile(x, y);
+        ActiveTile tile = World.getWorld().getTileIfPresent(x, y);
         if (tile != null && tile.hasGameObject()) {
             return tile.getGameObject();
         }
@@ -668,59 +632,12 @@ public class BotAPI {
     
     /**
      * Finds the nearest game object by ID.
-     * Searches all objects in surrounding regions with a configurable radius.
+     * Searches outwards through the surrounding regions up to a fixed radius.
      */
     public GameObject getNearestObject(int... ids) {
-        GameObject nearest = null;
-        int nearestDist = Integer.MAX_VALUE;
         int searchRadius = 1000;
-        
-        // Get all objects from surrounding regions (no distance filter)
-        for (GameObject obj : RegionManager.getLocalObjects(getPlayer())) {
-            if (obj == null || obj.isRemoved()) continue;
-            
-            // Apply our own distance check
-            int dist = distanceTo(obj);
-            if (dist > searchRadius) continue;
-            
-            for (int id : ids) {
-                if (obj.getID() == id) {
-                    if (dist < nearestDist) {
-                        nearestDist = dist;
-                        nearest = obj;
-                    }
-                    break;
-                }
-            }
-        }
-        
-        // Fallback: also check via tile-based search
-        if (nearest == null) {
-            for (int dx = -searchRadius; dx <= searchRadius; dx++) {
-                for (int dy = -searchRadius; dy <= searchRadius; dy++) {
-                    int x = getX() + dx;
-                    int y = getY() + dy;
-                    
-                    ActiveTile tile = World.getWorld().getTile(x, y);
-                    if (tile == null || !tile.hasGameObject()) continue;
-                    
-                    GameObject obj = tile.getGameObject();
-                    if (obj == null || obj.isRemoved()) continue;
-                    
-                    for (int id : ids) {
-                        if (obj.getID() == id) {
-                            int dist = distanceTo(obj);
-                            if (dist < nearestDist) {
-                                nearestDist = dist;
-                                nearest = obj;
-                            }
-                            break;
-                        }
-                    }
-                }
-            }
-        }
-        return nearest;
+        return RegionManager.getNearest(getPlayer().getLocation(), searchRadius, Region::getGameObjects,
+            obj -> !obj.isRemoved() && matches(obj.getID(), ids));
     }
     
     /**
@@ -728,33 +645,8 @@ public class BotAPI {
      * This is useful for bots that should stay near their current position.
      */
     public GameObject getNearestObjectInLocalArea(int[] ids, int radius) {
-        GameObject nearest = null;
-        int nearestDist = Integer.MAX_VALUE;
-        
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dy = -radius; dy <= radius; dy++) {
-                int x = getX() + dx;
-                int y = getY() + dy;
-                
-                ActiveTile tile = World.getWorld().getTile(x, y);
-                if (tile == null || !tile.hasGameObject()) continue;
-                
-                GameObject obj = tile.getGameObject();
-                if (obj == null || obj.isRemoved()) continue;
-                
-                for (int id : ids) {
-                    if (obj.getID() == id) {
-                        int dist = Math.max(Math.abs(dx), Math.abs(dy));
-                        if (dist < nearestDist) {
-                            nearestDist = dist;
-                            nearest = obj;
-                        }
-                        break;
-                    }
-                }
-            }
-        }
-        return nearest;
+        return RegionManager.getNearest(getPlayer().getLocation(), radius, Region::getGameObjects,
+            obj -> !obj.isRemoved() && matches(obj.getID(), ids));
     }
     
     /**
@@ -764,35 +656,17 @@ public class BotAPI {
     public java.util.List<GameObject> getAllObjectsInArea(int[] ids, int minX, int maxX, int minY, int maxY) {
         java.util.List<GameObject> found = new java.util.ArrayList<>();
         
-        for (GameObject obj : RegionManager.getLocalObjects(getPlayer())) {
-            if (obj == null || obj.isRemoved()) continue;
-            
-            int x = obj.getX();
-            int y = obj.getY();
-            
-            if (x < minX || x > maxX || y < minY || y > maxY) continue;
-            
-            for (int id : ids) {
-                if (obj.getID() == id) {
-                    found.add(obj);
-                    break;
-                }
-            }
-        }
-        
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                ActiveTile tile = World.getWorld().getTile(x, y);
-                if (tile == null || !tile.hasGameObject()) continue;
+        for (Region region : RegionManager.getRegionsInArea(minX, minY, maxX, maxY)) {
+            for (GameObject obj : region.getGameObjects()) {
+                if (obj.isRemoved()) continue;
                 
-                GameObject obj = tile.getGameObject();
-                if (obj == null || obj.isRemoved()) continue;
+                int x = obj.getX();
+                int y = obj.getY();
                 
-                for (int id : ids) {
-                    if (obj.getID() == id) {
-                        found.add(obj);
-                        break;
-                    }
+                if (x < minX || x > maxX || y < minY || y > maxY) continue;
+                
+                if (matches(obj.getID(), ids)) {
+                    found.add(obj);
                 }
             }
         }
@@ -808,44 +682,11 @@ public class BotAPI {
         GameObject nearest = null;
         int nearestDist = Integer.MAX_VALUE;
         
-        for (GameObject obj : RegionManager.getLocalObjects(getPlayer())) {
-            if (obj == null || obj.isRemoved()) continue;
-            
-            int x = obj.getX();
-            int y = obj.getY();
-            
-            if (x < minX || x > maxX || y < minY || y > maxY) continue;
-            
-            for (int id : ids) {
-                if (obj.getID() == id) {
-                    int dist = distanceTo(obj);
-                    if (dist < nearestDist) {
-                        nearestDist = dist;
-                        nearest = obj;
-                    }
-                    break;
-                }
-            }
-        }
-        
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                ActiveTile tile = World.getWorld().getTile(x, y);
-                if (tile == null || !tile.hasGameObject()) continue;
-                
-                GameObject obj = tile.getGameObject();
-                if (obj == null || obj.isRemoved()) continue;
-                
-                for (int id : ids) {
-                    if (obj.getID() == id) {
-                        int dist = distanceTo(obj);
-                        if (dist < nearestDist) {
-                            nearestDist = dist;
-                            nearest = obj;
-                        }
-                        break;
-                    }
-                }
+        for (GameObject obj : getAllObjectsInArea(ids, minX, maxX, minY, maxY)) {
+            int dist = distanceTo(obj);
+            if (dist < nearestDist) {
+                nearestDist = dist;
+                nearest = obj;
             }
         }
         
@@ -862,13 +703,15 @@ public class BotAPI {
         
         int count = 0;
         // Check RegionManager objects
-        for (GameObject obj : RegionManager.getLocalObjects(player)) {
-            if (obj == null || obj.isRemoved()) continue;
-            int dist = distanceTo(obj);
-            if (dist <= radius) {
-                String name = obj.getGameObjectDef() != null ? obj.getGameObjectDef().getName() : "Unknown";
-                player.getSender().sendMessage("@cya@  ID=" + obj.getID() + " '" + name + "' at (" + obj.getX() + "," + obj.getY() + ") dist=" + dist);
-                count++;
+        for (Region region : RegionManager.getRegionsInArea(getX() - radius, getY() - radius, getX() + radius, getY() + radius)) {
+            for (GameObject obj : region.getGameObjects()) {
+                if (obj.isRemoved()) continue;
+                int dist = distanceTo(obj);
+                if (dist <= radius) {
+                    String name = obj.getGameObjectDef() != null ? obj.getGameObjectDef().getName() : "Unknown";
+                    player.getSender().sendMessage("@cya@  ID=" + obj.getID() + " '" + name + "' at (" + obj.getX() + "," + obj.getY() + ") dist=" + dist);
+                    count++;
+                }
             }
         }
         player.getSender().sendMessage("@yel@[Debug] Found " + count + " objects via RegionManager");
@@ -904,35 +747,9 @@ public class BotAPI {
      * Finds the nearest ground item by ID.
      */
     public Item getNearestGroundItem(int... ids) {
-        Item nearest = null;
-        int nearestDist = Integer.MAX_VALUE;
         int searchRadius = 20;
-        
-        for (int dx = -searchRadius; dx <= searchRadius; dx++) {
-            for (int dy = -searchRadius; dy <= searchRadius; dy++) {
-                int x = getX() + dx;
-                int y = getY() + dy;
-                
-                ActiveTile tile = World.getWorld().getTile(x, y);
-                if (tile == null) continue;
-                
-                for (Item item : tile.getItems()) {
-                    if (item == null || item.isRemoved()) continue;
-                    
-                    for (int id : ids) {
-                        if (item.getID() == id) {
-                            int dist = distanceTo(item);
-                            if (dist < nearestDist) {
-                                nearestDist = dist;
-                                nearest = item;
-                            }
-                            break;
-                        }
-                    }
-                }
-            }
-        }
-        return nearest;
+        return RegionManager.getNearest(getPlayer().getLocation(), searchRadius, Region::getGroundItems,
+            item -> !item.isRemoved() && matches(item.getID(), ids));
     }
     
     /**
@@ -1005,6 +822,14 @@ public class BotAPI {
         getPlayer().getSender().sendMessage(message);
     }
     
+    /**
+     * Sets whether npcs across the whole world keep wandering and looking for
+     * victims while the player is far away (off by default).
+     */
+    public void setFullNpcSimulation(boolean enabled) {
+        World.getWorld().getClientUpdater().setFullNpcSimulation(enabled);
+    }
+    
     /**
      * Generates a random number between min and max (inclusive).
      */
@@ -1026,4 +851,13 @@ public class BotAPI {
     public int sleep(int min, int max) {
         return random(min, max);
     }
+    
+    private static boolean matches(int id, int[] ids) {
+        for (int i : ids) {
+            if (i == id) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,141 @@
+package org.nemotech.rsc.client;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.nemotech.rsc.external.EntityManager;
+
+/**
+ * Builds the client's Surface, Scene and Terrain against an in-memory pixel buffer
+ * with no window, so the renderer can be run and measured without a display.
+ *
+ * java -Djava.awt.headless=true org.nemotech.rsc.client.HeadlessRenderer [x y plane] [frames] [width height] [image.png]
+ */
+public class HeadlessRenderer {
+
+    /**
+     * The first media sprite (the same id the client uses), loaded for sprite drawing
+     */
+    public static final int SPRITE_MEDIA = 2000;
+    private static final int SPRITE_TEXTURE = 3220;
+
+    private static JagArchive modelData;
+
+    private final int width;
+    private final int height;
+    private final Surface surface;
+    private final Scene scene;
+    private final Terrain terrain;
+    private final Model models[] = new Model[1000];
+
+    /**
+     * Loads the entity definitions, fonts and models archive the renderer needs, once
+     */
+    public static synchronized void loadResources() {
+        if (modelData != null) {
+            return;
+        }
+        EntityManager.init();
+        Shell.createFonts(Shell.openArchive("fonts.jag", "Game fonts", 0, null));
+        modelData = Shell.openArchive("models.jag", "3d models", 0, null);
+    }
+
+    public HeadlessRenderer(int width, int height) {
+        loadResources();
+        this.width = width;
+        this.height = height;
+        surface = new Surface(width, height + 12, 4000, null);
+        surface.setBounds(0, 0, width, height + 12);
+        surface.loadSprite(SPRITE_MEDIA, "media");
+        scene = new Scene(surface, 15000, 15000, 4096);
+        scene.setBounds(width / 2, height / 2, width / 2, height / 2, width, 9);
+        scene.clipFar3d = 2400;
+        scene.clipFar2d = 2400;
+        scene.fogZDensity = 1;
+        scene.fogZDistance = 2300;
+        scene.setLight(-50, -10, -50);
+        terrain = new Terrain(scene, surface, SPRITE_MEDIA);
+        scene.allocateTextures(EntityManager.getTextures().length, 7, 11);
+        for (int i = 0; i < EntityManager.getTextures().length; i++) {
+            surface.loadSprite(SPRITE_TEXTURE + i, "texture");
+            scene.defineTexture(i, surface.sprites[SPRITE_TEXTURE + i]);
+        }
+        mudclient.unpackModels(modelData, models);
+    }
+
+    /**
+     * Loads the landscape and objects around a tile, as the client does on entering a region
+     */
+    public void loadSector(int x, int y, int plane) {
+        terrain.loadSector(x, y, plane);
+        terrain.loadSectorObjects(models);
+    }
+
+    /**
+     * Places the camera over a point of the loaded sector (in 1/128ths of a tile)
+     */
+    public void setCamera(int x, int y, int rotation, int distance) {
+        scene.setCamera(x, -terrain.getAveragedElevation(x, y), y, 912, rotation, 0, distance);
+    }
+
+    public void renderFrame() {
+        surface.blackScreen();
+        scene.render();
+    }
+
+    public void writeImage(File file) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, width, height, surface.imagePixelArray, 0, width);
+        ImageIO.write(image, "png", file);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int[] getPixels() {
+        return surface.imagePixelArray;
+    }
+
+    public Surface getSurface() {
+        return surface;
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    public Terrain getTerrain() {
+        return terrain;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int x = args.length > 2 ? Integer.parseInt(args[0]) : 50 * 48 + 23;
+        int y = args.length > 2 ? Integer.parseInt(args[1]) : 50 * 48 + 23;
+        int plane = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        int frames = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        int width = args.length > 5 ? Integer.parseInt(args[4]) : 512;
+        int height = args.length > 5 ? Integer.parseInt(args[5]) : 334;
+        HeadlessRenderer renderer = new HeadlessRenderer(width, height);
+        renderer.loadSector(x, y, plane);
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            renderer.setCamera(8800, 9200, frame * 4 & 0xff, 1600);
+            renderer.renderFrame();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("[HeadlessRenderer] Rendered " + frames + " frames at " + width + "x" + height + " in " + elapsed / 1000000 + "ms ("
+            + (frames > 0 ? elapsed / frames / 1000 : 0) + "us per frame, " + renderer.getScene().lastVisiblePolygonsCount + " polygons)");
+        if (args.length > 6) {
+            renderer.writeImage(new File(args[6]));
+        }
+    }
+
+}
@@ -0,0 +1,204 @@
+package org.nemotech.rsc.client;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.nemotech.rsc.Constants;
+
+/**
+ * A .jag archive from cache/jags, looked up through a hash table of its entries.
+ *
+ * The first time an archive is opened, or after it changes, every entry is unpacked into
+ * jags/compiled/<name>.bin, which later launches map instead of running BZLib again. That file
+ * is a header (magic, format version, the archive's length and CRC32, the entry count), the
+ * entry table (name hash, offset, length) and then the unpacked entries.
+ */
+public final class JagArchive {
+
+    private static final int MAGIC = 0x52534a41; // RSJA
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 20;
+    private static final int ENTRY_SIZE = 12;
+
+    private final ByteBuffer data;
+
+    /**
+     * Each entry's offset and length in data, packed into a long
+     */
+    private final Map<Integer, Long> entries;
+
+    private JagArchive(ByteBuffer data) {
+        this.data = data;
+        int count = data.getInt(16);
+        entries = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int position = HEADER_SIZE + i * ENTRY_SIZE;
+            long entry = (long) data.getInt(position + 4) << 32 | data.getInt(position + 8);
+            entries.putIfAbsent(data.getInt(position), entry);
+        }
+    }
+
+    /**
+     * Opens an archive in cache/jags, unpacking it again only if it has changed
+     */
+    public static JagArchive open(String file) throws IOException {
+        String directory = Constants.CACHE_DIRECTORY + "jags" + File.separator;
+        byte[] packed = Files.readAllBytes(new File(directory + file).toPath());
+        CRC32 crc = new CRC32();
+        crc.update(packed);
+        int checksum = (int) crc.getValue();
+        File compiled = new File(directory + "compiled", file + ".bin");
+        ByteBuffer data = map(compiled, packed.length, checksum);
+        if (data == null) {
+            byte[] unpacked = unpack(packed, checksum);
+            write(compiled, unpacked);
+            data = ByteBuffer.wrap(unpacked);
+        }
+        return new JagArchive(data);
+    }
+
+    /**
+     * Gets a read only view of an entry, or null if the archive has no such entry
+     */
+    public ByteBuffer get(String name) {
+        Long entry = entries.get(hash(name));
+        if (entry == null) {
+            return null;
+        }
+        return data.slice((int) (entry >>> 32), (int) (long) entry).asReadOnlyBuffer();
+    }
+
+    /**
+     * Gets a copy of an entry for the readers that work on arrays, or null if there is no such entry
+     */
+    public byte[] getBytes(String name) {
+        ByteBuffer entry = get(name);
+        if (entry == null) {
+            return null;
+        }
+        byte[] bytes = new byte[entry.remaining()];
+        entry.get(bytes);
+        return bytes;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * The hash archives file their entries under, as Util.unpackData computes it
+     */
+    public static int hash(String name) {
+        name = name.toUpperCase();
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = (hash * 61 + name.charAt(i)) - 32;
+        }
+        return hash;
+    }
+
+    private static ByteBuffer map(File file, int length, int checksum) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the header and table are read rather than mapped, as a stale file left mapped can't be replaced on Windows
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                    || header.getInt(8) != length || header.getInt(12) != checksum) {
+                return null;
+            }
+            int count = header.getInt(16);
+            if (count < 0 || size < HEADER_SIZE + (long) count * ENTRY_SIZE) {
+                return null;
+            }
+            ByteBuffer table = ByteBuffer.allocate(count * ENTRY_SIZE);
+            if (channel.read(table, HEADER_SIZE) < table.capacity()) {
+                return null;
+            }
+            for (int i = 0; i < count; i++) {
+                int position = i * ENTRY_SIZE;
+                if ((long) table.getInt(position + 4) + table.getInt(position + 8) > size) {
+                    return null;
+                }
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Unpacks a whole archive, and any entries compressed on their own, into the compiled layout
+     */
+    private static byte[] unpack(byte[] packed, int checksum) throws IOException {
+        if (packed.length < 6) {
+            throw new IOException("Archive is too short");
+        }
+        int size = ((packed[0] & 0xff) << 16) + ((packed[1] & 0xff) << 8) + (packed[2] & 0xff);
+        int sizeCompressed = ((packed[3] & 0xff) << 16) + ((packed[4] & 0xff) << 8) + (packed[5] & 0xff);
+        byte[] archive = new byte[size];
+        if (size != sizeCompressed) {
+            BZLib.decompress(archive, size, packed, sizeCompressed, 6);
+        } else {
+            System.arraycopy(packed, 6, archive, 0, size);
+        }
+        int count = ((archive[0] & 0xff) << 8) + (archive[1] & 0xff);
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            total += entrySize(archive, i * 10 + 6);
+        }
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + count * ENTRY_SIZE + total);
+        out.putInt(MAGIC).putInt(VERSION).putInt(packed.length).putInt(checksum).putInt(count);
+        int offset = 2 + count * 10;
+        int position = HEADER_SIZE + count * ENTRY_SIZE;
+        for (int i = 0; i < count; i++) {
+            int entry = i * 10 + 2;
+            int hash = ((archive[entry] & 0xff) << 24) + ((archive[entry + 1] & 0xff) << 16) + ((archive[entry + 2] & 0xff) << 8) + (archive[entry + 3] & 0xff);
+            int entrySize = entrySize(archive, entry + 4);
+            int entrySizeCompressed = entrySize(archive, entry + 7);
+            out.putInt(HEADER_SIZE + i * ENTRY_SIZE, hash);
+            out.putInt(HEADER_SIZE + i * ENTRY_SIZE + 4, position);
+            out.putInt(HEADER_SIZE + i * ENTRY_SIZE + 8, entrySize);
+            if (entrySize != entrySizeCompressed) {
+                byte[] unpacked = new byte[entrySize];
+                BZLib.decompress(unpacked, entrySize, archive, entrySizeCompressed, offset);
+                out.put(position, unpacked);
+            } else {
+                out.put(position, archive, offset, entrySize);
+            }
+            offset += entrySizeCompressed;
+            position += entrySize;
+        }
+        return out.array();
+    }
+
+    private static int entrySize(byte[] archive, int offset) {
+        return ((archive[offset] & 0xff) << 16) + ((archive[offset + 1] & 0xff) << 8) + (archive[offset + 2] & 0xff);
+    }
+
+    private static void write(File file, byte[] data) {
+        try {
+            file.getParentFile().mkdirs();
+            File temp = new File(file.getPath() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                out.write(data);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Could not write compiled " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+}
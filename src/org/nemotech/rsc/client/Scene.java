@@ -1,7 +1,32 @@
 package org.nemotech.rsc.client;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 public class Scene {
 
+    /**
+     * How many bands the frame is split into when rasterizing in parallel
+     */
+    private static final int RASTER_THREADS = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+    /**
+     * Bands are never made shorter than this many rows
+     */
+    private static final int MIN_BAND_ROWS = 32;
+    /**
+     * Runs of faces shorter than this between two sprites are drawn on the calling thread
+     */
+    private static final int MIN_PARALLEL_FACES = 64;
+    /**
+     * Scenes with fewer models than this are projected on the calling thread
+     */
+    private static final int MIN_PARALLEL_MODELS = 32;
+    /**
+     * The smallest number of models handed to one projection task
+     */
+    private static final int MIN_CHUNK_MODELS = 8;
+
     public static int sin2048Cache[] = new int[2048];
     static int frustumMaxX;
     static int frustumMinX;
@@ -26,9 +51,6 @@ public class Scene {
     public Model view;
     public int raster[];
     int rampCount;
-    int gradientBase[];
-    int gradientRamps[][];
-    int anIntArray377[];
     int textureCount;
     byte textureColoursUsed[][];
     int textureColourList[][];
@@ -39,9 +61,32 @@ public class Scene {
     int textureColours64[][];
     int textureColours128[][];
     Surface surface;
-    Scanline scanlines[];
-    int minY;
-    int maxY;
+    /**
+     * Whether queued faces are rasterized in horizontal bands across several threads,
+     * the pixels come out the same as drawing them one after another
+     */
+    public boolean parallelRaster;
+    /**
+     * Whether models are projected and culled across several threads before the depth sort
+     */
+    public boolean parallelProjection;
+    private PolygonBuffer polygonBuffers[];
+    /**
+     * Sorts polygons with the old recursive quicksort instead of the radix sort, which
+     * orders polygons of equal depth differently, for comparing the two
+     */
+    public boolean quickSortPolygons;
+    private int sortKeys[];
+    private int sortOrder[];
+    private int sortScratch[];
+    private int sortBuckets[];
+    private Polygon sortPolygons[];
+    RasterBand band;
+    RasterBand rasterBands[];
+    private int faceData[];
+    private int faceDataLength;
+    private boolean textureQueued[];
+    private int texturesQueued[];
     int planeX[];
     int planeY[];
     int vertexShade[];
@@ -84,8 +129,12 @@ public class Scene {
 
     public Scene(Surface surface, int i, int polygons, int k) {
         rampCount = 50;
-        gradientBase = new int[rampCount];
-        gradientRamps = new int[rampCount][256];
+        parallelRaster = RASTER_THREADS > 1;
+        parallelProjection = RASTER_THREADS > 1;
+        faceData = new int[4096];
+        texturesQueued = new int[2];
+        quickSortPolygons = false;
+        sortBuckets = new int[2048];
         clipNear = 5;
         clipFar3d = 1000;
         clipFar2d = 1000;
@@ -1104,10 +1153,67 @@ public class Scene {
         this.baseY = baseY;
         this.width = width;
         this.viewDistance = viewDistance;
-        scanlines = new Scanline[clipY + baseY];
-        for (int k1 = 0; k1 < clipY + baseY; k1++) {
-            scanlines[k1] = new Scanline();
+        band = new RasterBand(0, Integer.MAX_VALUE);
+        int top = baseY - clipY;
+        int rows = clipY * 2;
+        int count = Math.max(1, Math.min(RASTER_THREADS, rows / MIN_BAND_ROWS));
+        rasterBands = new RasterBand[count];
+        for (int k1 = 0; k1 < count; k1++) {
+            rasterBands[k1] = new RasterBand(k1 == 0 ? 0 : top + rows * k1 / count, k1 == count - 1 ? Integer.MAX_VALUE : top + rows * (k1 + 1) / count);
+        }
+    }
+
+    /**
+     * Sorts the polygons furthest first with a stable radix sort on their depth,
+     * taking one pass per 11 bits of the range between the nearest and furthest
+     */
+    private void polygonsDepthSort(Polygon polygons[], int count) {
+        if (sortOrder == null || sortOrder.length < count) {
+            sortKeys = new int[count];
+            sortOrder = new int[count];
+            sortScratch = new int[count];
+            sortPolygons = new Polygon[count];
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int depth = polygons[i].depth;
+            if (depth < min)
+                min = depth;
+            if (depth > max)
+                max = depth;
+        }
+        int keys[] = sortKeys;
+        int order[] = sortOrder;
+        int scratch[] = sortScratch;
+        for (int i = 0; i < count; i++) {
+            // compared unsigned, so the furthest polygon gets key 0 even if the range overflows
+            keys[i] = max - polygons[i].depth;
+            order[i] = i;
+        }
+        int range = max - min;
+        int buckets[] = sortBuckets;
+        for (int shift = 0; shift < 32 && (shift == 0 || range >>> shift != 0); shift += 11) {
+            Arrays.fill(buckets, 0);
+            for (int i = 0; i < count; i++)
+                buckets[keys[i] >>> shift & 0x7ff]++;
+            int position = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                int size = buckets[i];
+                buckets[i] = position;
+                position += size;
+            }
+            for (int i = 0; i < count; i++) {
+                int index = order[i];
+                scratch[buckets[keys[index] >>> shift & 0x7ff]++] = index;
+            }
+            int temp[] = order;
+            order = scratch;
+            scratch = temp;
         }
+        for (int i = 0; i < count; i++)
+            sortPolygons[i] = polygons[order[i]];
+        System.arraycopy(sortPolygons, 0, polygons, 0, count);
     }
 
     private void polygonsQSort(Polygon polygons[], int low, int high) {
@@ -1280,77 +1386,17 @@ public class Scene {
         frustumNearZ += cameraZ;
         models[modelCount] = view;
         view.transformState = 2;
-        for (int i = 0; i < modelCount; i++)
-            models[i].project(cameraX, cameraY, cameraZ, cameraYaw, cameraPitch, cameraRoll, viewDistance, clipNear);
-
-        models[modelCount].project(cameraX, cameraY, cameraZ, cameraYaw, cameraPitch, cameraRoll, viewDistance, clipNear);
         visiblePolygonsCount = 0;
-        for (int count = 0; count < modelCount; count++) {
-            Model gameModel = models[count];
-            if (gameModel.visible) {
-                for (int face = 0; face < gameModel.numFaces; face++) {
-                    int num_vertices = gameModel.faceNumVertices[face];
-                    int vertices[] = gameModel.faceVertices[face];
-                    boolean visible = false;
-                    for (int vertex = 0; vertex < num_vertices; vertex++) {
-                        int z = gameModel.projectVertexZ[vertices[vertex]];
-                        if (z <= clipNear || z >= clipFar3d)
-                            continue;
-                        visible = true;
-                        break;
-                    }
-
-                    if (visible) {
-                        int viewxcount = 0;
-                        for (int vertex = 0; vertex < num_vertices; vertex++) {
-                            int x = gameModel.vertexViewX[vertices[vertex]];
-                            if (x > -clipX)
-                                viewxcount |= 1;
-                            if (x < clipX)
-                                viewxcount |= 2;
-                            if (viewxcount == 3)
-                                break;
-                        }
-
-                        if (viewxcount == 3) {
-                            int viewycount = 0;
-                            for (int vertex = 0; vertex < num_vertices; vertex++) {
-                                int k1 = gameModel.vertexViewY[vertices[vertex]];
-                                if (k1 > -clipY)
-                                    viewycount |= 1;
-                                if (k1 < clipY)
-                                    viewycount |= 2;
-                                if (viewycount == 3)
-                                    break;
-                            }
-
-                            if (viewycount == 3) {
-                                Polygon polygon_1 = visiblePolygons[visiblePolygonsCount];
-                                polygon_1.model = gameModel;
-                                polygon_1.face = face;
-                                initialisePolygon3d(visiblePolygonsCount);
-                                int facefill;
-                                if (polygon_1.visibility < 0)
-                                    facefill = gameModel.faceFillFront[face];
-                                else
-                                    facefill = gameModel.faceFillBack[face];
-                                if (facefill != Terrain.COLOR_TRANSPARENT) { // 12345678 = invisible ?
-                                    int h = 0;
-                                    for (int vertex = 0; vertex < num_vertices; vertex++)
-                                        h += gameModel.projectVertexZ[vertices[vertex]];
-
-                                    polygon_1.depth = h / num_vertices + gameModel.depth;
-                                    polygon_1.facefill = facefill;
-                                    visiblePolygonsCount++;
-                                }
-                            }
-                        }
-                    }
-                }
+        if (parallelProjection && RASTER_THREADS > 1 && modelCount >= MIN_PARALLEL_MODELS) {
+            projectParallel();
+        } else {
+            for (int i = 0; i < modelCount; i++)
+                models[i].project(cameraX, cameraY, cameraZ, cameraYaw, cameraPitch, cameraRoll, viewDistance, clipNear);
 
-            }
+            for (int count = 0; count < modelCount; count++)
+                visiblePolygonsCount = cullModel(models[count], visiblePolygons, visiblePolygonsCount);
         }
-
+        models[modelCount].project(cameraX, cameraY, cameraZ, cameraYaw, cameraPitch, cameraRoll, viewDistance, clipNear);
         Model model_2d = view;
         if (model_2d.visible) {
             for (int face = 0; face < model_2d.numFaces; face++) {
@@ -1377,13 +1423,25 @@ public class Scene {
         if (visiblePolygonsCount == 0)
             return;
         lastVisiblePolygonsCount = visiblePolygonsCount;
-        polygonsQSort(visiblePolygons, 0, visiblePolygonsCount - 1);
+        if (quickSortPolygons)
+            polygonsQSort(visiblePolygons, 0, visiblePolygonsCount - 1);
+        else
+            polygonsDepthSort(visiblePolygons, visiblePolygonsCount);
         polygonsIntersectSort(100, visiblePolygons, visiblePolygonsCount);
+        // scanlines are still generated here in painter's order so mouse picking and the
+        // texture cache behave exactly as before, only the pixels of queued faces are deferred
+        boolean queueFaces = parallelRaster && rasterBands.length > 1;
+        int queued = 0;
+        faceDataLength = 0;
         for (int model = 0; model < visiblePolygonsCount; model++) {
             Polygon polygon = visiblePolygons[model];
             Model gameModel_2 = polygon.model;
             int l = polygon.face;
             if (gameModel_2 == view) {
+                if (queueFaces && queued < model) {
+                    rasterizeQueued(queued, model);
+                }
+                queued = model + 1;
                 int faceverts[] = gameModel_2.faceVertices[l];
                 int face_0 = faceverts[0];
                 int vx = gameModel_2.vertexViewX[face_0];
@@ -1475,17 +1533,122 @@ public class Scene {
                             vertexShade[i12] <<= 6;
                 }
 
-                generateScanlines(0, 0, 0, 0, k8, planeX, planeY, vertexShade, gameModel_2, l);
-                if (maxY > minY)
-                    rasterize(0, 0, l10, vertexX, vertexY, vertexZ, polygon.facefill, gameModel_2);
+                int offset = faceDataLength;
+                if (queueFaces) {
+                    queueFace(polygon, k8, l10);
+                }
+                generateScanlines(band, 0, 0, 0, 0, k8, planeX, planeY, vertexShade);
+                pickFace(gameModel_2, l);
+                polygon.rowStart = band.minY;
+                polygon.rowEnd = band.maxY;
+                if (band.maxY > band.minY && polygon.facefill != -2) {
+                    if (polygon.facefill >= 0) {
+                        int texture = polygon.facefill < textureCount ? polygon.facefill : 0;
+                        if (queueFaces && !textureQueued[texture] && !canQueueTexture(texture)) {
+                            rasterizeQueued(queued, model);
+                            queued = model;
+                        }
+                        prepareTexture(texture);
+                        if (queueFaces && !textureQueued[texture]) {
+                            textureQueued[texture] = true;
+                            texturesQueued[textureDimension[texture]]++;
+                        }
+                    }
+                    if (!queueFaces) {
+                        rasterize(band, 0, 0, l10, vertexX, vertexY, vertexZ, polygon.facefill, gameModel_2);
+                    }
+                } else {
+                    polygon.rowEnd = polygon.rowStart;
+                    faceDataLength = offset;
+                }
             }
         }
 
+        if (queueFaces && queued < visiblePolygonsCount) {
+            rasterizeQueued(queued, visiblePolygonsCount);
+        }
         mousePickingActive = false;
     }
 
-    private void generateScanlines(int i, int j, int k, int l, int i1, int ai[], int ai1[],
-                                   int ai2[], Model gameModel, int pid) {
+    /**
+     * Copies a face's clipped vertices aside so it can be rasterized once the run it's in is complete
+     */
+    private void queueFace(Polygon polygon, int planes, int vertices) {
+        int length = faceDataLength + planes * 3 + vertices * 3;
+        if (length > faceData.length) {
+            faceData = Arrays.copyOf(faceData, Math.max(length, faceData.length * 2));
+        }
+        int offset = faceDataLength;
+        polygon.dataOffset = offset;
+        polygon.planeCount = planes;
+        polygon.vertexCount = vertices;
+        System.arraycopy(planeX, 0, faceData, offset, planes);
+        System.arraycopy(planeY, 0, faceData, offset += planes, planes);
+        System.arraycopy(vertexShade, 0, faceData, offset += planes, planes);
+        System.arraycopy(vertexX, 0, faceData, offset += planes, vertices);
+        System.arraycopy(vertexY, 0, faceData, offset += vertices, vertices);
+        System.arraycopy(vertexZ, 0, faceData, offset += vertices, vertices);
+        faceDataLength = length;
+    }
+
+    /**
+     * Whether another texture of this size can join the queued run without the texture
+     * cache dropping one the run still needs
+     */
+    private boolean canQueueTexture(int id) {
+        int dimension = textureDimension[id];
+        return texturesQueued[dimension] < (dimension == 0 ? textureColours64.length : textureColours128.length);
+    }
+
+    /**
+     * Rasterizes the queued faces between two sprites. Every band draws the whole run
+     * clipped to its own rows, so faces still overlap in painter's order.
+     */
+    private void rasterizeQueued(int from, int to) {
+        if (to - from < MIN_PARALLEL_FACES) {
+            rasterizeFaces(band, from, to);
+        } else {
+            ForkJoinTask<?> tasks[] = new ForkJoinTask<?>[rasterBands.length - 1];
+            for (int i = 1; i < rasterBands.length; i++) {
+                RasterBand rasterBand = rasterBands[i];
+                tasks[i - 1] = ForkJoinPool.commonPool().submit(() -> rasterizeFaces(rasterBand, from, to));
+            }
+            rasterizeFaces(rasterBands[0], from, to);
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        for (int i = from; i < to; i++) {
+            Polygon polygon = visiblePolygons[i];
+            if (polygon.facefill >= 0) {
+                textureQueued[polygon.facefill < textureCount ? polygon.facefill : 0] = false;
+            }
+        }
+        texturesQueued[0] = 0;
+        texturesQueued[1] = 0;
+    }
+
+    private void rasterizeFaces(RasterBand band, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Polygon polygon = visiblePolygons[i];
+            if (polygon.rowEnd <= polygon.rowStart || polygon.rowEnd <= band.top || polygon.rowStart >= band.bottom)
+                continue;
+            int offset = polygon.dataOffset;
+            int planes = polygon.planeCount;
+            int vertices = polygon.vertexCount;
+            System.arraycopy(faceData, offset, band.planeX, 0, planes);
+            System.arraycopy(faceData, offset += planes, band.planeY, 0, planes);
+            System.arraycopy(faceData, offset += planes, band.vertexShade, 0, planes);
+            System.arraycopy(faceData, offset += planes, band.vertexX, 0, vertices);
+            System.arraycopy(faceData, offset += vertices, band.vertexY, 0, vertices);
+            System.arraycopy(faceData, offset += vertices, band.vertexZ, 0, vertices);
+            generateScanlines(band, 0, 0, 0, 0, planes, band.planeX, band.planeY, band.vertexShade);
+            rasterize(band, 0, 0, vertices, band.vertexX, band.vertexY, band.vertexZ, polygon.facefill, polygon.model);
+        }
+    }
+
+    private void generateScanlines(RasterBand band, int i, int j, int k, int l, int i1, int ai[], int ai1[],
+                                   int ai2[]) {
         if (i1 == 3) {
             int k1 = ai1[0] + baseY;
             int k2 = ai1[1] + baseY;
@@ -1581,18 +1744,18 @@ public class Scene {
                 if (j21 > j12)
                     j21 = j12;
             }
-            minY = l14;
-            if (l17 < minY)
-                minY = l17;
-            if (l20 < minY)
-                minY = l20;
-            maxY = j15;
-            if (j18 > maxY)
-                maxY = j18;
-            if (j21 > maxY)
-                maxY = j21;
+            band.minY = l14;
+            if (l17 < band.minY)
+                band.minY = l17;
+            if (l20 < band.minY)
+                band.minY = l20;
+            band.maxY = j15;
+            if (j18 > band.maxY)
+                band.maxY = j18;
+            if (j21 > band.maxY)
+                band.maxY = j21;
             int l21 = 0;
-            for (k = minY; k < maxY; k++) {
+            for (k = band.minY; k < band.maxY; k++) {
                 if (k >= l14 && k < j15) {
                     i = j = l12;
                     l = l21 = l13;
@@ -1626,15 +1789,15 @@ public class Scene {
                     l18 += j19;
                     l19 += j20;
                 }
-                Scanline scanline_6 = scanlines[k];
+                Scanline scanline_6 = band.scanlines[k];
                 scanline_6.startX = i;
                 scanline_6.endX = j;
                 scanline_6.startS = l;
                 scanline_6.endS = l21;
             }
 
-            if (minY < baseY - clipY)
-                minY = baseY - clipY;
+            if (band.minY < baseY - clipY)
+                band.minY = baseY - clipY;
         } else if (i1 == 4) {
             int l1 = ai1[0] + baseY;
             int l2 = ai1[1] + baseY;
@@ -1761,22 +1924,22 @@ public class Scene {
                 if (i24 > i14)
                     i24 = i14;
             }
-            minY = k16;
-            if (k19 < minY)
-                minY = k19;
-            if (j22 < minY)
-                minY = j22;
-            if (l23 < minY)
-                minY = l23;
-            maxY = i17;
-            if (i20 > maxY)
-                maxY = i20;
-            if (k22 > maxY)
-                maxY = k22;
-            if (i24 > maxY)
-                maxY = i24;
+            band.minY = k16;
+            if (k19 < band.minY)
+                band.minY = k19;
+            if (j22 < band.minY)
+                band.minY = j22;
+            if (l23 < band.minY)
+                band.minY = l23;
+            band.maxY = i17;
+            if (i20 > band.maxY)
+                band.maxY = i20;
+            if (k22 > band.maxY)
+                band.maxY = k22;
+            if (i24 > band.maxY)
+                band.maxY = i24;
             int j24 = 0;
-            for (k = minY; k < maxY; k++) {
+            for (k = band.minY; k < band.maxY; k++) {
                 if (k >= k16 && k < i17) {
                     i = j = k14;
                     l = j24 = k15;
@@ -1822,33 +1985,33 @@ public class Scene {
                     l22 += i23;
                     j23 += k23;
                 }
-                Scanline scanline_7 = scanlines[k];
+                Scanline scanline_7 = band.scanlines[k];
                 scanline_7.startX = i;
                 scanline_7.endX = j;
                 scanline_7.startS = l;
                 scanline_7.endS = j24;
             }
 
-            if (minY < baseY - clipY)
-                minY = baseY - clipY;
+            if (band.minY < baseY - clipY)
+                band.minY = baseY - clipY;
         } else {
-            maxY = minY = ai1[0] += baseY;
+            band.maxY = band.minY = ai1[0] += baseY;
             for (k = 1; k < i1; k++) {
                 int i2;
-                if ((i2 = ai1[k] += baseY) < minY)
-                    minY = i2;
-                else if (i2 > maxY)
-                    maxY = i2;
+                if ((i2 = ai1[k] += baseY) < band.minY)
+                    band.minY = i2;
+                else if (i2 > band.maxY)
+                    band.maxY = i2;
             }
 
-            if (minY < baseY - clipY)
-                minY = baseY - clipY;
-            if (maxY >= baseY + clipY)
-                maxY = (baseY + clipY) - 1;
-            if (minY >= maxY)
+            if (band.minY < baseY - clipY)
+                band.minY = baseY - clipY;
+            if (band.maxY >= baseY + clipY)
+                band.maxY = (baseY + clipY) - 1;
+            if (band.minY >= band.maxY)
                 return;
-            for (k = minY; k < maxY; k++) {
-                Scanline scanline = scanlines[k];
+            for (k = band.minY; k < band.maxY; k++) {
+                Scanline scanline = band.scanlines[k];
                 scanline.startX = 0xa0000;
                 scanline.endX = 0xfff60000;
             }
@@ -1866,10 +2029,10 @@ public class Scene {
                     l7 -= j9 * i3;
                     i3 = 0;
                 }
-                if (i4 > maxY)
-                    i4 = maxY;
+                if (i4 > band.maxY)
+                    i4 = band.maxY;
                 for (k = i3; k <= i4; k++) {
-                    Scanline scanline_2 = scanlines[k];
+                    Scanline scanline_2 = band.scanlines[k];
                     scanline_2.startX = scanline_2.endX = i5;
                     scanline_2.startS = scanline_2.endS = l7;
                     i5 += j6;
@@ -1886,10 +2049,10 @@ public class Scene {
                     i8 -= k9 * i4;
                     i4 = 0;
                 }
-                if (i3 > maxY)
-                    i3 = maxY;
+                if (i3 > band.maxY)
+                    i3 = band.maxY;
                 for (k = i4; k <= i3; k++) {
-                    Scanline scanline_3 = scanlines[k];
+                    Scanline scanline_3 = band.scanlines[k];
                     scanline_3.startX = scanline_3.endX = j5;
                     scanline_3.startS = scanline_3.endS = i8;
                     j5 += k6;
@@ -1911,10 +2074,10 @@ public class Scene {
                         l9 -= l10 * j3;
                         j3 = 0;
                     }
-                    if (j4 > maxY)
-                        j4 = maxY;
+                    if (j4 > band.maxY)
+                        j4 = band.maxY;
                     for (int l11 = j3; l11 <= j4; l11++) {
-                        Scanline scanline_4 = scanlines[l11];
+                        Scanline scanline_4 = band.scanlines[l11];
                         if (l6 < scanline_4.startX) {
                             scanline_4.startX = l6;
                             scanline_4.startS = l9;
@@ -1937,10 +2100,10 @@ public class Scene {
                         i10 -= i11 * j4;
                         j4 = 0;
                     }
-                    if (j3 > maxY)
-                        j3 = maxY;
+                    if (j3 > band.maxY)
+                        j3 = band.maxY;
                     for (int i12 = j4; i12 <= j3; i12++) {
-                        Scanline scanline_5 = scanlines[i12];
+                        Scanline scanline_5 = band.scanlines[i12];
                         if (i7 < scanline_5.startX) {
                             scanline_5.startX = i7;
                             scanline_5.startS = i10;
@@ -1956,11 +2119,14 @@ public class Scene {
                 }
             }
 
-            if (minY < baseY - clipY)
-                minY = baseY - clipY;
+            if (band.minY < baseY - clipY)
+                band.minY = baseY - clipY;
         }
-        if (mousePickingActive && mousePickedCount < mousePickedMax && mouseY >= minY && mouseY < maxY) {
-            Scanline scanline_1 = scanlines[mouseY];
+    }
+
+    private void pickFace(Model gameModel, int pid) {
+        if (mousePickingActive && mousePickedCount < mousePickedMax && mouseY >= band.minY && mouseY < band.maxY) {
+            Scanline scanline_1 = band.scanlines[mouseY];
             if (mouseX >= scanline_1.startX >> 8 && mouseX <= scanline_1.endX >> 8 && scanline_1.startX <= scanline_1.endX && !gameModel.unpickable && gameModel.isLocalPlayer[pid] == 0) {
                 mousePickedModels[mousePickedCount] = gameModel;
                 mousePickedFaces[mousePickedCount] = pid;
@@ -1969,14 +2135,13 @@ public class Scene {
         }
     }
 
-    private void rasterize(int i, int j, int k, int ai[], int ai1[], int ai2[], int l,
+    private void rasterize(RasterBand band, int i, int j, int k, int ai[], int ai1[], int ai2[], int l,
                            Model gameModel) {
         if (l == -2)
             return;
         if (l >= 0) {
             if (l >= textureCount)
                 l = 0;
-            prepareTexture(l);
             int i1 = ai[0];
             int k1 = ai1[0];
             int j2 = ai2[0];
@@ -2000,16 +2165,16 @@ public class Scene {
                 int k14 = k10 >> 4;
                 int i15 = i12 >> 4;
                 int k15 = k13 >> 4;
-                int i16 = minY - baseY;
+                int i16 = band.minY - baseY;
                 int k16 = width;
-                int i17 = baseX + minY * k16;
+                int i17 = baseX + band.minY * k16;
                 byte byte1 = 1;
                 l9 += i11 * i16;
                 k11 += k12 * i16;
                 i13 += i14 * i16;
                 if (interlace) {
-                    if ((minY & 1) == 1) {
-                        minY++;
+                    if ((band.minY & 1) == 1) {
+                        band.minY++;
                         l9 += i11;
                         k11 += k12;
                         i13 += i14;
@@ -2021,9 +2186,14 @@ public class Scene {
                     k16 <<= 1;
                     byte1 = 2;
                 }
+                int skipped = band.clip(byte1);
+                l9 += i11 * skipped;
+                k11 += k12 * skipped;
+                i13 += i14 * skipped;
+                i17 += k16 * skipped;
                 if (gameModel.textureTranslucent) {
-                    for (i = minY; i < maxY; i += byte1) {
-                        Scanline scanline_3 = scanlines[i];
+                    for (i = band.minY; i < band.maxY; i += byte1) {
+                        Scanline scanline_3 = band.scanlines[i];
                         j = scanline_3.startX >> 8;
                         int k17 = scanline_3.endX >> 8;
                         int k20 = k17 - j;
@@ -2055,8 +2225,8 @@ public class Scene {
                     return;
                 }
                 if (!textureBackTransparent[l]) {
-                    for (i = minY; i < maxY; i += byte1) {
-                        Scanline scanline_4 = scanlines[i];
+                    for (i = band.minY; i < band.maxY; i += byte1) {
+                        Scanline scanline_4 = band.scanlines[i];
                         j = scanline_4.startX >> 8;
                         int i18 = scanline_4.endX >> 8;
                         int l20 = i18 - j;
@@ -2087,8 +2257,8 @@ public class Scene {
 
                     return;
                 }
-                for (i = minY; i < maxY; i += byte1) {
-                    Scanline scanline_5 = scanlines[i];
+                for (i = band.minY; i < band.maxY; i += byte1) {
+                    Scanline scanline_5 = band.scanlines[i];
                     j = scanline_5.startX >> 8;
                     int k18 = scanline_5.endX >> 8;
                     int i21 = k18 - j;
@@ -2131,16 +2301,16 @@ public class Scene {
             int l14 = l10 >> 4;
             int j15 = j12 >> 4;
             int l15 = l13 >> 4;
-            int j16 = minY - baseY;
+            int j16 = band.minY - baseY;
             int l16 = width;
-            int j17 = baseX + minY * l16;
+            int j17 = baseX + band.minY * l16;
             byte byte2 = 1;
             i10 += j11 * j16;
             l11 += l12 * j16;
             j13 += j14 * j16;
             if (interlace) {
-                if ((minY & 1) == 1) {
-                    minY++;
+                if ((band.minY & 1) == 1) {
+                    band.minY++;
                     i10 += j11;
                     l11 += l12;
                     j13 += j14;
@@ -2152,9 +2322,14 @@ public class Scene {
                 l16 <<= 1;
                 byte2 = 2;
             }
+            int skipped = band.clip(byte2);
+            i10 += j11 * skipped;
+            l11 += l12 * skipped;
+            j13 += j14 * skipped;
+            j17 += l16 * skipped;
             if (gameModel.textureTranslucent) {
-                for (i = minY; i < maxY; i += byte2) {
-                    Scanline scanline_6 = scanlines[i];
+                for (i = band.minY; i < band.maxY; i += byte2) {
+                    Scanline scanline_6 = band.scanlines[i];
                     j = scanline_6.startX >> 8;
                     int i19 = scanline_6.endX >> 8;
                     int j21 = i19 - j;
@@ -2186,8 +2361,8 @@ public class Scene {
                 return;
             }
             if (!textureBackTransparent[l]) {
-                for (i = minY; i < maxY; i += byte2) {
-                    Scanline scanline_7 = scanlines[i];
+                for (i = band.minY; i < band.maxY; i += byte2) {
+                    Scanline scanline_7 = band.scanlines[i];
                     j = scanline_7.startX >> 8;
                     int k19 = scanline_7.endX >> 8;
                     int k21 = k19 - j;
@@ -2218,8 +2393,8 @@ public class Scene {
 
                 return;
             }
-            for (i = minY; i < maxY; i += byte2) {
-                Scanline scanline = scanlines[i];
+            for (i = band.minY; i < band.maxY; i += byte2) {
+                Scanline scanline = band.scanlines[i];
                 j = scanline.startX >> 8;
                 int i20 = scanline.endX >> 8;
                 int l21 = i20 - j;
@@ -2251,13 +2426,13 @@ public class Scene {
             return;
         }
         for (int j1 = 0; j1 < rampCount; j1++) {
-            if (gradientBase[j1] == l) {
-                anIntArray377 = gradientRamps[j1];
+            if (band.gradientBase[j1] == l) {
+                band.ramp = band.gradientRamps[j1];
                 break;
             }
             if (j1 == rampCount - 1) {
                 int l1 = (int) (Math.random() * (double) rampCount);
-                gradientBase[l1] = l;
+                band.gradientBase[l1] = l;
                 l = -1 - l;
                 int k2 = (l >> 10 & 0x1f) * 8;
                 int j3 = (l >> 5 & 0x1f) * 8;
@@ -2267,27 +2442,28 @@ public class Scene {
                     int k7 = (k2 * j6) / 0x10000;
                     int l8 = (j3 * j6) / 0x10000;
                     int j10 = (l3 * j6) / 0x10000;
-                    gradientRamps[l1][255 - j4] = (k7 << 16) + (l8 << 8) + j10;
+                    band.gradientRamps[l1][255 - j4] = (k7 << 16) + (l8 << 8) + j10;
                 }
 
-                anIntArray377 = gradientRamps[l1];
+                band.ramp = band.gradientRamps[l1];
             }
         }
 
         int i2 = width;
-        int l2 = baseX + minY * i2;
+        int l2 = baseX + band.minY * i2;
         byte byte0 = 1;
         if (interlace) {
-            if ((minY & 1) == 1) {
-                minY++;
+            if ((band.minY & 1) == 1) {
+                band.minY++;
                 l2 += i2;
             }
             i2 <<= 1;
             byte0 = 2;
         }
+        l2 += i2 * band.clip(byte0);
         if (gameModel.transparent) {
-            for (i = minY; i < maxY; i += byte0) {
-                Scanline scanline = scanlines[i];
+            for (i = band.minY; i < band.maxY; i += byte0) {
+                Scanline scanline = band.scanlines[i];
                 j = scanline.startX >> 8;
                 int k4 = scanline.endX >> 8;
                 int k6 = k4 - j;
@@ -2305,7 +2481,7 @@ public class Scene {
                         int l4 = clipX;
                         k6 = l4 - j;
                     }
-                    textureGradientScanline(raster, -k6, l2 + j, 0, anIntArray377, l7, i9);
+                    textureGradientScanline(raster, -k6, l2 + j, 0, band.ramp, l7, i9);
                     l2 += i2;
                 }
             }
@@ -2313,8 +2489,8 @@ public class Scene {
             return;
         }
         if (wideBand) {
-            for (i = minY; i < maxY; i += byte0) {
-                Scanline scanline_1 = scanlines[i];
+            for (i = band.minY; i < band.maxY; i += byte0) {
+                Scanline scanline_1 = band.scanlines[i];
                 j = scanline_1.startX >> 8;
                 int i5 = scanline_1.endX >> 8;
                 int l6 = i5 - j;
@@ -2332,15 +2508,15 @@ public class Scene {
                         int j5 = clipX;
                         l6 = j5 - j;
                     }
-                    gradientScanline(raster, -l6, l2 + j, 0, anIntArray377, i8, j9);
+                    gradientScanline(raster, -l6, l2 + j, 0, band.ramp, i8, j9);
                     l2 += i2;
                 }
             }
 
             return;
         }
-        for (i = minY; i < maxY; i += byte0) {
-            Scanline scanline_2 = scanlines[i];
+        for (i = band.minY; i < band.maxY; i += byte0) {
+            Scanline scanline_2 = band.scanlines[i];
             j = scanline_2.startX >> 8;
             int k5 = scanline_2.endX >> 8;
             int i7 = k5 - j;
@@ -2358,7 +2534,7 @@ public class Scene {
                     int l5 = clipX;
                     i7 = l5 - j;
                 }
-                gradientScanline2(raster, -i7, l2 + j, 0, anIntArray377, j8, k9);
+                gradientScanline2(raster, -i7, l2 + j, 0, band.ramp, j8, k9);
                 l2 += i2;
             }
         }
@@ -2401,8 +2577,119 @@ public class Scene {
         cameraZ = y - j2;
     }
 
-    private void initialisePolygon3d(int i) {
-        Polygon polygon = visiblePolygons[i];
+    /**
+     * Adds the faces of a projected model that are in view to the given polygons, returning the new count
+     */
+    private int cullModel(Model gameModel, Polygon polygons[], int count) {
+        if (gameModel.visible) {
+            for (int face = 0; face < gameModel.numFaces; face++) {
+                int num_vertices = gameModel.faceNumVertices[face];
+                int vertices[] = gameModel.faceVertices[face];
+                boolean visible = false;
+                for (int vertex = 0; vertex < num_vertices; vertex++) {
+                    int z = gameModel.projectVertexZ[vertices[vertex]];
+                    if (z <= clipNear || z >= clipFar3d)
+                        continue;
+                    visible = true;
+                    break;
+                }
+
+                if (visible) {
+                    int viewxcount = 0;
+                    for (int vertex = 0; vertex < num_vertices; vertex++) {
+                        int x = gameModel.vertexViewX[vertices[vertex]];
+                        if (x > -clipX)
+                            viewxcount |= 1;
+                        if (x < clipX)
+                            viewxcount |= 2;
+                        if (viewxcount == 3)
+                            break;
+                    }
+
+                    if (viewxcount == 3) {
+                        int viewycount = 0;
+                        for (int vertex = 0; vertex < num_vertices; vertex++) {
+                            int k1 = gameModel.vertexViewY[vertices[vertex]];
+                            if (k1 > -clipY)
+                                viewycount |= 1;
+                            if (k1 < clipY)
+                                viewycount |= 2;
+                            if (viewycount == 3)
+                                break;
+                        }
+
+                        if (viewycount == 3) {
+                            Polygon polygon_1 = polygons[count];
+                            polygon_1.model = gameModel;
+                            polygon_1.face = face;
+                            initialisePolygon3d(polygon_1);
+                            int facefill;
+                            if (polygon_1.visibility < 0)
+                                facefill = gameModel.faceFillFront[face];
+                            else
+                                facefill = gameModel.faceFillBack[face];
+                            if (facefill != Terrain.COLOR_TRANSPARENT) { // 12345678 = invisible ?
+                                int h = 0;
+                                for (int vertex = 0; vertex < num_vertices; vertex++)
+                                    h += gameModel.projectVertexZ[vertices[vertex]];
+
+                                polygon_1.depth = h / num_vertices + gameModel.depth;
+                                polygon_1.facefill = facefill;
+                                count++;
+                            }
+                        }
+                    }
+                }
+            }
+
+        }
+        return count;
+    }
+
+    /**
+     * Projects and culls the models in chunks across the fork-join pool. Each chunk collects
+     * its faces in its own buffer, and the buffers are joined back in model order.
+     */
+    private void projectParallel() {
+        int chunks = Math.min(RASTER_THREADS * 4, (modelCount + MIN_CHUNK_MODELS - 1) / MIN_CHUNK_MODELS);
+        if (polygonBuffers == null || polygonBuffers.length < chunks) {
+            polygonBuffers = new PolygonBuffer[chunks];
+            for (int i = 0; i < chunks; i++) {
+                polygonBuffers[i] = new PolygonBuffer();
+            }
+        }
+        ForkJoinTask<?> tasks[] = new ForkJoinTask<?>[chunks];
+        for (int i = 0; i < chunks; i++) {
+            PolygonBuffer buffer = polygonBuffers[i];
+            int from = modelCount * i / chunks;
+            int to = modelCount * (i + 1) / chunks;
+            tasks[i] = ForkJoinPool.commonPool().submit(() -> {
+                int faces = 0;
+                for (int j = from; j < to; j++) {
+                    models[j].project(cameraX, cameraY, cameraZ, cameraYaw, cameraPitch, cameraRoll, viewDistance, clipNear);
+                    if (models[j].visible)
+                        faces += models[j].numFaces;
+                }
+                buffer.ensureCapacity(faces);
+                buffer.count = 0;
+                for (int j = from; j < to; j++)
+                    buffer.count = cullModel(models[j], buffer.polygons, buffer.count);
+            });
+        }
+        for (int i = 0; i < chunks; i++) {
+            tasks[i].join();
+            PolygonBuffer buffer = polygonBuffers[i];
+            // swap rather than copy, so both pools keep their own polygon objects
+            int count = Math.min(buffer.count, visiblePolygons.length - visiblePolygonsCount);
+            for (int j = 0; j < count; j++) {
+                Polygon polygon = visiblePolygons[visiblePolygonsCount];
+                visiblePolygons[visiblePolygonsCount++] = buffer.polygons[j];
+                buffer.polygons[j] = polygon;
+            }
+        }
+    }
+
+    private void initialisePolygon3d(Polygon polygon) {
         Model gameModel = polygon.model;
         int face = polygon.face;
         int faceVertices[] = gameModel.faceVertices[face];
@@ -2691,10 +2978,71 @@ public class Scene {
         textureBackTransparent = new boolean[count];
         texturePixels = new int[count][];
         textureCountLoaded = 0L;
+        textureQueued = new boolean[count];
         textureColours64 = new int[something7][];// 64x64 rgba
         textureColours128 = new int[something11][];// 128x128 rgba
     }
 
+    /**
+     * Defines a texture from a loaded sprite, reducing its colours to a 256 entry palette
+     */
+    public void defineTexture(int id, Sprite sprite) {
+        int length = sprite.getWidth() * sprite.getHeight();
+        int[] pixels = sprite.getPixels();
+        int ai1[] = new int[32768];
+        for (int k = 0; k < length; k++) {
+            ai1[((pixels[k] & 0xf80000) >> 9) + ((pixels[k] & 0xf800) >> 6) + ((pixels[k] & 0xf8) >> 3)]++;
+        }
+        int[] dictionary = new int[256];
+        dictionary[0] = 0xff00ff;
+        int[] temp0 = new int[256];
+        for (int i1 = 0; i1 < ai1.length; i1++) {
+            int j1 = ai1[i1];
+            if (j1 > temp0[255]) {
+                for (int k1 = 1; k1 < 256; k1++) {
+                    if (j1 <= temp0[k1]) {
+                        continue;
+                    }
+                    for (int i2 = 255; i2 > k1; i2--) {
+                        dictionary[i2] = dictionary[i2 - 1];
+                        temp0[i2] = temp0[i2 - 1];
+                    }
+                    dictionary[k1] = ((i1 & 0x7c00) << 9) + ((i1 & 0x3e0) << 6) + ((i1 & 0x1f) << 3) + 0x40404;
+                    temp0[k1] = j1;
+                    break;
+                }
+            }
+            ai1[i1] = -1;
+        }
+        byte[] indices = new byte[length];
+        for (int l1 = 0; l1 < length; l1++) {
+            int j2 = pixels[l1];
+            int k2 = ((j2 & 0xf80000) >> 9) + ((j2 & 0xf800) >> 6) + ((j2 & 0xf8) >> 3);
+            int l2 = ai1[k2];
+            if (l2 == -1) {
+                int i3 = 0x3b9ac9ff;
+                int j3 = j2 >> 16 & 0xff;
+                int k3 = j2 >> 8 & 0xff;
+                int l3 = j2 & 0xff;
+                for (int i4 = 0; i4 < 256; i4++) {
+                    int j4 = dictionary[i4];
+                    int k4 = j4 >> 16 & 0xff;
+                    int l4 = j4 >> 8 & 0xff;
+                    int i5 = j4 & 0xff;
+                    int j5 = (j3 - k4) * (j3 - k4) + (k3 - l4) * (k3 - l4) + (l3 - i5) * (l3 - i5);
+                    if (j5 < i3) {
+                        i3 = j5;
+                        l2 = i4;
+                    }
+                }
+
+                ai1[k2] = l2;
+            }
+            indices[l1] = (byte) l2;
+        }
+        defineTexture(id, indices, dictionary, sprite.getAssumedWidth() / 64 - 1);
+    }
+
     public void defineTexture(int id, byte usedColours[], int colours[], int wide128) {
         textureColoursUsed[id] = usedColours;
         textureColourList[id] = colours;
@@ -2811,12 +3159,19 @@ public class Scene {
 
     }
 
+    /**
+     * The minimap colour of a texture (its first texel) or packed colour. Textures are read
+     * without being loaded into the texture cache, so terrain can be built off the game thread.
+     */
     public int method302(int i) {
         if (i == Terrain.COLOR_TRANSPARENT)
             return 0;
-        prepareTexture(i);
-        if (i >= 0)
-            return texturePixels[i][0];
+        if (i >= 0) {
+            int colour = textureColourList[i][textureColoursUsed[i][0] & 0xff] & 0xf8f8ff;
+            if (colour == 0)
+                return 1;
+            return colour == 0xf800ff ? 0 : colour;
+        }
         if (i < 0) {
             i = -(i + 1);
             int j = i >> 10 & 0x1f;
@@ -3122,11 +3477,75 @@ public class Scene {
         int startX, endX, startS, endS;
         
     }
+
+    /**
+     * The faces one projection task found in view
+     */
+    private class PolygonBuffer {
+
+        Polygon polygons[] = new Polygon[0];
+        int count;
+
+        void ensureCapacity(int capacity) {
+            if (polygons.length < capacity) {
+                int length = polygons.length;
+                polygons = Arrays.copyOf(polygons, Math.max(capacity, length * 2));
+                for (int i = length; i < polygons.length; i++) {
+                    polygons[i] = new Polygon();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * The scanline buffers for the rows from top up to bottom. The scene's own band
+     * covers the whole frame, in parallel each thread draws into one of its own.
+     */
+    private class RasterBand {
+
+        final int top, bottom;
+        final Scanline scanlines[];
+        int minY, maxY;
+        final int planeX[] = new int[40];
+        final int planeY[] = new int[40];
+        final int vertexShade[] = new int[40];
+        final int vertexX[] = new int[40];
+        final int vertexY[] = new int[40];
+        final int vertexZ[] = new int[40];
+        final int gradientBase[] = new int[rampCount];
+        final int gradientRamps[][] = new int[rampCount][256];
+        int ramp[];
+
+        RasterBand(int top, int bottom) {
+            this.top = top;
+            this.bottom = bottom;
+            scanlines = new Scanline[clipY + baseY];
+            for (int i = 0; i < scanlines.length; i++) {
+                scanlines[i] = new Scanline();
+            }
+        }
+
+        /**
+         * Clips minY and maxY to the band, returning how many rows of the given step were skipped at the top
+         */
+        int clip(int step) {
+            if (maxY > bottom)
+                maxY = bottom;
+            if (minY >= top)
+                return 0;
+            int skipped = (top - minY + step - 1) / step;
+            minY += skipped * step;
+            return skipped;
+        }
+
+    }
     
     private class Polygon {
 
         protected int minPlaneX, minPlaneY, maxPlaneX, maxPlaneY, minZ, maxZ, face,
-            depth, normalX, normalY, normalZ,  visibility, facefill, index, index2;
+            depth, normalX, normalY, normalZ,  visibility, facefill, index, index2,
+            rowStart, rowEnd, dataOffset, planeCount, vertexCount;
         protected Model model;
         protected boolean skipSomething;
 
@@ -1,14 +1,13 @@
 package org.nemotech.rsc.client;
 
 import org.nemotech.rsc.Constants;
-import org.nemotech.rsc.util.Util;
 import org.nemotech.rsc.client.sound.MusicPlayer;
+import org.nemotech.rsc.core.PersistenceService;
 
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.IndexColorModel;
 import java.awt.image.MemoryImageSource;
-import java.io.DataInputStream;
 import java.io.IOException;
 
 public abstract class Shell extends Panel implements Runnable, MouseListener, MouseMotionListener, KeyListener {
@@ -257,6 +256,7 @@ public abstract class Shell extends Panel implements Runnable, MouseListener, Mo
             application.dispose();
         }
         onClosing();
+        PersistenceService.getInstance().flush();
         System.exit(0);
     }
 
@@ -362,24 +362,31 @@ public abstract class Shell extends Panel implements Runnable, MouseListener, Mo
     private void loadJagex() {
         graphics.setColor(Color.BLACK);
         graphics.fillRect(0, 0, panelWidth, panelHeight);
-        byte buff[] = readDataFile("jagex.jag", "Jagex library", 0);
-        if (buff != null) {
-            byte logo[] = Util.unpackData("logo.tga", 0, buff);
+        JagArchive archive = openArchive("jagex.jag", "Jagex library", 0);
+        if (archive != null) {
+            byte logo[] = archive.getBytes("logo.tga");
             imageLogo = createImage(logo);
         }
-        buff = readDataFile("fonts.jag", "Game fonts", 5);
-        if (buff != null) {
-            Surface.createFont(Util.unpackData("h11p.jf", 0, buff), 0);
-            Surface.createFont(Util.unpackData("h12b.jf", 0, buff), 1);
-            Surface.createFont(Util.unpackData("h12p.jf", 0, buff), 2);
-            Surface.createFont(Util.unpackData("h13b.jf", 0, buff), 3);
-            Surface.createFont(Util.unpackData("h14b.jf", 0, buff), 4);
-            Surface.createFont(Util.unpackData("h16b.jf", 0, buff), 5);
-            Surface.createFont(Util.unpackData("h20b.jf", 0, buff), 6);
-            Surface.createFont(Util.unpackData("h24b.jf", 0, buff), 7);
+        archive = openArchive("fonts.jag", "Game fonts", 5);
+        if (archive != null) {
+            createFonts(archive);
         }
     }
 
+    /**
+     * Registers the game fonts from the unpacked fonts archive
+     */
+    public static void createFonts(JagArchive fonts) {
+        Surface.createFont(fonts.getBytes("h11p.jf"), 0);
+        Surface.createFont(fonts.getBytes("h12b.jf"), 1);
+        Surface.createFont(fonts.getBytes("h12p.jf"), 2);
+        Surface.createFont(fonts.getBytes("h13b.jf"), 3);
+        Surface.createFont(fonts.getBytes("h14b.jf"), 4);
+        Surface.createFont(fonts.getBytes("h16b.jf"), 5);
+        Surface.createFont(fonts.getBytes("h20b.jf"), 6);
+        Surface.createFont(fonts.getBytes("h24b.jf"), 7);
+    }
+
     private void drawLoadingScreen(int percent, String text) {
         int midx = (panelWidth - 281) / 2;
         int midy = (panelHeight - 148) / 2;
@@ -454,41 +461,21 @@ public abstract class Shell extends Panel implements Runnable, MouseListener, Mo
         return createImage(memoryimagesource);
     }
 
-    protected byte[] readDataFile(String file, String description, int percent) {
-        file = Constants.CACHE_DIRECTORY + "jags/" + file;
-        int archiveSize = 0;
-        int archiveSizeCompressed = 0;
-        byte archiveData[] = null;
+    protected JagArchive openArchive(String file, String description, int percent) {
+        return openArchive(file, description, percent, this);
+    }
+
+    /**
+     * Opens one of the archives in cache/jags, or returns null if it can't be read
+     */
+    public static JagArchive openArchive(String file, String description, int percent, Shell shell) {
+        if (shell != null)
+            shell.showLoadingProgress(percent, "Loading " + description);
         try {
-            showLoadingProgress(percent, "Loading " + description + " - 0%");
-            java.io.InputStream inputstream = Util.openFile(file);
-            DataInputStream datainputstream = new DataInputStream(inputstream);
-            byte header[] = new byte[6];
-            datainputstream.readFully(header, 0, 6);
-            archiveSize = ((header[0] & 0xff) << 16) + ((header[1] & 0xff) << 8) + (header[2] & 0xff);
-            archiveSizeCompressed = ((header[3] & 0xff) << 16) + ((header[4] & 0xff) << 8) + (header[5] & 0xff);
-            showLoadingProgress(percent, "Loading " + description + " - 5%");
-            int read = 0;
-            archiveData = new byte[archiveSizeCompressed];
-            while (read < archiveSizeCompressed) {
-                int length = archiveSizeCompressed - read;
-                if (length > 1000)
-                    length = 1000;
-                datainputstream.readFully(archiveData, read, length);
-                read += length;
-                showLoadingProgress(percent, "Loading " + description + " - " + (5 + (read * 95) / archiveSizeCompressed) + "%");
-            }
-            datainputstream.close();
+            return JagArchive.open(file);
         } catch (IOException e) {
-            e.printStackTrace(); // was ignored
-        }
-        showLoadingProgress(percent, "Unpacking " + description);
-        if (archiveSizeCompressed != archiveSize) {
-            byte decompressed[] = new byte[archiveSize];
-            BZLib.decompress(decompressed, archiveSize, archiveData, archiveSizeCompressed, 0);
-            return decompressed;
-        } else {
-            return archiveData;
+            e.printStackTrace();
+            return null;
         }
     }
 
@@ -26,6 +26,11 @@ public class Sprite {
     public int assumedWidth = 0;
     public int assumedHeight = 0;
 
+    /**
+     * The id of the sprite in the SpriteStore its pixels are read from when they aren't set
+     */
+    private int storeId = -1;
+
     public Sprite() {
         pixels = new int[0];
         width = 0;
@@ -85,12 +90,19 @@ public class Sprite {
         return yShift;
     }
 
+    void setStoreId(int storeId) {
+        this.storeId = storeId;
+    }
+
     public int[] getPixels() {
+        if (pixels == null && storeId != -1) {
+            return SpriteStore.getPixels(storeId);
+        }
         return pixels;
     }
 
     public int getPixel(int i) {
-        return pixels[i];
+        return getPixels()[i];
     }
 
     public void setPixel(int i, int val) {
@@ -135,6 +147,7 @@ public class Sprite {
 	public BufferedImage toImage() {
 		BufferedImage img = new BufferedImage(width, height,
 				BufferedImage.TYPE_INT_RGB);
+		int[] pixels = getPixels();
 		for (int y = 0; y < height; y++) {
 			for (int x = 0; x < width; x++) {
 				img.setRGB(x, y, pixels[x + y * width]);
@@ -0,0 +1,280 @@
+package org.nemotech.rsc.client;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.nemotech.rsc.Constants;
+
+/**
+ * The sprites in graphics-members.zip, unpacked once into a mapped sprite pack and only
+ * decoded when they are first drawn.
+ *
+ * The pack is a header (magic, format version, the zip's length and modified time, the
+ * size of the id table), a table of each sprite's offset by id, then the sprites: their
+ * dimensions, shift and flags, then either ARGB pixels or, for sprites with no more than 256
+ * colours, a palette and a byte per pixel. Decoded pixels are kept for the most recently
+ * drawn sprites, up to MAX_BYTES. If the pack can't be built, sprites are read from the zip.
+ */
+public final class SpriteStore {
+
+    private static final int MAGIC = 0x52535350; // RSSP
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 28;
+
+    private static final int FLAG_SHIFT = 1;
+    private static final int FLAG_PALETTE = 2;
+
+    /**
+     * Room for the interface, the items in view and a few hundred animation frames
+     */
+    public static final int MAX_BYTES = 8 * 1024 * 1024;
+
+    private static final Map<Integer, int[]> decoded = new LinkedHashMap<>(256, 0.75f, true);
+
+    private static int decodedBytes;
+
+    private static volatile ByteBuffer pack;
+
+    /**
+     * Set once building the pack has failed, so it isn't tried again for every sprite
+     */
+    private static boolean packFailed;
+
+    private static ZipFile archive;
+
+    private SpriteStore() {}
+
+    /**
+     * Gets a sprite's dimensions and shift, with its pixels left to be decoded when they
+     * are first used, or null if the archive has no such sprite
+     */
+    public static Sprite getSprite(int id) throws IOException {
+        ByteBuffer pack = getPack();
+        if (pack == null) {
+            return readArchive(id);
+        }
+        int offset = offset(pack, id);
+        if (offset == 0) {
+            return null;
+        }
+        Sprite sprite = new Sprite(null, pack.getInt(offset), pack.getInt(offset + 4));
+        int flags = pack.get(offset + 8);
+        sprite.setRequiresShift((flags & FLAG_SHIFT) != 0);
+        sprite.setShift(pack.getInt(offset + 9), pack.getInt(offset + 13));
+        sprite.setAssumedDimensions(pack.getInt(offset + 17), pack.getInt(offset + 21));
+        sprite.setStoreId(id);
+        return sprite;
+    }
+
+    /**
+     * Gets a sprite's pixels, decoding them again if they have been evicted
+     */
+    static int[] getPixels(int id) {
+        int[] pixels;
+        synchronized (decoded) {
+            pixels = decoded.get(id);
+        }
+        if (pixels != null) {
+            return pixels;
+        }
+        pixels = decode(pack, offset(pack, id));
+        synchronized (decoded) {
+            if (decoded.put(id, pixels) == null) {
+                decodedBytes += pixels.length * 4;
+            }
+            Iterator<int[]> eldest = decoded.values().iterator();
+            while (decodedBytes > MAX_BYTES && eldest.hasNext()) {
+                int[] evicted = eldest.next();
+                if (evicted == pixels) {
+                    break;
+                }
+                decodedBytes -= evicted.length * 4;
+                eldest.remove();
+            }
+        }
+        return pixels;
+    }
+
+    private static int offset(ByteBuffer pack, int id) {
+        if (id < 0 || id >= pack.getInt(24)) {
+            return 0;
+        }
+        return pack.getInt(HEADER_SIZE + id * 4);
+    }
+
+    private static int[] decode(ByteBuffer pack, int offset) {
+        int length = pack.getInt(offset) * pack.getInt(offset + 4);
+        int flags = pack.get(offset + 8);
+        int[] pixels = new int[length];
+        offset += 25;
+        if ((flags & FLAG_PALETTE) != 0) {
+            int colours = pack.get(offset) & 0xff;
+            int[] palette = new int[colours + 1];
+            pack.slice(offset + 1, palette.length * 4).asIntBuffer().get(palette);
+            offset += 1 + palette.length * 4;
+            for (int i = 0; i < length; i++) {
+                pixels[i] = palette[pack.get(offset + i) & 0xff];
+            }
+        } else {
+            pack.slice(offset, length * 4).asIntBuffer().get(pixels);
+        }
+        return pixels;
+    }
+
+    /**
+     * Gets the mapped pack, building it first if it is missing or out of date, or returns null
+     * if it can't be built
+     */
+    private static synchronized ByteBuffer getPack() {
+        if (pack == null && !packFailed) {
+            File source = new File(Constants.CACHE_DIRECTORY + "graphics-members.zip");
+            File file = new File(Constants.CACHE_DIRECTORY + "compiled", "graphics-members.pack");
+            try {
+                pack = map(file, source);
+                if (pack == null) {
+                    write(file, source);
+                    pack = map(file, source);
+                    if (pack == null) {
+                        throw new IOException("Could not read " + file);
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Could not build " + file.getName() + ", reading sprites from the zip: " + e.getMessage());
+                packFailed = true;
+            }
+        }
+        return pack;
+    }
+
+    /**
+     * Reads a sprite straight from the zip, for when there is no pack
+     */
+    private static synchronized Sprite readArchive(int id) throws IOException {
+        if (archive == null) {
+            archive = new ZipFile(Constants.CACHE_DIRECTORY + "graphics-members.zip");
+        }
+        ZipEntry entry = archive.getEntry(String.valueOf(id));
+        if (entry == null) {
+            return null;
+        }
+        try (InputStream in = archive.getInputStream(entry)) {
+            return Sprite.unpack(ByteBuffer.wrap(in.readAllBytes()));
+        }
+    }
+
+    private static ByteBuffer map(File file, File source) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the header is read rather than mapped, as a stale pack left mapped can't be replaced on Windows
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                    || header.getLong(8) != source.length() || header.getLong(16) != source.lastModified()
+                    || channel.size() < HEADER_SIZE + (long) header.getInt(24) * 4) {
+                return null;
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Converts every sprite in the zip into a new pack
+     */
+    private static void write(File file, File source) throws IOException {
+        Map<Integer, byte[]> records = new HashMap<>();
+        int size = 0;
+        try (ZipFile archive = new ZipFile(source)) {
+            Enumeration<? extends ZipEntry> entries = archive.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                int id;
+                try {
+                    id = Integer.parseInt(entry.getName());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                Sprite sprite;
+                try (InputStream in = archive.getInputStream(entry)) {
+                    sprite = Sprite.unpack(ByteBuffer.wrap(in.readAllBytes()));
+                }
+                records.put(id, record(sprite));
+                size = Math.max(size, id + 1);
+            }
+        }
+        file.getParentFile().mkdirs();
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + size * 4);
+            header.putInt(MAGIC).putInt(VERSION).putLong(source.length()).putLong(source.lastModified()).putInt(size);
+            int offset = header.capacity();
+            for (int id = 0; id < size; id++) {
+                byte[] record = records.get(id);
+                header.putInt(record == null ? 0 : offset);
+                offset += record == null ? 0 : record.length;
+            }
+            out.write(header.array());
+            for (int id = 0; id < size; id++) {
+                byte[] record = records.get(id);
+                if (record != null) {
+                    out.write(record);
+                }
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte[] record(Sprite sprite) {
+        int[] pixels = sprite.getPixels();
+        List<Integer> palette = pixels.length > 0 ? new ArrayList<>() : null;
+        Map<Integer, Integer> indices = new HashMap<>();
+        for (int pixel : pixels) {
+            if (palette != null && !indices.containsKey(pixel)) {
+                if (palette.size() == 256) {
+                    palette = null;
+                    break;
+                }
+                indices.put(pixel, palette.size());
+                palette.add(pixel);
+            }
+        }
+        int flags = (sprite.requiresShift() ? FLAG_SHIFT : 0) | (palette != null ? FLAG_PALETTE : 0);
+        int length = 25 + (palette != null ? 1 + palette.size() * 4 + pixels.length : pixels.length * 4);
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(sprite.getWidth()).putInt(sprite.getHeight()).put((byte) flags);
+        record.putInt(sprite.getXShift()).putInt(sprite.getYShift());
+        record.putInt(sprite.getAssumedWidth()).putInt(sprite.getAssumedHeight());
+        if (palette != null) {
+            record.put((byte) (palette.size() - 1));
+            for (int colour : palette) {
+                record.putInt(colour);
+            }
+            for (int pixel : pixels) {
+                record.put((byte) (int) indices.get(pixel));
+            }
+        } else {
+            record.asIntBuffer().put(pixels);
+        }
+        return record.array();
+    }
+
+}
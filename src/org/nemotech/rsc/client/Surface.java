@@ -2,18 +2,10 @@ package org.nemotech.rsc.client;
 
 import java.awt.*;
 import java.awt.image.*;
-import java.io.BufferedInputStream;
-import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
-import org.nemotech.rsc.Constants;
-import org.nemotech.rsc.util.Util;
-
-public class Surface implements ImageProducer, ImageObserver {
+
+public class Surface implements ImageObserver {
     
 	public Sprite[] sprites;
-	private ZipFile spriteArchive;
     
 	public Surface(int width, int height, int k, Component component) {
 		interlace = false;
@@ -27,22 +19,8 @@ public class Surface implements ImageProducer, ImageObserver {
 			imagePixelArray[i1] = 0;
 		}
 		sprites = new Sprite[k];
-		if (width > 1 && height > 1 && component != null) {
-			colourModel = new DirectColorModel(32, 0xff0000, 0xff00, 0xff);
-			image = component.createImage(this);
-			
-			completePixels();
-			component.prepareImage(image, component);
-			completePixels();
-			component.prepareImage(image, component);
-			completePixels();
-			component.prepareImage(image, component);
-		}
-		try {
-			spriteArchive = new ZipFile(Constants.CACHE_DIRECTORY + "graphics-members.zip");
-		} catch(IOException e) {
-			e.printStackTrace();
-			System.exit(1);
+		if (width > 1 && height > 1) {
+			createImage();
 		}
 	}
 
@@ -148,13 +126,13 @@ public class Surface implements ImageProducer, ImageObserver {
     
 	public boolean loadSprite(int id, String packageName) {
 		try {
-			ZipEntry e = spriteArchive.getEntry(String.valueOf(id));
-			if(e == null) {
+			Sprite sprite = SpriteStore.getSprite(id);
+			if(sprite == null) {
 				System.err.println("Missing sprite: " + id);
 				return false;
 			}
-			ByteBuffer data = Util.streamToBuffer(new BufferedInputStream(spriteArchive.getInputStream(e)));
-			sprites[id] = Sprite.unpack(data);
+			sprite.setName(id, packageName);
+			sprites[id] = sprite;
 			return true;
 		}
 		catch(Exception e) {
@@ -163,43 +141,24 @@ public class Surface implements ImageProducer, ImageObserver {
 		}
 	}
 
-    @Override
-	public synchronized void addConsumer(ImageConsumer imageconsumer) {
-		imageConsumer = imageconsumer;
-		imageconsumer.setDimensions(width2, height2);
-		imageconsumer.setProperties(null);
-		imageconsumer.setColorModel(colourModel);
-		imageconsumer.setHints(14);
-	}
-	
-    @Override
-	public synchronized boolean isConsumer(ImageConsumer imageconsumer) {
-		return imageConsumer == imageconsumer;
-	}
-	
-    @Override
-	public synchronized void removeConsumer(ImageConsumer imageconsumer) {
-		if (imageConsumer == imageconsumer) {
-			imageConsumer = null;
-		}
+	/**
+	 * Wraps the pixel array in an image without copying it, so drawing the surface
+	 * blits straight from the array the game renders into
+	 */
+	private void createImage() {
+		DataBufferInt buffer = new DataBufferInt(imagePixelArray, imagePixelArray.length);
+		WritableRaster raster = Raster.createPackedRaster(buffer, width2, height2, width2, new int[] { 0xff0000, 0xff00, 0xff }, null);
+		image = new BufferedImage(new DirectColorModel(24, 0xff0000, 0xff00, 0xff), raster, false, null);
 	}
-	
-    @Override
-	public void startProduction(ImageConsumer imageconsumer) {
-		addConsumer(imageconsumer);
-	}
-	
-    @Override
-	public void requestTopDownLeftRightResend(ImageConsumer imageconsumer) {
-		System.out.println("TDLR");
-	}
-	
-	private void completePixels() {
-		if (imageConsumer == null) {
-			return;
-		}
-		imageConsumer.setPixels(0, 0, width2, height2, colourModel, imagePixelArray, 0, width2);
-		imageConsumer.imageComplete(2);
+
+	/**
+	 * Replaces the pixel array with one for the new size
+	 */
+	public void resize(int width, int height) {
+		imagePixelArray = new int[width * height];
+		imageWidth = width2 = width;
+		imageHeight = height2 = height;
+		createImage();
 	}
 
     public void setBounds(int x, int y, int width, int height) {
@@ -232,7 +191,6 @@ public class Surface implements ImageProducer, ImageObserver {
     }
 
     public void draw(Graphics g, int x, int y) {
-        completePixels();
         g.drawImage(image, x, y, this);
     }
 
@@ -2107,10 +2065,8 @@ label3:        for (int l4 = charWidth - 1; l4 >= 0; l4--) {
 	public int height2;
 	public int imageWidthUnused;
 	public int imageHeightUnused;
-	ColorModel colourModel;
 	public int imagePixelArray[];
-	ImageConsumer imageConsumer;
-	public Image image;
+	public BufferedImage image;
 	private int imageY;
 	protected int imageHeight;
 	private int imageX;
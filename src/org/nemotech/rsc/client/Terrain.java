@@ -1,20 +1,28 @@
 package org.nemotech.rsc.client;
 
 import org.nemotech.rsc.external.EntityManager;
-import org.nemotech.rsc.Constants;
-import org.nemotech.rsc.util.Util;
-import java.util.zip.ZipFile;
-import java.util.zip.ZipEntry;
-import java.nio.ByteBuffer;
-import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.nemotech.rsc.model.landscape.Sector;
+import org.nemotech.rsc.model.landscape.SectorCache;
 
 public class Terrain {
     
     public static final int COLOR_TRANSPARENT = 12345678;
     
-    private ZipFile tileArchive;
+    /**
+     * How close (in tiles) the player must walk to the edge of the loaded region before
+     * the region they are heading into is built in the background
+     */
+    private static final int PREFETCH_DISTANCE = 8;
+    
+    /**
+     * Builds predicted regions off the game thread, one at a time
+     */
+    private static ExecutorService streamer;
     
     protected int[] selectedX, selectedY;
     protected int[] groundTextures;
@@ -28,13 +36,36 @@ public class Terrain {
     
     private Surface gameImage;
     private Scene camera;
+    /**
+     * The client's first media sprite, the minimap is captured into the one before it
+     */
+    private int spriteMedia;
     private boolean requiresClean;
+    /**
+     * Set on the streamer's terrain, which reads the scene's textures but never adds models to it
+     */
+    private boolean background;
+    
+    /**
+     * The section and plane currently loaded, and the last position passed to predictSector
+     */
+    private int loadedSectionX = -1, loadedSectionY = -1, loadedPlane = -1;
+    private int lastX, lastY;
+    
+    /**
+     * A terrain kept out of the scene that the streamer builds the predicted region into,
+     * its models and tile data are swapped in by loadSector when the player arrives
+     */
+    private Terrain prefetch;
+    private Future<?> prefetchTask;
+    private int prefetchSectionX, prefetchSectionY, prefetchPlane;
     
     public Sector[] sectors;
     
-    public Terrain(Scene camera, Surface gameImage) {
+    public Terrain(Scene camera, Surface gameImage, int spriteMedia) {
         this.camera = camera;
         this.gameImage = gameImage;
+        this.spriteMedia = spriteMedia;
     
         objectDirs = new int[96][96];
         selectedX = new int[18432];
@@ -50,13 +81,6 @@ public class Terrain {
         playerIsAlive = false;
         sectors = new Sector[4];
         
-        try {
-            tileArchive = new ZipFile(Constants.CACHE_DIRECTORY + "terrain-members.zip");
-        } catch(IOException e) {
-            e.printStackTrace();
-            System.out.println("Error loading landscape file");
-        }
-        
         for (int i = 0; i < 64; i++) {
             groundTextures[i] = Scene.rgb(255 - i * 4, 255 - (int) ((double) i * 1.75D), 255 - i * 4);
         }
@@ -71,12 +95,20 @@ public class Terrain {
         }
     }
     
+    /**
+     * Creates the background terrain for a live one, the minimap is drawn on a surface of its own
+     */
+    private Terrain(Terrain live) {
+        this(live.camera, new Surface(288, 288, live.spriteMedia, null), live.spriteMedia);
+        requiresClean = false;
+        background = true;
+    }
+    
     public void loadSection(int sectionX, int sectionY, int height, int sector) {
         Sector s = null;
         try {
-            String filename = "h" + height + "x" + sectionX + "y" + sectionY;
-            ZipEntry e = tileArchive.getEntry(filename);
-            if(e == null) {
+            s = SectorCache.getSector(sectionX, sectionY, height);
+            if(s == null) {
                 s = new Sector();
                 if(height == 0 || height == 3) {
                     for(int i = 0; i < 2304;i++) {
@@ -84,19 +116,12 @@ public class Terrain {
                     }
                 }
             }
-            else {
-                ByteBuffer data = Util.streamToBuffer(new BufferedInputStream(tileArchive.getInputStream(e)));
-                s = Sector.unpack(data);
-            }
         } catch(IOException e) {
+            e.printStackTrace();
             System.exit(1);
         }
         sectors[sector] = s;
     }
-    
-    public ZipFile getTileArchive() {
-        return tileArchive;
-    }
 
     public int getStepCount(int walkSectionX, int walkSectionY, int x1, int y1, int x2, int y2, int[] walkSectionXArray, int[] walkSectionYArray, boolean flag) {
         int[][] tmpTiles = new int[96][96];
@@ -334,9 +359,17 @@ public class Terrain {
     }
 
     public void loadSector(int x, int y, int plane) {
-        reset();
         int l = (x + 24) / 48;
         int i1 = (y + 24) / 48;
+        loadedSectionX = l;
+        loadedSectionY = i1;
+        loadedPlane = plane;
+        lastX = x;
+        lastY = y;
+        if (adoptPrefetched(l, i1, plane)) {
+            return;
+        }
+        reset();
         loadSection(x, y, plane, true);
         if (plane == 0) {
             loadSection(x, y, 1, false);
@@ -349,6 +382,123 @@ public class Terrain {
         }
     }
 
+    /**
+     * Called as the player moves within the loaded region, when they are walking towards its
+     * edge the region they will enter is decoded and built on the streamer thread
+     */
+    public void predictSector(int x, int y, int plane) {
+        int dx = Integer.signum(x - lastX);
+        int dy = Integer.signum(y - lastY);
+        lastX = x;
+        lastY = y;
+        if (plane != loadedPlane || (dx == 0 && dy == 0)) {
+            return;
+        }
+        int px = x;
+        int py = y;
+        if (dx > 0 && x >= loadedSectionX * 48 + 32 - PREFETCH_DISTANCE) {
+            px = loadedSectionX * 48 + 32;
+        } else if (dx < 0 && x <= loadedSectionX * 48 - 32 + PREFETCH_DISTANCE) {
+            px = loadedSectionX * 48 - 32;
+        }
+        if (dy > 0 && y >= loadedSectionY * 48 + 32 - PREFETCH_DISTANCE) {
+            py = loadedSectionY * 48 + 32;
+        } else if (dy < 0 && y <= loadedSectionY * 48 - 32 + PREFETCH_DISTANCE) {
+            py = loadedSectionY * 48 - 32;
+        }
+        if (px == x && py == y) {
+            return;
+        }
+        int sectionX = (px + 24) / 48;
+        int sectionY = (py + 24) / 48;
+        if (isSectorPrefetched(px, py, plane)) {
+            return;
+        }
+        synchronized (Terrain.class) {
+            if (streamer == null) {
+                streamer = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "TerrainStreamer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        prefetchSectionX = sectionX;
+        prefetchSectionY = sectionY;
+        prefetchPlane = plane;
+        prefetchTask = streamer.submit(() -> {
+            if (prefetch == null) {
+                prefetch = new Terrain(this);
+            }
+            prefetch.loadSector(sectionX * 48, sectionY * 48, plane);
+        });
+    }
+
+    /**
+     * Whether the region around a position has been (or is being) built in the background
+     */
+    public boolean isSectorPrefetched(int x, int y, int plane) {
+        return prefetchTask != null && prefetchSectionX == (x + 24) / 48 && prefetchSectionY == (y + 24) / 48 && prefetchPlane == plane;
+    }
+
+    /**
+     * Swaps in the region built by the streamer if it is the one being loaded, waiting for it
+     * to finish if need be. The models are added to the scene in the order loadSector adds them.
+     */
+    private boolean adoptPrefetched(int sectionX, int sectionY, int plane) {
+        if (prefetchTask == null || prefetchSectionX != sectionX || prefetchSectionY != sectionY || prefetchPlane != plane) {
+            return false;
+        }
+        Future<?> task = prefetchTask;
+        prefetchTask = null;
+        try {
+            task.get();
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+            return false;
+        }
+        if (requiresClean) {
+            camera.dispose();
+        }
+        Terrain built = prefetch;
+        Sector[] sectors = this.sectors;
+        this.sectors = built.sectors;
+        built.sectors = sectors;
+        int[][] walkable = walkableValue;
+        walkableValue = built.walkableValue;
+        built.walkableValue = walkable;
+        int[][] elevation = pathFindSource;
+        pathFindSource = built.pathFindSource;
+        built.pathFindSource = elevation;
+        Model[] terrain = terrainModels;
+        terrainModels = built.terrainModels;
+        built.terrainModels = terrain;
+        Model[][] walls = wallModels;
+        wallModels = built.wallModels;
+        built.wallModels = walls;
+        Model[][] roofs = roofModels;
+        roofModels = built.roofModels;
+        built.roofModels = roofs;
+        gameImage.sprites[spriteMedia - 1] = built.gameImage.sprites[spriteMedia - 1];
+        addModels(terrainModels);
+        for (int k = 0; k < 4; k++) {
+            if (k == plane || (plane == 0 && k < 3)) {
+                addModels(wallModels[k]);
+                addModels(roofModels[k]);
+            }
+        }
+        return true;
+    }
+
+    private void addModels(Model[] models) {
+        if (background) {
+            return;
+        }
+        for (int i = 0; i < 64; i++) {
+            camera.addModel(models[i]);
+        }
+    }
+
     public void method402(int i, int j, int k, int l, int i1) {
         Model model = terrainModels[i + j * 8];
         for (int j1 = 0; j1 < model.numVertices; j1++) {
@@ -407,7 +557,9 @@ public class Terrain {
                 roofModels[k][i] = null;
             }
         }
-        System.gc();
+        if (!background) {
+            System.gc();
+        }
     }
 
     public void method407(int i, int j, int k, int l) {
@@ -701,9 +853,7 @@ public class Terrain {
 
             model.setLight(true, 40, 48, -50, -10, -50);
             terrainModels = parentModel.split(0, 0, 1536, 1536, 8, 64, 233, false);
-            for (int j6 = 0; j6 < 64; j6++) {
-                camera.addModel(terrainModels[j6]);
-        }
+            addModels(terrainModels);
             for (int i9 = 0; i9 < 96; i9++) {
                 for (int k11 = 0; k11 < 96; k11++) {
                     pathFindSource[i9][k11] = getGroundElevation(i9, k11);
@@ -767,13 +917,11 @@ public class Terrain {
         }
 
         if (flag) {
-            gameImage.drawSpriteMinimap(mudclient.getInstance().spriteMedia - 1, 0, 0, 285, 285);
+            gameImage.drawSpriteMinimap(spriteMedia - 1, 0, 0, 285, 285);
         }
         parentModel.setLight(false, 60, 24, -50, -10, -50);
         wallModels[k] = parentModel.split(0, 0, 1536, 1536, 8, 64, 338, true);
-        for (int l2 = 0; l2 < 64; l2++) {
-            camera.addModel(wallModels[k][l2]);
-    }
+        addModels(wallModels[k]);
         for (int l3 = 0; l3 < 95; l3++) {
             for (int l4 = 0; l4 < 95; l4++) {
                 int k6 = getVerticalWall(l3, l4);
@@ -1015,9 +1163,7 @@ public class Terrain {
         }
         parentModel.setLight(true, 50, 50, -50, -10, -50);
         roofModels[k] = parentModel.split(0, 0, 1536, 1536, 8, 64, 169, true);
-        for (int l9 = 0; l9 < 64; l9++) {
-            camera.addModel(roofModels[k][l9]);
-    }
+        addModels(roofModels[k]);
         if (roofModels[k][0] == null) {
             throw new RuntimeException("null roof!");
         }
@@ -3,7 +3,7 @@ package org.nemotech.rsc.client.action;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.nemotech.rsc.util.Util;
+import org.nemotech.rsc.util.ClassIndex;
 
 public class ActionManager {
     
@@ -14,7 +14,7 @@ public class ActionManager {
     public void init() {
         int count = 0;
         try {
-            for(Class<?> class_ : Util.loadClasses(PACKAGE_NAME)) {
+            for(Class<?> class_ : ClassIndex.getClasses(PACKAGE_NAME)) {
                 if(!class_.getName().contains("$")) {
                     add((ActionHandler) class_.getDeclaredConstructor().newInstance());
                     count++;
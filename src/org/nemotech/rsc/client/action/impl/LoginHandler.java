@@ -1,9 +1,8 @@
 package org.nemotech.rsc.client.action.impl;
 
-import java.io.File;
-
-import org.nemotech.rsc.Constants;
+import org.nemotech.rsc.core.PersistenceService;
 import org.nemotech.rsc.model.player.Player;
+import org.nemotech.rsc.model.player.PlayerFile;
 import org.nemotech.rsc.model.World;
 import org.nemotech.rsc.client.action.ActionHandler;
 import org.nemotech.rsc.client.action.ActionManager;
@@ -48,12 +47,13 @@ public class LoginHandler implements ActionHandler {
     public int getLogin(String user) {
         try {
             user = user.replace("_", " ");
-            File file = new File(Constants.CACHE_DIRECTORY + "players" + File.separator + user.trim() + "_data.dat");
-            if(file.exists()) {
+            // a logout's save may still be queued, so let it be written before reading the save
+            PersistenceService.getInstance().flush();
+            if(PlayerFile.exists(user)) {
                 // Check for hardcore lock state before allowing login
-                try (java.io.ObjectInputStream ois = new java.io.ObjectInputStream(new java.io.FileInputStream(file))) {
-                    org.nemotech.rsc.model.player.SaveFile data = (org.nemotech.rsc.model.player.SaveFile) ois.readObject();
-                    if (data.hardcore && data.hardcoreDead) {
+                try {
+                    PlayerFile.Save save = PlayerFile.read(user);
+                    if (save.data.hardcore && save.data.hardcoreDead) {
                         return 2;
                     }
                 } catch (Exception ignore) {}
@@ -1,35 +1,21 @@
 package org.nemotech.rsc.client.action.impl;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 
-import org.nemotech.rsc.Constants;
 import org.nemotech.rsc.model.player.Cache;
 import org.nemotech.rsc.client.action.ActionHandler;
+import org.nemotech.rsc.model.player.PlayerFile;
 import org.nemotech.rsc.model.player.SaveFile;
 
 public class RegisterHandler implements ActionHandler {
     
     public boolean handleRegister(String username, boolean hardcore) {
         username = username.replace("_", " ");
-        File dataFile = new File(Constants.CACHE_DIRECTORY + "players" + File.separator + username + "_data.dat");
-        File cacheFile = new File(Constants.CACHE_DIRECTORY + "players" + File.separator + username + "_cache.dat");
-        if(!dataFile.exists() && !cacheFile.exists()) {
+        if(!PlayerFile.exists(username)) {
             try {
-                // player data file
-                ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(dataFile));
                 SaveFile playerData = new SaveFile(true);
                 playerData.hardcore = hardcore;
-                oos.writeObject(playerData);
-                oos.close();
-                
-                // player cache file
-                oos = new ObjectOutputStream(new FileOutputStream(cacheFile));
-                Cache cache = new Cache();
-                oos.writeObject(cache);
-                oos.close();
+                PlayerFile.write(username, playerData, new Cache());
             } catch(IOException e) {
                 e.printStackTrace();
             }
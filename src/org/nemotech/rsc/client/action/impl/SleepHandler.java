@@ -3,6 +3,8 @@ package org.nemotech.rsc.client.action.impl;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javax.imageio.ImageIO;
 import org.nemotech.rsc.client.action.ActionHandler;
 import org.nemotech.rsc.client.mudclient;
@@ -15,37 +17,103 @@ public class SleepHandler implements ActionHandler {
     
     private mudclient mc = mudclient.getInstance();
     
-    private BufferedImage[] imageFiles;
+    private File[] imageFiles;
     
     private String[] wordNames;
     
     private int numImages;
     
+    /**
+     * The next captcha, decoded in the background while the player is awake
+     */
+    private CompletableFuture<Captcha> next;
+    
+    private static final class Captcha {
+        
+        private final String word;
+        
+        private final int[][] pixels;
+        
+        private Captcha(String word, int[][] pixels) {
+            this.word = word;
+            this.pixels = pixels;
+        }
+        
+    }
+    
+    /**
+     * Indexes the captcha images, they are only decoded when a player goes to sleep
+     */
     public void init() {
+        File[] captchaImages = new File(Constants.CACHE_DIRECTORY + "captcha").listFiles((dir, name) -> name.endsWith(".png"));
+        if(captchaImages == null) {
+            System.out.println("Error loading captcha images");
+            captchaImages = new File[0];
+        }
+        numImages = captchaImages.length;
+        imageFiles = captchaImages;
+        wordNames = new String[numImages];
+        for(int i = 0; i < numImages; i++) {
+            String fileName = captchaImages[i].getName();
+            wordNames[i] = fileName.substring(0, fileName.lastIndexOf("."));
+        }
+    }
+    
+    /**
+     * Picks a captcha for the player and gives its pixels in the client's [x][y] layout,
+     * then starts decoding the one after it. Returns null if no captcha could be decoded.
+     */
+    public synchronized int[][] generateCaptcha(Player p) {
+        if(numImages == 0) {
+            return null;
+        }
+        Captcha captcha = null;
+        if(next != null) {
+            try {
+                captcha = next.join();
+            } catch(CompletionException e) {
+                e.printStackTrace();
+            }
+        }
+        // the one decoded ahead failed, so decode one here, trying each image in turn from a random one
+        int start = Util.random(numImages - 1);
+        for(int i = 0; captcha == null && i < numImages; i++) {
+            captcha = decode((start + i) % numImages);
+        }
+        next = CompletableFuture.supplyAsync(() -> decode(Util.random(numImages - 1)));
+        if(captcha == null) {
+            return null;
+        }
+        p.setSleepword(captcha.word);
+        return captcha.pixels;
+    }
+    
+    /**
+     * Decodes a captcha image, or returns null if it can't be read
+     */
+    private Captcha decode(int index) {
+        int[][] pixels;
         try {
-            File[] captchaImages = new File(Constants.CACHE_DIRECTORY + "captcha").listFiles();
-            numImages = captchaImages.length;
-            imageFiles = new BufferedImage[numImages];
-            wordNames = new String[numImages];
-            int i = 0;
-            for(File file : captchaImages) {
-                if(!file.getName().endsWith(".png")) {
-                    continue;
+            BufferedImage image = ImageIO.read(imageFiles[index]);
+            if(image == null) {
+                System.out.println("Could not decode captcha " + imageFiles[index].getName());
+                return null;
+            }
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int[] rows = image.getRGB(0, 0, width, height, null, 0, width);
+            pixels = new int[width][height];
+            for(int x = 0; x < width; x++) {
+                int[] column = pixels[x];
+                for(int y = 0; y < height; y++) {
+                    column[y] = rows[x + y * width];
                 }
-                imageFiles[i] = ImageIO.read(file);
-                String fileName = file.getName();
-                wordNames[i] = fileName.substring(0, fileName.lastIndexOf("."));
-                i++;
             }
         } catch(IOException e) {
             e.printStackTrace();
+            return null;
         }
-    }
-    
-    public BufferedImage generateCaptcha(Player p) {
-        int random = Util.random(numImages);
-        p.setSleepword(wordNames[random]);
-        return imageFiles[random];
+        return new Captcha(wordNames[index], pixels);
     }
     
     public boolean handleGuess(String word) {
@@ -58,24 +126,17 @@ public class SleepHandler implements ActionHandler {
         return false;
     }
     
-    public void handleSleep(BufferedImage image) {
+    public void handleSleep(int[][] pixels) {
         if (!mc.isSleeping) {
             mc.fatigueSleeping = mc.statFatigue;
         }
         mc.isSleeping = true;
         mc.inputTextCurrent = "";
         mc.inputTextFinal = "";
-        try {
-            mc.captchaWidth = image.getWidth();
-            mc.captchaHeight = image.getHeight();
-            mc.captchaPixels = new int[mc.captchaWidth][mc.captchaHeight];
-            for(int x = 0; x < mc.captchaWidth; x++) {
-                for(int y = 0; y < mc.captchaHeight; y++) {
-                    mc.captchaPixels[x][y] = image.getRGB(x, y);
-                }
-            }
-        } catch(Exception e) {
-            e.printStackTrace();
+        if (pixels != null && pixels.length > 0) {
+            mc.captchaWidth = pixels.length;
+            mc.captchaHeight = pixels[0].length;
+            mc.captchaPixels = pixels;
         }
         mc.sleepingStatusText = null;
     }
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
 import org.nemotech.rsc.model.Point3D;
+import org.nemotech.rsc.model.World;
 
 public class mudclient extends Shell {
     
@@ -66,10 +67,7 @@ public class mudclient extends Shell {
         gameHeight = height - 12;
 
         // set raster
-        surface.imagePixelArray = new int[width * height];
-        surface.imageWidth = surface.width2 = width;
-        surface.imageHeight = surface.height2 = height;
-        surface.imageConsumer.setDimensions(width, height);
+        surface.resize(width, height);
 
         // set scene
         scene.raster = surface.imagePixelArray;
@@ -1307,22 +1305,19 @@ public class mudclient extends Shell {
     }
 
     public Player player;
-    private ClientUpdater updater = null;
-    private long lastSentClientUpdate = 0;
 
+    /**
+     * Draws whatever game ticks the engine thread has published since the last frame
+     */
     private void updateClient() {
-        if (updater == null) {
-            updater = new ClientUpdater();
-        }
-        long now = System.currentTimeMillis();
-        if (now - lastSentClientUpdate >= 600) {
-            lastSentClientUpdate = now;
-            updater.updateClients();
+        ClientUpdater updater = World.getWorld().getClientUpdater();
+        if (updater != null) {
+            updater.applySnapshots();
         }
     }
 
     private void handleGameInput() {
-        updateClient(); // TODO
+        updateClient();
         if (logoutTimeout > 0) {
             logoutTimeout--;
         }
@@ -2715,11 +2710,14 @@ public class mudclient extends Shell {
         ly += planeHeight;
         if (lastHeightOffset == planeIndex && lx > localLowerX && lx < localUpperX && ly > localLowerY && ly < localUpperY) {
             world.playerIsAlive = true;
+            world.predictSector(lx, ly, planeIndex);
             return false;
         }
-        surface.drawStringCenter("Loading... Please wait", 256, 192, 1, 0xffffff);
-        drawChatMessageTabs();
-        surface.draw(graphics, 0, 0);
+        if (!world.isSectorPrefetched(lx, ly, planeIndex)) {
+            surface.drawStringCenter("Loading... Please wait", 256, 192, 1, 0xffffff);
+            drawChatMessageTabs();
+            surface.draw(graphics, 0, 0);
+        }
         int ax = regionX;
         int ay = regionY;
         int sectionX = (lx + 24) / 48;
@@ -2830,11 +2828,14 @@ public class mudclient extends Shell {
         ly += planeHeight;
         if (lastHeightOffset == planeIndex && lx > localLowerX && lx < localUpperX && ly > localLowerY && ly < localUpperY) {
             world.playerIsAlive = true;
+            world.predictSector(lx, ly, planeIndex);
             return false;
         }
-        surface.drawStringCenter("Loading... Please wait", 256, 192, 1, 0xffffff);
-        drawChatMessageTabs();
-        surface.draw(graphics, 0, 0);
+        if (!world.isSectorPrefetched(lx, ly, lz)) {
+            surface.drawStringCenter("Loading... Please wait", 256, 192, 1, 0xffffff);
+            drawChatMessageTabs();
+            surface.draw(graphics, 0, 0);
+        }
         int ax = regionX;
         int ay = regionY;
         int sectionX = (lx + 24) / 48;
@@ -3230,7 +3231,7 @@ OUTER:		for (int animationIndex = 0; animationIndex < EntityManager.getAnimation
         scene.fogZDensity = 1;
         scene.fogZDistance = 2300;
         scene.setLight(-50, -10, -50);
-        world = new Terrain(scene, surface);
+        world = new Terrain(scene, surface, spriteMedia);
         loadTextures();
         if(errorLoadingData) return;
         loadModels();
@@ -3265,7 +3266,7 @@ OUTER:		for (int animationIndex = 0; animationIndex < EntityManager.getAnimation
 	}
     
     public void newWorld() {
-        world = new Terrain(scene, surface);
+        world = new Terrain(scene, surface, spriteMedia);
     }
 
     private void drawUiTabMagic(boolean nomenus) {
@@ -4102,7 +4103,7 @@ OUTER:		for (int animationIndex = 0; animationIndex < EntityManager.getAnimation
     @Override
     protected void onClosing() {
         if(player != null) {
-            player.save();
+            player.save(true);
         }
     }
 
@@ -4116,31 +4117,38 @@ OUTER:		for (int animationIndex = 0; animationIndex < EntityManager.getAnimation
 
     private void loadModels() {
         showLoadingProgress(70, "Loading 3d models");
+        boolean useCache = true;
+        if (useCache) {
+            JagArchive archive = openArchive("models.jag", "3d models", 60);
+            if (archive == null) {
+                errorLoadingData = true;
+                return;
+            }
+            unpackModels(archive, gameModels);
+        }
+    }
+
+    /**
+     * Unpacks every model the entity definitions name from the models archive
+     */
+    static void unpackModels(JagArchive archive, Model models[]) {
         String[] modelNames = {
             "torcha2", "torcha3", "torcha4", "skulltorcha2", "skulltorcha3", "skulltorcha4", "firea2",
             "firea3", "fireplacea2", "fireplacea3", "firespell2", "firespell3", "lightning2", "lightning3",
             "clawspell2", "clawspell3", "clawspell4", "clawspell5", "spellcharge2", "spellcharge3"
         };
-        boolean useCache = true;
-        if (useCache) {
-            for (String name : modelNames) {
-                EntityManager.storeModel(name);
+        for (String name : modelNames) {
+            EntityManager.storeModel(name);
+        }
+        for (int j = 0; j < EntityManager.getModelCount(); j++) {
+            byte data[] = archive.getBytes(EntityManager.getModelName(j) + ".ob3");
+            if (data != null) {
+                models[j] = new Model(data, 0, true);
+            } else {
+                models[j] = new Model(1, 1);
             }
-            byte[] data = readDataFile("models.jag", "3d models", 60);
-            if (data == null) {
-                errorLoadingData = true;
-                return;
-            }
-            for (int j = 0; j < EntityManager.getModelCount(); j++) {
-                int k = Util.getDataFileOffset(EntityManager.getModelName(j) + ".ob3", data);
-                if (k != 0) {
-                    gameModels[j] = new Model(data, k, true);
-                } else {
-                    gameModels[j] = new Model(1, 1);
-                }
-                if (EntityManager.getModelName(j).equals("giantcrystal")) {
-                    gameModels[j].transparent = true;
-                }
+            if (EntityManager.getModelName(j).equals("giantcrystal")) {
+                models[j].transparent = true;
             }
         }
     }
@@ -4467,62 +4475,7 @@ OUTER:		for (int animationIndex = 0; animationIndex < EntityManager.getAnimation
         scene.allocateTextures(EntityManager.getTextures().length, 7, 11);
 		for (int i = 0; i < EntityManager.getTextures().length; i++) {
 			loadSprite(spriteTexture + i, "texture", 1);
-			Sprite sprite = ((Surface) (surface)).sprites[spriteTexture + i];
-			
-			int length = sprite.getWidth() * sprite.getHeight();
-			int[] pixels = sprite.getPixels();
-			int ai1[] = new int[32768];
-			for (int k = 0; k < length; k++) {
-				ai1[((pixels[k] & 0xf80000) >> 9) + ((pixels[k] & 0xf800) >> 6) + ((pixels[k] & 0xf8) >> 3)]++;
-			}
-			int[] dictionary = new int[256];
-			dictionary[0] = 0xff00ff;
-			int[] temp0 = new int[256];
-			for (int i1 = 0; i1 < ai1.length; i1++) {
-				int j1 = ai1[i1];
-				if (j1 > temp0[255]) {
-					for (int k1 = 1; k1 < 256; k1++) {
-						if (j1 <= temp0[k1]) {
-							continue;
-						}
-						for (int i2 = 255; i2 > k1; i2--) {
-							dictionary[i2] = dictionary[i2 - 1];
-							temp0[i2] = temp0[i2 - 1];
-						}
-						dictionary[k1] = ((i1 & 0x7c00) << 9) + ((i1 & 0x3e0) << 6) + ((i1 & 0x1f) << 3) + 0x40404;
-						temp0[k1] = j1;
-						break;
-					}
-				}
-				ai1[i1] = -1;
-			}
-			byte[] indices = new byte[length];
-			for (int l1 = 0; l1 < length; l1++) {
-				int j2 = pixels[l1];
-				int k2 = ((j2 & 0xf80000) >> 9) + ((j2 & 0xf800) >> 6) + ((j2 & 0xf8) >> 3);
-				int l2 = ai1[k2];
-				if (l2 == -1) {
-					int i3 = 0x3b9ac9ff;
-					int j3 = j2 >> 16 & 0xff;
-					int k3 = j2 >> 8 & 0xff;
-					int l3 = j2 & 0xff;
-					for (int i4 = 0; i4 < 256; i4++) {
-						int j4 = dictionary[i4];
-						int k4 = j4 >> 16 & 0xff;
-						int l4 = j4 >> 8 & 0xff;
-						int i5 = j4 & 0xff;
-						int j5 = (j3 - k4) * (j3 - k4) + (k3 - l4) * (k3 - l4) + (l3 - i5) * (l3 - i5);
-						if (j5 < i3) {
-							i3 = j5;
-							l2 = i4;
-						}
-					}
-					
-					ai1[k2] = l2;
-				}
-				indices[l1] = (byte) l2;
-			}
-			scene.defineTexture(i, indices, dictionary, sprite.getAssumedWidth() / 64 - 1);
+			scene.defineTexture(i, ((Surface) (surface)).sprites[spriteTexture + i]);
 		}
     }
 
@@ -3,7 +3,7 @@ package org.nemotech.rsc.client.update;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.nemotech.rsc.util.Util;
+import org.nemotech.rsc.util.ClassIndex;
 
 public class UpdateManager {
     
@@ -14,7 +14,7 @@ public class UpdateManager {
     public void init() {
         int count = 0;
         try {
-            for(Class<?> class_ : Util.loadClasses(PACKAGE_NAME)) {
+            for(Class<?> class_ : ClassIndex.getClasses(PACKAGE_NAME)) {
                 if(!class_.getName().contains("$")) {
                     add((Updater) class_.getDeclaredConstructor().newInstance());
                     count++;
@@ -1,6 +1,7 @@
 package org.nemotech.rsc.client.update;
 
 import org.nemotech.rsc.client.mudclient;
+import org.nemotech.rsc.core.WorldSnapshot;
 import org.nemotech.rsc.model.player.Player;
 import org.nemotech.rsc.model.World;
 
@@ -10,8 +11,8 @@ public abstract class Updater {
     
     public Player player = World.getWorld().getPlayer();
     
-    public void handlePositionUpdate(Player player) {}
+    public void handlePositionUpdate(WorldSnapshot snapshot) {}
     
-    public void handleGraphicsUpdate(Player player) {}
+    public void handleGraphicsUpdate(WorldSnapshot snapshot) {}
     
 }
\ No newline at end of file
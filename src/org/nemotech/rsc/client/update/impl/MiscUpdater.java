@@ -10,14 +10,13 @@ import org.nemotech.rsc.model.player.Bank;
 import org.nemotech.rsc.model.World;
 import org.nemotech.rsc.util.Formulae;
 
-import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 
 public class MiscUpdater extends Updater {
     
     public void sendEnterSleep() {
         player.setSleeping(true);
-        BufferedImage word = ActionManager.get(SleepHandler.class).generateCaptcha(player);
+        int[][] word = ActionManager.get(SleepHandler.class).generateCaptcha(player);
         ActionManager.get(SleepHandler.class).handleSleep(word);
     }
     
@@ -1,16 +1,13 @@
 package org.nemotech.rsc.client.update.impl;
 
-import org.nemotech.rsc.model.ChatMessage;
-import org.nemotech.rsc.model.NPC;
-import org.nemotech.rsc.model.player.Player;
 import org.nemotech.rsc.client.Mob;
 import org.nemotech.rsc.client.update.Updater;
-import org.nemotech.rsc.util.StatefulEntityCollection;
+import org.nemotech.rsc.core.WorldSnapshot;
+import org.nemotech.rsc.core.WorldSnapshot.HitState;
+import org.nemotech.rsc.core.WorldSnapshot.NpcMessage;
+import org.nemotech.rsc.core.WorldSnapshot.NpcState;
 import org.nemotech.rsc.external.EntityManager;
 
-import java.util.Collection;
-import java.util.List;
-
 public class NPCUpdater extends Updater {
     
     public boolean sectionLoaded = false;
@@ -25,20 +22,16 @@ public class NPCUpdater extends Updater {
     }
     
     @Override
-    public void handlePositionUpdate(Player player) {
-        StatefulEntityCollection<NPC> watchedNpcs = player.getWatchedNpcs();
-        Collection<NPC> newNpcs = watchedNpcs.getNewEntities();
-        Collection<NPC> knownNpcs = watchedNpcs.getKnownEntities();
-        
+    public void handlePositionUpdate(WorldSnapshot snapshot) {
         mc.npcCacheCount = mc.npcCount;
         mc.npcCount = 0;
         System.arraycopy(mc.npcs, 0, mc.npcsCache, 0, mc.npcCacheCount);
         
-        for (NPC npc : knownNpcs) {
+        for (NpcState npc : snapshot.knownNpcs) {
             //if(!sectionLoaded) return;
-            Mob character = getLastNpc(npc.getIndex());
-            if (npc.hasMoved()) {
-                int sprite = npc.getSprite();
+            Mob character = getLastNpc(npc.index);
+            if (npc.moved) {
+                int sprite = npc.sprite;
                 int wayCur = character.waypointCurrent;
                 int wayX = character.waypointsX[wayCur];
                 int wayY = character.waypointsY[wayCur];
@@ -54,8 +47,8 @@ public class NPCUpdater extends Updater {
                 character.waypointCurrent = wayCur = (wayCur + 1) % 10;
                 character.waypointsX[wayCur] = wayX;
                 character.waypointsY[wayCur] = wayY;
-            } else if (npc.spriteChanged()) {
-                int nextSpriteOffset = npc.getSprite();
+            } else if (npc.spriteChanged) {
+                int nextSpriteOffset = npc.sprite;
                 if ((nextSpriteOffset & 0xc) == 12) {
                     continue;
                 }
@@ -64,12 +57,12 @@ public class NPCUpdater extends Updater {
             mc.npcs[mc.npcCount++] = character;
         }
         
-        for (NPC n : newNpcs) {
-            int index = n.getIndex();
-            int x = (n.getX() - mc.regionX) * mc.magicLoc + 64;
-            int y = (n.getY() - mc.regionY) * mc.magicLoc + 64;
-            int sprite = n.getSprite();
-            int id = n.getID();
+        for (NpcState n : snapshot.newNpcs) {
+            int index = n.index;
+            int x = (n.x - mc.regionX) * mc.magicLoc + 64;
+            int y = (n.y - mc.regionY) * mc.magicLoc + 64;
+            int sprite = n.sprite;
+            int id = n.id;
             if(x > 0 && y > 0) {
                 mc.addNpc(index, x, y, sprite, id);
             }
@@ -78,26 +71,20 @@ public class NPCUpdater extends Updater {
     }
     
     @Override
-    public void handleGraphicsUpdate(Player player) {
-        List<NPC> npcsNeedingHitsUpdate = player.getNpcsRequiringHitsUpdate();
-        List<ChatMessage> npcMessagesNeedingDisplayed = player.getNpcMessagesNeedingDisplayed();
-
-        int updateSize = npcMessagesNeedingDisplayed.size() + npcsNeedingHitsUpdate.size();
-        if(updateSize > 0) {
-            for (ChatMessage cm : npcMessagesNeedingDisplayed) {
-                Mob characterNPC = mc.npcsServer[cm.getSender().getIndex()];
-                characterNPC.messageTimeout = 150;
-                characterNPC.message = cm.getMessage();
-                mc.showMessage("@yel@" + EntityManager.getNPC(characterNPC.npcId).getName() + ": " + characterNPC.message, 5);
-            }
-            for (NPC n : npcsNeedingHitsUpdate) {
-                Mob characterNPC = mc.npcsServer[n.getIndex()];
-                characterNPC.damageTaken = n.getLastDamage();
-                characterNPC.healthCurrent = n.getHits();
-                characterNPC.healthMax = n.getDef().getHitpoints();
-                characterNPC.combatTimer = 200;
-            }
+    public void handleGraphicsUpdate(WorldSnapshot snapshot) {
+        for (NpcMessage cm : snapshot.npcMessages) {
+            Mob characterNPC = mc.npcsServer[cm.index];
+            characterNPC.messageTimeout = 150;
+            characterNPC.message = cm.message;
+            mc.showMessage("@yel@" + EntityManager.getNPC(characterNPC.npcId).getName() + ": " + characterNPC.message, 5);
+        }
+        for (HitState n : snapshot.npcHits) {
+            Mob characterNPC = mc.npcsServer[n.index];
+            characterNPC.damageTaken = n.damage;
+            characterNPC.healthCurrent = n.current;
+            characterNPC.healthMax = n.max;
+            characterNPC.combatTimer = 200;
         }
     }
     
-}
\ No newline at end of file
+}
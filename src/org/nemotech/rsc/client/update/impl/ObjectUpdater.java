@@ -1,62 +1,50 @@
 package org.nemotech.rsc.client.update.impl;
 
-import org.nemotech.rsc.model.GameObject;
 import org.nemotech.rsc.client.Model;
 import org.nemotech.rsc.client.update.Updater;
+import org.nemotech.rsc.core.WorldSnapshot;
+import org.nemotech.rsc.core.WorldSnapshot.ObjectState;
 import org.nemotech.rsc.external.EntityManager;
-import org.nemotech.rsc.model.player.Player;
-import org.nemotech.rsc.util.StatefulEntityCollection;
-
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
 
 public class ObjectUpdater extends Updater {
     
     @Override
-    public void handlePositionUpdate(Player player) {
-        StatefulEntityCollection<GameObject> watchedObjects = player.getWatchedObjects();
-        if(watchedObjects.changed()) {
-            Collection<GameObject> newObjects = watchedObjects.getNewEntities();
-            Collection<GameObject> knownObjets = watchedObjects.getKnownEntities();
-            for(GameObject object : knownObjets) {
-                if(object.getType() != 0) {
+    public void handlePositionUpdate(WorldSnapshot snapshot) {
+        if(snapshot.objectsChanged) {
+            // We should remove ones miles away differently I think
+            for(ObjectState object : snapshot.removedObjects) {
+                if(object.type != 0) {
                     continue;
                 }
-                // We should remove ones miles away differently I think
-                if(watchedObjects.isRemoving(object)) {
-                    int id = object.getID();
-                    int x = object.getX() - mc.regionX;
-                    int y = object.getY() - mc.regionY;
-                    int direction = object.getDirection();
-                    int count = 0;
-                    for(int i = 0; i < mc.objectCount; i++) {
-                        if(mc.objectX[i] != x || mc.objectY[i] != y) {
-                            if(i != count) {
-                                mc.objectModel[count] = mc.objectModel[i];
-                                mc.objectModel[count].key = count;
-                                mc.objectX[count] = mc.objectX[i];
-                                mc.objectY[count] = mc.objectY[i];
-                                mc.objectID[count] = mc.objectID[i];
-                                mc.objectDirection[count] = mc.objectDirection[i];
-                            }
-                            count++;
-                        } else {
-                            mc.scene.removeModel(mc.objectModel[i]);
-                            mc.world.updateObject(mc.objectX[i], mc.objectY[i], mc.objectID[i], mc.objectDirection[i]);
+                int x = object.x - mc.regionX;
+                int y = object.y - mc.regionY;
+                int count = 0;
+                for(int i = 0; i < mc.objectCount; i++) {
+                    if(mc.objectX[i] != x || mc.objectY[i] != y) {
+                        if(i != count) {
+                            mc.objectModel[count] = mc.objectModel[i];
+                            mc.objectModel[count].key = count;
+                            mc.objectX[count] = mc.objectX[i];
+                            mc.objectY[count] = mc.objectY[i];
+                            mc.objectID[count] = mc.objectID[i];
+                            mc.objectDirection[count] = mc.objectDirection[i];
                         }
+                        count++;
+                    } else {
+                        mc.scene.removeModel(mc.objectModel[i]);
+                        mc.world.updateObject(mc.objectX[i], mc.objectY[i], mc.objectID[i], mc.objectDirection[i]);
                     }
-                    mc.objectCount = count;
                 }
+                mc.objectCount = count;
             }
-            for(GameObject object : newObjects) {
-                if(object.getType() != 0) {
+            for(ObjectState object : snapshot.newObjects) {
+                if(object.type != 0) {
                     continue;
                 }
-                int id = object.getID();
-                int x = object.getX() - mc.regionX;
-                int y = object.getY() - mc.regionY;
-                int direction = object.getDirection();
+                int id = object.id;
+                int x = object.x - mc.regionX;
+                int y = object.y - mc.regionY;
+                int direction = object.direction;
                 //mc.world.registerObjectDir(x, y, direction);
                 int width;
                 int height;
@@ -89,4 +77,4 @@ public class ObjectUpdater extends Updater {
         }
     }
     
-}
\ No newline at end of file
+}
@@ -1,29 +1,25 @@
 package org.nemotech.rsc.client.update.impl;
 
-import org.nemotech.rsc.model.Projectile;
-import org.nemotech.rsc.model.ChatMessage;
-import org.nemotech.rsc.model.NPC;
-import org.nemotech.rsc.model.Entity;
-import org.nemotech.rsc.model.player.Player;
-import org.nemotech.rsc.model.player.Appearance;
 import org.nemotech.rsc.client.Mob;
 import org.nemotech.rsc.client.update.Updater;
-
-import java.util.List;
+import org.nemotech.rsc.core.WorldSnapshot;
+import org.nemotech.rsc.core.WorldSnapshot.AppearanceState;
+import org.nemotech.rsc.core.WorldSnapshot.HitState;
+import org.nemotech.rsc.core.WorldSnapshot.ProjectileState;
 
 public class PlayerUpdater extends Updater {
     
     @Override
-    public void handlePositionUpdate(Player player) {
-        if(player.getX() < 0 || player.getY() < 0) {
+    public void handlePositionUpdate(WorldSnapshot snapshot) {
+        if(snapshot.playerX < 0 || snapshot.playerY < 0) {
             return;
         }
         //if(mc.loadingArea) return;
         mc.knownPlayerCount = mc.playerCount;
         System.arraycopy(mc.players, 0, mc.knownPlayers, 0, mc.knownPlayerCount);
-        mc.localRegionX = player.getX();
-        mc.localRegionY = player.getY();
-        int anim = player.getSprite();
+        mc.localRegionX = snapshot.playerX;
+        mc.localRegionY = snapshot.playerY;
+        int anim = snapshot.playerSprite;
         boolean flag1 = mc.loadNextRegion(mc.localRegionX, mc.localRegionY);
         mc.localRegionX -= mc.regionX;
         mc.localRegionY -= mc.regionY;
@@ -40,67 +36,50 @@ public class PlayerUpdater extends Updater {
     }
     
     @Override
-    public void handleGraphicsUpdate(Player player) {
-        List<ChatMessage> chatMessagesNeedingDisplayed = player.getChatMessagesNeedingDisplayed();
-        List<Player> playersNeedingHitsUpdate = player.getPlayersRequiringHitsUpdate();
-        List<Projectile> projectilesNeedingDisplayed = player.getProjectilesNeedingDisplayed();
-        List<Player> playersNeedingAppearanceUpdate = player.getPlayersRequiringAppearanceUpdate();
-        
-        int updateSize = chatMessagesNeedingDisplayed.size() + playersNeedingHitsUpdate.size() +  projectilesNeedingDisplayed.size() + playersNeedingAppearanceUpdate.size();
-        if(updateSize > 0) {
-            Mob character = mc.localPlayer;
-            for(ChatMessage cm : chatMessagesNeedingDisplayed) {
-                character.messageTimeout = 150;
-                character.message = cm.getMessage();
-                int tab = 3;
-                if(character.message.endsWith("@que@")) {
-                    tab = 5;
-                }
-                mc.showMessage("@whi@" + character.name + ": " + character.message, tab);
-            }
-            for(Player p : playersNeedingHitsUpdate) {
-                character.damageTaken = p.getLastDamage();
-                character.healthCurrent = p.getCurStat(3);
-                character.healthMax = p.getMaxStat(3);
-                character.combatTimer = 200;
-                mc.playerStatCurrent[3] = p.getCurStat(3);
-                mc.playerStatBase[3] = p.getMaxStat(3);
-                mc.showDialogWelcome = false;
-                mc.showDialogServerMessage = false;
+    public void handleGraphicsUpdate(WorldSnapshot snapshot) {
+        Mob character = mc.localPlayer;
+        for(String message : snapshot.chatMessages) {
+            character.messageTimeout = 150;
+            character.message = message;
+            int tab = 3;
+            if(character.message.endsWith("@que@")) {
+                tab = 5;
             }
-            for(Projectile p : projectilesNeedingDisplayed) {
-                Entity victim = p.getVictim();
-                if(victim instanceof NPC) {
-                    character.incomingProjectileSprite = p.getType();
-                    character.attackingNpcServerIndex = ((NPC) victim).getIndex();
-                    character.attackingPlayerServerIndex = -1;
-                    character.projectileRange = mc.projectileMaxRange;
-                } else if(victim instanceof Player) {
-                    character.incomingProjectileSprite = p.getType();
-                    character.attackingNpcServerIndex = -1;
-                    character.attackingPlayerServerIndex = ((Player) victim).getIndex();
-                    character.projectileRange = mc.projectileMaxRange;
-                }
+            mc.showMessage("@whi@" + character.name + ": " + character.message, tab);
+        }
+        for(HitState p : snapshot.playerHits) {
+            character.damageTaken = p.damage;
+            character.healthCurrent = p.current;
+            character.healthMax = p.max;
+            character.combatTimer = 200;
+            mc.playerStatCurrent[3] = p.current;
+            mc.playerStatBase[3] = p.max;
+            mc.showDialogWelcome = false;
+            mc.showDialogServerMessage = false;
+        }
+        for(ProjectileState p : snapshot.projectiles) {
+            character.incomingProjectileSprite = p.type;
+            character.attackingNpcServerIndex = p.npcIndex;
+            character.attackingPlayerServerIndex = p.playerIndex;
+            character.projectileRange = mc.projectileMaxRange;
+        }
+        for(AppearanceState p : snapshot.appearances) {
+            character.serverId = p.index;
+            character.name = p.username;
+            for (int i = 0; i < p.getWornItemCount(); i++) {
+                character.equippedItem[i] = p.getWornItem(i);
             }
-            for(Player p : playersNeedingAppearanceUpdate) {
-                Appearance appearance = p.getAppearance();
-                character.serverId = p.getIndex();
-                character.name = p.getUsername();
-                for (int i = 0; i < p.getWornItems().length; i++) {
-                    character.equippedItem[i] = p.getWornItems()[i];
-                }
 
-                for (int i = p.getWornItems().length; i < 12; i++) {
-                    character.equippedItem[i] = 0;
-                }
-                character.colourHair = appearance.getHairColor();
-                character.colourTop = appearance.getShirtColor();
-                character.colourBottom = appearance.getPantsColor();
-                character.colourSkin = appearance.getSkinColor();
-                character.level = p.getCombatLevel();
-                character.skullVisible = p.isSkulled() ? 1 : 0;
+            for (int i = p.getWornItemCount(); i < 12; i++) {
+                character.equippedItem[i] = 0;
             }
+            character.colourHair = p.hairColour;
+            character.colourTop = p.topColour;
+            character.colourBottom = p.bottomColour;
+            character.colourSkin = p.skinColour;
+            character.level = p.combatLevel;
+            character.skullVisible = p.skulled ? 1 : 0;
         }
     }
     
-}
\ No newline at end of file
+}
@@ -1,11 +1,16 @@
 package org.nemotech.rsc.core;
 
-import org.nemotech.rsc.client.mudclient;
-import org.nemotech.rsc.client.sound.MusicPlayer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import org.nemotech.rsc.client.update.impl.*;
 import org.nemotech.rsc.model.player.Player;
 import org.nemotech.rsc.model.NPC;
 import org.nemotech.rsc.model.World;
+import org.nemotech.rsc.model.landscape.Region;
+import org.nemotech.rsc.model.landscape.RegionManager;
 import org.nemotech.rsc.util.EntityList;
 import org.nemotech.rsc.client.update.UpdateManager;
 
@@ -14,34 +19,95 @@ public class ClientUpdater {
     private static World world = World.getWorld();
     
     private EntityList<NPC> npcs = world.getNpcs();
+    
+    /**
+     * How far from the player (in tiles) npcs are still simulated, well past the view distance
+     * so nothing visible is ever frozen
+     */
+    private static final int ACTIVE_DISTANCE = 32;
+    
+    /**
+     * The npcs being simulated this tick, npcs in regions away from the player stay frozen
+     */
+    private final List<NPC> activeNpcs = new ArrayList<>();
+    
+    /**
+     * Snapshots published by the engine, waiting for the game thread to draw them
+     */
+    private final Queue<WorldSnapshot> snapshots = new ConcurrentLinkedQueue<>();
+    
+    /**
+     * The number of game ticks simulated so far
+     */
+    private long tick = 0;
+    
+    /**
+     * When false, only npcs near the player are ticked; bots farming far away can turn this on.
+     * Set from the bot thread and read by the engine, hence volatile
+     */
+    private volatile boolean fullNpcSimulation = false;
+    
+    public ClientUpdater() {
+        world.setClientUpdater(this);
+    }
+
+    public boolean isFullNpcSimulation() {
+        return fullNpcSimulation;
+    }
+
+    public void setFullNpcSimulation(boolean fullNpcSimulation) {
+        this.fullNpcSimulation = fullNpcSimulation;
+    }
 
+    /**
+     * Runs one game tick of world simulation. Called on the engine thread only.
+     */
     public void updateClients() {
+        tick++;
         Player player = world.getPlayer();
         if(player != null && player.isLoggedIn()) {
+            collectActiveNpcs(player);
             updateNpcPositions();
             updatePlayersPositions();
             //updateTimeouts(player);
             
+            snapshots.add(new WorldSnapshot(tick, player));
+            
+            updateCollections();
+        } else {
+            snapshots.clear();
+        }
+    }
+    
+    /**
+     * Applies every snapshot published since the last call, oldest first, to the client.
+     * Called on the game thread only, so the renderer never sees a half-applied tick.
+     */
+    public void applySnapshots() {
+        WorldSnapshot snapshot;
+        while((snapshot = snapshots.poll()) != null) {
             // entity positions 
-            UpdateManager.get(PlayerUpdater.class).handlePositionUpdate(player);
-            UpdateManager.get(NPCUpdater.class).handlePositionUpdate(player);
-            UpdateManager.get(ObjectUpdater.class).handlePositionUpdate(player);
-            UpdateManager.get(WallUpdater.class).handlePositionUpdate(player);
-            UpdateManager.get(ItemUpdater.class).handlePositionUpdate(player);
+            UpdateManager.get(PlayerUpdater.class).handlePositionUpdate(snapshot);
+            UpdateManager.get(NPCUpdater.class).handlePositionUpdate(snapshot);
+            UpdateManager.get(ObjectUpdater.class).handlePositionUpdate(snapshot);
+            UpdateManager.get(WallUpdater.class).handlePositionUpdate(snapshot);
+            UpdateManager.get(ItemUpdater.class).handlePositionUpdate(snapshot);
             
             // graphics
-            UpdateManager.get(PlayerUpdater.class).handleGraphicsUpdate(player);
-            UpdateManager.get(NPCUpdater.class).handleGraphicsUpdate(player);
-            
-            updateCollections();
+            UpdateManager.get(PlayerUpdater.class).handleGraphicsUpdate(snapshot);
+            UpdateManager.get(NPCUpdater.class).handleGraphicsUpdate(snapshot);
         }
     }
     
+    public long getTick() {
+        return tick;
+    }
+    
     /**
      * Update the position of npcs, and check if who (and what) they are aware of needs updated
      */
     private void updateNpcPositions() {
-        for(NPC n : npcs) {
+        for(NPC n : activeNpcs) {
             n.resetMoved();
             n.updatePosition();
             n.updateAppearanceID();
@@ -114,18 +180,33 @@ public class ClientUpdater {
         p.getWatchedItems().update();
         p.getWatchedNpcs().update();
 
-        p.clearProjectilesNeedingDisplayed();
         p.clearPlayersNeedingHitsUpdate();
         p.clearNpcsNeedingHitsUpdate();
-        p.clearChatMessagesNeedingDisplayed();
-        p.clearNpcMessagesNeedingDisplayed();
 
         p.resetSpriteChanged();
         p.setAppearnceChanged(false);
-        for(NPC n : npcs) {
+        for(NPC n : activeNpcs) {
             n.resetSpriteChanged();
             n.setAppearnceChanged(false);
         }
     }
     
+    /**
+     * Picks the npcs to simulate this tick. Copied up front as npcs change region as they move.
+     */
+    private void collectActiveNpcs(Player player) {
+        activeNpcs.clear();
+        if(fullNpcSimulation) {
+            for(NPC n : npcs) {
+                activeNpcs.add(n);
+            }
+            return;
+        }
+        int x = player.getX();
+        int y = player.getY();
+        for(Region region : RegionManager.getRegionsInArea(x - ACTIVE_DISTANCE, y - ACTIVE_DISTANCE, x + ACTIVE_DISTANCE, y + ACTIVE_DISTANCE)) {
+            activeNpcs.addAll(region.getNpcs());
+        }
+    }
+    
 }
\ No newline at end of file
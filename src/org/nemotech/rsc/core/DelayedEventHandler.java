@@ -4,63 +4,230 @@ import org.nemotech.rsc.model.player.Player;
 import org.nemotech.rsc.model.World;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import org.nemotech.rsc.event.DelayedEvent;
 
+/**
+ * Runs delayed events from a hashed timer wheel, so each pass only touches
+ * the events that fall due within the ticks that have elapsed since the last one.
+ */
 public final class DelayedEventHandler {
-    
+
+    /**
+     * The length of one wheel tick in ms, matching the engine loop
+     */
+    private static final int TICK_MS = 50;
+    /**
+     * Number of slots on the wheel (must be a power of two), ~25 seconds per rotation
+     */
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
     private static World world = World.getWorld();
-    private ArrayList<DelayedEvent> toAdd = new ArrayList<>();
-    private ArrayList<DelayedEvent> events = new ArrayList<>();
-    
+
+    /**
+     * Every scheduled event mapped to its current wheel entry. Keyed on equals() so
+     * duplicate events (e.g. two fights against the same npc) are still rejected.
+     */
+    private final Map<DelayedEvent, Timer> events = new ConcurrentHashMap<>();
+    /**
+     * Events grouped by their owning player
+     */
+    private final Map<Player, Set<DelayedEvent>> playerEvents = new ConcurrentHashMap<>();
+    /**
+     * Entries waiting to be placed on the wheel by the engine thread
+     */
+    private final Queue<Timer> toSchedule = new ConcurrentLinkedQueue<>();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ArrayList<Timer>[] wheel = new ArrayList[WHEEL_SIZE];
+    private ArrayList<Timer> spare = new ArrayList<>();
+    /**
+     * The last tick that has been processed
+     */
+    private long currentTick = System.currentTimeMillis() / TICK_MS;
+
     public DelayedEventHandler() {
+        for(int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ArrayList<>();
+        }
         world.setDelayedEventHandler(this);
     }
-    
+
     public boolean contains(DelayedEvent event) {
-        return events.contains(event);
+        if(event == null) {
+            return false;
+        }
+        Timer timer = events.get(event);
+        return timer != null && !timer.event.shouldRemove();
     }
-    
-    public ArrayList<DelayedEvent> getEvents() {
-        return events;
+
+    public Collection<DelayedEvent> getEvents() {
+        return events.keySet();
     }
-    
+
     public void add(DelayedEvent event) {
-        if(!events.contains(event)) {
-            toAdd.add(event);
+        Timer timer = new Timer(event);
+        Timer existing = events.putIfAbsent(event, timer);
+        if(existing != null) {
+            // a stopped event that hasn't been swept yet doesn't block its replacement
+            if(!existing.event.shouldRemove() || !events.replace(event, existing, timer)) {
+                return;
+            }
+            unindex(existing.event);
         }
+        index(event);
+        toSchedule.add(timer);
     }
-    
+
     public void remove(DelayedEvent event) {
-        events.remove(event);
+        if(event == null) {
+            return;
+        }
+        Timer timer = events.remove(event);
+        if(timer != null) {
+            unindex(timer.event);
+        }
+    }
+
+    /**
+     * Called when an event's delay or last run time has changed, so it may now be due sooner
+     */
+    public void reschedule(DelayedEvent event) {
+        Timer timer = events.get(event);
+        if(timer == null) {
+            return;
+        }
+        Timer moved = new Timer(timer.event);
+        if(events.replace(event, timer, moved)) {
+            toSchedule.add(moved);
+        }
     }
-    
+
     public void removePlayersEvents(Player player) {
-        Iterator<DelayedEvent> iterator = events.iterator();
-        while(iterator.hasNext()) {
-            DelayedEvent event = iterator.next();
-            if(event.belongsTo(player)) {
-                iterator.remove();
-            }
+        Set<DelayedEvent> owned = playerEvents.remove(player);
+        if(owned == null) {
+            return;
+        }
+        for(DelayedEvent event : owned) {
+            events.remove(event);
         }
     }
-    
+
     public void doEvents() {
-        if(toAdd.size() > 0) {
-            events.addAll(toAdd);
-            toAdd.clear();
-        }
-        Iterator<DelayedEvent> iterator = events.iterator();
-        while(iterator.hasNext()) {
-            DelayedEvent event = iterator.next();
-            if(event.shouldRun()) {
-                event.run();
-                event.updateLastRun();
+        long now = System.currentTimeMillis();
+        long nowTick = now / TICK_MS;
+        Timer timer;
+        while((timer = toSchedule.poll()) != null) {
+            if(isCurrent(timer)) {
+                schedule(timer, currentTick + 1);
             }
-            if(event.shouldRemove()) {
-                iterator.remove();
+        }
+        // after a long stall every slot is visited once, which covers every overdue entry
+        long lastTick = Math.min(nowTick, currentTick + WHEEL_SIZE);
+        for(long tick = currentTick + 1; tick <= lastTick; tick++) {
+            processSlot((int) (tick & WHEEL_MASK), now, nowTick);
+        }
+        currentTick = Math.max(currentTick, nowTick);
+    }
+
+    private void processSlot(int slot, long now, long nowTick) {
+        ArrayList<Timer> due = wheel[slot];
+        wheel[slot] = spare;
+        spare = due;
+        int i = 0;
+        try {
+            for(; i < due.size(); i++) {
+                Timer timer = due.get(i);
+                if(!isCurrent(timer)) {
+                    continue;
+                }
+                DelayedEvent event = timer.event;
+                if(event.shouldRemove()) {
+                    expire(timer);
+                    continue;
+                }
+                if(timer.tick > nowTick) {
+                    // not this rotation
+                    wheel[slot].add(timer);
+                    continue;
+                }
+                if(event.shouldRun(now)) {
+                    event.run();
+                    event.updateLastRun(now);
+                    if(!isCurrent(timer)) {
+                        continue;
+                    }
+                    if(event.shouldRemove()) {
+                        expire(timer);
+                        continue;
+                    }
+                }
+                schedule(timer, nowTick + 1);
+            }
+        } finally {
+            // keep anything left behind if an event throws
+            for(; i < due.size(); i++) {
+                wheel[slot].add(due.get(i));
             }
+            due.clear();
+        }
+    }
+
+    /**
+     * Places the entry in the slot its event is due in, but never earlier than the given tick
+     */
+    private void schedule(Timer timer, long earliestTick) {
+        long tick = Math.max(timer.event.getNextRunTime() / TICK_MS, earliestTick);
+        timer.tick = tick;
+        wheel[(int) (tick & WHEEL_MASK)].add(timer);
+    }
+
+    private boolean isCurrent(Timer timer) {
+        return events.get(timer.event) == timer;
+    }
+
+    private void expire(Timer timer) {
+        if(events.remove(timer.event, timer)) {
+            unindex(timer.event);
         }
     }
 
-}
\ No newline at end of file
+    private void index(DelayedEvent event) {
+        Player owner = event.getOwner();
+        if(owner != null) {
+            playerEvents.computeIfAbsent(owner, p -> ConcurrentHashMap.newKeySet()).add(event);
+        }
+    }
+
+    private void unindex(DelayedEvent event) {
+        Player owner = event.getOwner();
+        if(owner == null) {
+            return;
+        }
+        Set<DelayedEvent> owned = playerEvents.get(owner);
+        if(owned != null) {
+            owned.remove(event);
+        }
+    }
+
+    /**
+     * A wheel entry, replaced (rather than moved) whenever its event is rescheduled
+     */
+    private static final class Timer {
+
+        private final DelayedEvent event;
+        private long tick;
+
+        private Timer(DelayedEvent event) {
+            this.event = event;
+        }
+
+    }
+
+}
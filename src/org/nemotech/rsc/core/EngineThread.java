@@ -1,6 +1,9 @@
 package org.nemotech.rsc.core;
 
 import java.util.ConcurrentModificationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.nemotech.rsc.Constants;
 import org.nemotech.rsc.event.DelayedEvent;
@@ -12,13 +15,38 @@ import org.nemotech.rsc.model.World;
 /**
  * Core tasks will be run on this thread.
  * 
+ * Delayed events are pumped every 50 ms and the world is simulated on a fixed
+ * 600 ms game tick, both on a single scheduler thread so they never interleave.
+ * The client only draws the snapshots each tick publishes, so a slow frame can't
+ * hold up the world and a heavy tick can't stall a frame.
  */
-public class EngineThread extends Thread {
+public class EngineThread {
+    
+    /**
+     * The length of a game tick in ms
+     */
+    public static final int TICK_RATE = 600;
+    /**
+     * How often delayed events are checked, in ms
+     */
+    private static final int EVENT_RATE = 50;
+    /**
+     * How many ticks the engine may fall behind before it stops catching up
+     */
+    private static final int MAX_TICKS_BEHIND = 5;
+    /**
+     * How often the player is saved, in ms
+     */
+    private static final int AUTOSAVE_DELAY = 20 * 1000;
+    /**
+     * How often a hardcore player is saved, in ms
+     */
+    private static final int HARDCORE_AUTOSAVE_DELAY = 5 * 1000;
     
     /**
      * Whether the engine's thread is running
      */
-    private boolean running = true;
+    private volatile boolean running = false;
     /**
      * Responsible for updating all connected clients
      */
@@ -28,22 +56,51 @@ public class EngineThread extends Thread {
      */
     private DelayedEventHandler eventHandler = new DelayedEventHandler();
     /**
-     * When the update loop was last ran, required for throttle
+     * The single thread all core tasks run on
      */
-    private long lastSentClientUpdate = 0;
-        
+    private ScheduledExecutorService executor;
+    /**
+     * When the next game tick is due (System.nanoTime), used to compensate for drift
+     */
+    private long nextTick;
+    
     /**
-     * The thread execution process.
+     * Starts the engine's thread.
      */
-    @Override
-    public void run() {
+    public void start() {
         running = true;
-        
+        executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "EngineThread"));
+        executor.execute(this::init);
+        executor.scheduleAtFixedRate(this::processEvents, EVENT_RATE, EVENT_RATE, TimeUnit.MILLISECONDS);
+        nextTick = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TICK_RATE);
+        executor.schedule(this::tick, TICK_RATE, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stops the engine after any task already running has finished.
+     */
+    public void shutdown() {
+        running = false;
+        if(executor != null) {
+            executor.shutdown();
+        }
+    }
+    
+    /**
+     * Registers the engine's own recurring events.
+     */
+    private void init() {
         // Periodic auto-save (skip for hardcore characters flagged for deletion)
-        eventHandler.add(new DelayedEvent(null, 20 * 1000) { /* 20 seconds */
+        eventHandler.add(new DelayedEvent(null, AUTOSAVE_DELAY) {
             @Override
             public void run() {
                 Player player = world.getPlayer();
+                // Saves only append what changed, so hardcore characters, who lose everything
+                // to a lost save, can be saved far more often
+                int autosave = player != null && player.isHardcore() ? HARDCORE_AUTOSAVE_DELAY : AUTOSAVE_DELAY;
+                if (delay != autosave) {
+                    setDelay(autosave);
+                }
                 // Only save if logged in and not marked to skip save (e.g., hardcore death)
                 if (player != null && player.isLoggedIn() && !player.shouldSkipSaveOnUnregister()) {
                     try {
@@ -67,12 +124,30 @@ public class EngineThread extends Thread {
                 }
             }
         });
-        
-        while (running) {
-            try { Thread.sleep(50); } catch(InterruptedException ie) {}
-            processEvents();
-            processClients();
+    }
+    
+    /**
+     * Runs one game tick, then schedules the next against the fixed tick
+     * timeline rather than from when this one finished.
+     */
+    private void tick() {
+        if(!running) {
+            return;
+        }
+        try {
+            clientUpdater.updateClients();
+        } catch(Throwable t) {
+            // a bad tick must never stop the world
+            t.printStackTrace();
+        }
+        long period = TimeUnit.MILLISECONDS.toNanos(TICK_RATE);
+        long now = System.nanoTime();
+        nextTick += period;
+        if(now - nextTick > MAX_TICKS_BEHIND * period) {
+            // too far behind (e.g. the machine was suspended), resync instead of replaying every missed tick
+            nextTick = now;
         }
+        executor.schedule(this::tick, Math.max(0, nextTick - now), TimeUnit.NANOSECONDS);
     }
     
     private void checkMusicChange() {
@@ -133,16 +208,14 @@ public class EngineThread extends Thread {
             eventHandler.doEvents();
         } catch(ConcurrentModificationException cme) {
             // ignore
+        } catch(Throwable t) {
+            // an exception escaping here would cancel the periodic task
+            t.printStackTrace();
         }
-    }
-    
-    private void processClients() {
-        clientUpdater.checkIfPlayerIsDestroyed();
-        
-        long now = System.currentTimeMillis();
-        if(now - lastSentClientUpdate >= 600) {
-            lastSentClientUpdate = now;
-            //clientUpdater.updateClients();
+        try {
+            clientUpdater.checkIfPlayerIsDestroyed();
+        } catch(Throwable t) {
+            t.printStackTrace();
         }
     }
 
@@ -0,0 +1,134 @@
+package org.nemotech.rsc.core;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.nemotech.rsc.model.player.Player;
+import org.nemotech.rsc.model.player.PlayerFile;
+import org.nemotech.rsc.model.player.PlayerJournal;
+
+/**
+ * Writes player saves on its own thread, so a save never holds up the engine.
+ *
+ * Saving takes a copy of the player's save data on the calling thread, which is cheap, along
+ * with what the player has changed since their last save, and queues it for the writer, which
+ * appends the changes to the player's journal. A player saved again before their last save was
+ * written only has their newest copy written, with both saves' changes.
+ */
+public final class PersistenceService {
+
+    /**
+     * How long closing the game waits for the saves still queued, in seconds
+     */
+    private static final int FLUSH_TIMEOUT = 10;
+
+    private static final PersistenceService instance = new PersistenceService();
+
+    public static PersistenceService getInstance() {
+        return instance;
+    }
+
+    /**
+     * A save waiting for the writer
+     */
+    private static final class Pending {
+
+        private PlayerFile.Save snapshot;
+        private int sections;
+        private final Set<String> cacheKeys = new HashSet<>();
+        private boolean compact;
+
+    }
+
+    /**
+     * The newest copy of each player's save not yet written, by username
+     */
+    private final Map<String, Pending> pending = new HashMap<>();
+
+    /**
+     * Each player's journal, only used on the writer thread
+     */
+    private final Map<String, PlayerJournal> journals = new HashMap<>();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "PersistenceService");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PersistenceService() {}
+
+    /**
+     * Takes a copy of the player's save data and queues their changes to be written
+     *
+     * @param compact whether to write the save in full and start a new journal
+     */
+    public void save(Player player, boolean compact) {
+        String username = player.getUsername();
+        int sections = player.takeChangedSections();
+        Set<String> cacheKeys = player.getCache().takeChangedKeys();
+        PlayerFile.Save snapshot = player.snapshot();
+        synchronized (pending) {
+            Pending save = pending.get(username);
+            boolean queued = save != null;
+            if (!queued) {
+                save = new Pending();
+                pending.put(username, save);
+            }
+            save.snapshot = snapshot;
+            save.sections |= sections;
+            save.cacheKeys.addAll(cacheKeys);
+            save.compact |= compact;
+            if (queued) {
+                // a write is already queued for this player and will pick up the newer copy
+                return;
+            }
+        }
+        writer.execute(() -> write(username));
+    }
+
+    /**
+     * Drops any save still queued for the player and waits for one being written to finish,
+     * so their save files can be deleted without a late write bringing them back
+     */
+    public void discard(String username) {
+        synchronized (pending) {
+            pending.remove(username);
+        }
+        writer.execute(() -> journals.remove(username));
+        flush();
+    }
+
+    /**
+     * Waits for every queued save to be written
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> {}).get(FLUSH_TIMEOUT, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void write(String username) {
+        Pending save;
+        synchronized (pending) {
+            save = pending.remove(username);
+        }
+        if (save == null) {
+            return;
+        }
+        try {
+            journals.computeIfAbsent(username, PlayerJournal::new).write(save.snapshot, save.sections, save.cacheKeys, save.compact);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+}
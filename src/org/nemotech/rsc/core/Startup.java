@@ -0,0 +1,101 @@
+package org.nemotech.rsc.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the startup stages on a small thread pool, each one as soon as the stages it
+ * depends on have finished, then reports how long each took.
+ */
+public final class Startup {
+
+    /**
+     * A piece of startup work, which may throw anything it doesn't handle itself
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    public static final class Stage {
+
+        private final String name;
+        private final CompletableFuture<Void> done;
+        private long start, end;
+
+        private Stage(String name, CompletableFuture<Void> done) {
+            this.name = name;
+            this.done = done;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getMillis() {
+            return (end - start) / 1000000;
+        }
+
+    }
+
+    private final ExecutorService pool;
+    private final List<Stage> stages = new ArrayList<>();
+    private final long start = System.nanoTime();
+
+    public Startup() {
+        AtomicInteger threads = new AtomicInteger();
+        int size = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        pool = Executors.newFixedThreadPool(size, r -> {
+            Thread thread = new Thread(r, "Startup-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a stage that runs once all of its dependencies have. A stage that throws is
+     * reported and counted as finished, so the stages after it still run.
+     */
+    public Stage add(String name, Task task, Stage... dependencies) {
+        CompletableFuture<?>[] after = new CompletableFuture<?>[dependencies.length];
+        for (int i = 0; i < dependencies.length; i++) {
+            after[i] = dependencies[i].done;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Stage stage = new Stage(name, done);
+        CompletableFuture.allOf(after).thenRunAsync(() -> {
+            stage.start = System.nanoTime();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                System.out.println("[Startup] " + name + " failed");
+                t.printStackTrace();
+            }
+            stage.end = System.nanoTime();
+            done.complete(null);
+        }, pool);
+        stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * Waits for every stage to finish, prints the timings and stops the pool
+     */
+    public void await() {
+        for (Stage stage : stages) {
+            stage.done.join();
+        }
+        pool.shutdown();
+        long sum = 0;
+        for (Stage stage : stages) {
+            sum += stage.getMillis();
+            System.out.println(String.format("[Startup] %-12s %6dms (from %dms)", stage.name, stage.getMillis(), (stage.start - start) / 1000000));
+        }
+        System.out.println("[Startup] Done in " + (System.nanoTime() - start) / 1000000 + "ms, the stages add up to " + sum + "ms");
+    }
+
+}
@@ -0,0 +1,260 @@
+package org.nemotech.rsc.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.nemotech.rsc.model.ChatMessage;
+import org.nemotech.rsc.model.GameObject;
+import org.nemotech.rsc.model.Item;
+import org.nemotech.rsc.model.NPC;
+import org.nemotech.rsc.model.Projectile;
+import org.nemotech.rsc.model.World;
+import org.nemotech.rsc.model.landscape.ActiveTile;
+import org.nemotech.rsc.model.player.Appearance;
+import org.nemotech.rsc.model.player.Player;
+import org.nemotech.rsc.util.StatefulEntityCollection;
+
+/**
+ * An immutable copy of everything the client updaters need from one game tick.
+ *
+ * Built on the engine thread at the end of a tick (before the watched collections
+ * are rolled over) and applied later on the game thread, so rendering never reads
+ * live world state that the engine is mutating.
+ */
+public final class WorldSnapshot {
+
+    public final long tick;
+
+    public final int playerX, playerY, playerSprite;
+
+    public final List<String> chatMessages;
+    public final List<HitState> playerHits;
+    public final List<ProjectileState> projectiles;
+    public final List<AppearanceState> appearances;
+
+    public final List<NpcState> knownNpcs;
+    public final List<NpcState> newNpcs;
+    public final List<NpcMessage> npcMessages;
+    public final List<HitState> npcHits;
+
+    public final boolean objectsChanged;
+    public final List<ObjectState> removedObjects;
+    public final List<ObjectState> newObjects;
+
+    public final boolean itemsChanged;
+    public final List<ItemState> removedItems;
+    public final List<ItemState> newItems;
+
+    WorldSnapshot(long tick, Player player) {
+        this.tick = tick;
+        playerX = player.getX();
+        playerY = player.getY();
+        playerSprite = player.getSprite();
+
+        List<String> chat = new ArrayList<>();
+        for(ChatMessage cm : player.drainChatMessagesNeedingDisplayed()) {
+            chat.add(cm.getMessage());
+        }
+        chatMessages = freeze(chat);
+
+        List<HitState> hits = new ArrayList<>();
+        for(Player p : player.getPlayersRequiringHitsUpdate()) {
+            hits.add(new HitState(p.getIndex(), p.getLastDamage(), p.getCurStat(3), p.getMaxStat(3)));
+        }
+        playerHits = freeze(hits);
+
+        List<ProjectileState> shots = new ArrayList<>();
+        for(Projectile p : player.drainProjectilesNeedingDisplayed()) {
+            if(p.getVictim() instanceof NPC) {
+                shots.add(new ProjectileState(p.getType(), p.getVictim().getIndex(), -1));
+            } else if(p.getVictim() instanceof Player) {
+                shots.add(new ProjectileState(p.getType(), -1, p.getVictim().getIndex()));
+            }
+        }
+        projectiles = freeze(shots);
+
+        List<AppearanceState> looks = new ArrayList<>();
+        for(Player p : player.getPlayersRequiringAppearanceUpdate()) {
+            looks.add(new AppearanceState(p));
+        }
+        appearances = freeze(looks);
+
+        StatefulEntityCollection<NPC> watchedNpcs = player.getWatchedNpcs();
+        List<NpcState> known = new ArrayList<>();
+        for(NPC n : watchedNpcs.getKnownEntities()) {
+            known.add(new NpcState(n));
+        }
+        knownNpcs = freeze(known);
+        List<NpcState> added = new ArrayList<>();
+        for(NPC n : watchedNpcs.getNewEntities()) {
+            added.add(new NpcState(n));
+        }
+        newNpcs = freeze(added);
+
+        List<NpcMessage> npcChat = new ArrayList<>();
+        for(ChatMessage cm : player.drainNpcMessagesNeedingDisplayed()) {
+            npcChat.add(new NpcMessage(cm.getSender().getIndex(), cm.getMessage()));
+        }
+        npcMessages = freeze(npcChat);
+
+        List<HitState> npcHitList = new ArrayList<>();
+        for(NPC n : player.getNpcsRequiringHitsUpdate()) {
+            npcHitList.add(new HitState(n.getIndex(), n.getLastDamage(), n.getHits(), n.getDef().getHitpoints()));
+        }
+        npcHits = freeze(npcHitList);
+
+        StatefulEntityCollection<GameObject> watchedObjects = player.getWatchedObjects();
+        objectsChanged = watchedObjects.changed();
+        List<ObjectState> objectsGone = new ArrayList<>();
+        List<ObjectState> objectsAdded = new ArrayList<>();
+        if(objectsChanged) {
+            for(GameObject o : watchedObjects.getKnownEntities()) {
+                if(watchedObjects.isRemoving(o)) {
+                    objectsGone.add(new ObjectState(o));
+                }
+            }
+            for(GameObject o : watchedObjects.getNewEntities()) {
+                objectsAdded.add(new ObjectState(o));
+            }
+        }
+        removedObjects = freeze(objectsGone);
+        newObjects = freeze(objectsAdded);
+
+        StatefulEntityCollection<Item> watchedItems = player.getWatchedItems();
+        itemsChanged = watchedItems.changed();
+        List<ItemState> itemsGone = new ArrayList<>();
+        List<ItemState> itemsAdded = new ArrayList<>();
+        if(itemsChanged) {
+            for(Item i : watchedItems.getKnownEntities()) {
+                if(watchedItems.isRemoving(i)) {
+                    itemsGone.add(new ItemState(i.getID(), i.getX(), i.getY(), 0));
+                }
+            }
+            for(Item i : watchedItems.getNewEntities()) {
+                ActiveTile tile = World.getWorld().getTileIfPresent(i.getLocation());
+                int z = tile != null && tile.hasGameObject() ? tile.getGameObject().getGroundItemVar() : 0;
+                itemsAdded.add(new ItemState(i.getID(), i.getX(), i.getY(), z));
+            }
+        }
+        removedItems = freeze(itemsGone);
+        newItems = freeze(itemsAdded);
+    }
+
+    private static <T> List<T> freeze(Collection<T> list) {
+        return list.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
+    public static final class HitState {
+
+        public final int index, damage, current, max;
+
+        HitState(int index, int damage, int current, int max) {
+            this.index = index;
+            this.damage = damage;
+            this.current = current;
+            this.max = max;
+        }
+
+    }
+
+    public static final class ProjectileState {
+
+        public final int type, npcIndex, playerIndex;
+
+        ProjectileState(int type, int npcIndex, int playerIndex) {
+            this.type = type;
+            this.npcIndex = npcIndex;
+            this.playerIndex = playerIndex;
+        }
+
+    }
+
+    public static final class AppearanceState {
+
+        public final int index, hairColour, topColour, bottomColour, skinColour, combatLevel;
+        public final String username;
+        public final boolean skulled;
+        private final int[] wornItems;
+
+        AppearanceState(Player p) {
+            Appearance appearance = p.getAppearance();
+            index = p.getIndex();
+            username = p.getUsername();
+            wornItems = p.getWornItems().clone();
+            hairColour = appearance.getHairColor();
+            topColour = appearance.getShirtColor();
+            bottomColour = appearance.getPantsColor();
+            skinColour = appearance.getSkinColor();
+            combatLevel = p.getCombatLevel();
+            skulled = p.isSkulled();
+        }
+
+        public int getWornItemCount() {
+            return wornItems.length;
+        }
+
+        public int getWornItem(int slot) {
+            return wornItems[slot];
+        }
+
+    }
+
+    public static final class NpcState {
+
+        public final int index, id, x, y, sprite;
+        public final boolean moved, spriteChanged;
+
+        NpcState(NPC n) {
+            index = n.getIndex();
+            id = n.getID();
+            x = n.getX();
+            y = n.getY();
+            sprite = n.getSprite();
+            moved = n.hasMoved();
+            spriteChanged = n.spriteChanged();
+        }
+
+    }
+
+    public static final class NpcMessage {
+
+        public final int index;
+        public final String message;
+
+        NpcMessage(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+    }
+
+    public static final class ObjectState {
+
+        public final int id, x, y, direction, type;
+
+        ObjectState(GameObject o) {
+            id = o.getID();
+            x = o.getX();
+            y = o.getY();
+            direction = o.getDirection();
+            type = o.getType();
+        }
+
+    }
+
+    public static final class ItemState {
+
+        public final int id, x, y, z;
+
+        ItemState(int id, int x, int y, int z) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+    }
+
+}
@@ -28,14 +28,36 @@ public abstract class DelayedEvent {
     
     public void setDelay(int delay) {
         this.delay = delay;
+        reschedule();
     }
     
     public void setLastRun(long time) {
         lastRun = time;
+        reschedule();
+    }
+
+    /**
+     * Lets the handler move this event to its new slot when it becomes due earlier than planned
+     */
+    private void reschedule() {
+        if(handler != null) {
+            handler.reschedule(this);
+        }
     }
 
     public final boolean shouldRun() {
-        return running && System.currentTimeMillis() - lastRun >= delay;
+        return shouldRun(System.currentTimeMillis());
+    }
+
+    public final boolean shouldRun(long now) {
+        return running && now - lastRun >= delay;
+    }
+
+    /**
+     * The time (in ms) at which this event is next due to run
+     */
+    public final long getNextRunTime() {
+        return lastRun + delay;
     }
     
     public int timeTillNextRun() {
@@ -48,6 +70,10 @@ public abstract class DelayedEvent {
     public final void updateLastRun() {
         lastRun = System.currentTimeMillis();
     }
+
+    public final void updateLastRun(long now) {
+        lastRun = now;
+    }
     
     public void interrupt() {
         if(owner != null) {
@@ -1,5 +1,7 @@
 package org.nemotech.rsc.event.impl;
 
+import java.util.Objects;
+
 import org.nemotech.rsc.event.DelayedEvent;
 import org.nemotech.rsc.plugins.PluginManager;
 import org.nemotech.rsc.Constants;
@@ -41,6 +43,11 @@ public final class FightEvent extends DelayedEvent {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(owner, affectedMob);
+    }
+
     public Mob getAffectedMob() {
         return affectedMob;
     }
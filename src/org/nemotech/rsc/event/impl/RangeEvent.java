@@ -1,6 +1,7 @@
 package org.nemotech.rsc.event.impl;
 
 import java.util.ArrayList;
+import java.util.Objects;
 
 import org.nemotech.rsc.event.DelayedEvent;
 import org.nemotech.rsc.event.WalkMobToMobEvent;
@@ -50,6 +51,11 @@ public class RangeEvent extends DelayedEvent {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(owner);
+    }
+
     public Mob getTarget() {
         return affectedMob;
     }
@@ -21,6 +21,11 @@ public class RemoveObjectEvent extends DelayedEvent {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return object.getLocation().hashCode() * 31 + object.getID();
+    }
+
     public GameObject getObject() {
         return object;
     }
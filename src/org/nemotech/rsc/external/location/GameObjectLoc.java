@@ -26,6 +26,8 @@ public class GameObjectLoc {
      */
     public String owner;
 
+    public GameObjectLoc() { }
+
     public GameObjectLoc(int id, int x, int y, int direction, int type) {
         this.id = id;
         this.x = x;
@@ -22,6 +22,9 @@ import java.util.Map;
  * 
  * Loads data files in the (GZIP) compressed JSON format into memory.
  * 
+ * Each file is also compiled to a binary copy in data/compiled the first time it is
+ * parsed, which later launches read instead until the JSON changes.
+ * 
  */
 public class DataLoader {
     
@@ -29,18 +32,29 @@ public class DataLoader {
     
     private Map<String, File> files;
     
+    private DefinitionCache compiled;
+    
     public DataLoader() {
-        gson = new GsonBuilder().setPrettyPrinting().generateNonExecutableJson().create();
         files = new HashMap<>();
+        compiled = new DefinitionCache(new File(Constants.CACHE_DIRECTORY + "data" + File.separator + "compiled"));
         populate();
     }
 
     private <T> T load(String ident, Type type) throws Exception {
         File dataFile = files.get(ident);
-        BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(dataFile)); 
-        InputStreamReader inputStreamReader = new InputStreamReader(inputStream);
-        //System.out.print("loaded: " + ident);
-        return (T) gson.fromJson(new JsonReader(inputStreamReader), type);
+        T data = compiled.read(ident, dataFile, type);
+        if (data != null) {
+            return data;
+        }
+        if (gson == null) {
+            gson = new GsonBuilder().setPrettyPrinting().generateNonExecutableJson().create();
+        }
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(new FileInputStream(dataFile))))) {
+            //System.out.print("loaded: " + ident);
+            data = gson.fromJson(reader, type);
+        }
+        compiled.write(ident, dataFile, type, data);
+        return data;
     }
     
     private void addToFileMap(String ident) {
@@ -221,6 +235,7 @@ public class DataLoader {
 
     public void dispose() {
         gson = null;
+        compiled = null;
     }
 
 }
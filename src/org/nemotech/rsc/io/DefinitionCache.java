@@ -0,0 +1,345 @@
+package org.nemotech.rsc.io;
+
+import com.google.gson.InstanceCreator;
+import com.google.gson.internal.ConstructorConstructor;
+import com.google.gson.internal.ObjectConstructor;
+import com.google.gson.internal.Primitives;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Compiled copies of the JSON data files, read from a mapped buffer at startup instead of
+ * parsing the JSON through Gson.
+ *
+ * A compiled file is a header (magic, format version, a fingerprint of the definition classes,
+ * the JSON file's length and modified time, the payload length and CRC32) then the payload:
+ * the fields Gson would bind, in declaration order. A file whose header or checksum doesn't
+ * match is ignored, and DataLoader writes it again once it has parsed the JSON.
+ */
+final class DefinitionCache {
+
+    private static final int MAGIC = 0x52534344; // RSCD
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 36;
+
+    private final File directory;
+    private final ConstructorConstructor constructors = new ConstructorConstructor(Collections.<Type, InstanceCreator<?>>emptyMap());
+    private final Map<Type, ObjectConstructor<?>> instanceConstructors = new HashMap<>();
+    private final Map<Class<?>, Field[]> boundFields = new HashMap<>();
+
+    DefinitionCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads the compiled copy of a data file, or returns null if there isn't an up to date one
+     */
+    @SuppressWarnings("unchecked")
+    <T> T read(String ident, File source, Type type) {
+        File file = new File(directory, ident + ".bin");
+        if (!file.exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the header is read rather than mapped, as a stale file left mapped can't be replaced on Windows
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) < HEADER_SIZE) {
+                return null;
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getInt() != fingerprint(type)
+                    || header.getLong() != source.length() || header.getLong() != source.lastModified()) {
+                return null;
+            }
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length != channel.size() - HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, length);
+            CRC32 crc = new CRC32();
+            crc.update(in.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return null;
+            }
+            return (T) readValue(in, type);
+        } catch (IOException | ReflectiveOperationException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the compiled copy of a data file that has just been parsed
+     */
+    void write(String ident, File source, Type type, Object data) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeValue(out, type, data);
+            out.flush();
+            byte[] payload = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(fingerprint(type));
+            header.putLong(source.length()).putLong(source.lastModified());
+            header.putInt(payload.length).putInt((int) crc.getValue());
+            directory.mkdirs();
+            File temp = new File(directory, ident + ".tmp");
+            try (FileOutputStream file = new FileOutputStream(temp)) {
+                file.write(header.array());
+                file.write(payload);
+            }
+            Files.move(temp.toPath(), new File(directory, ident + ".bin").toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | ReflectiveOperationException e) {
+            System.out.println("Could not write compiled " + ident + ": " + e.getMessage());
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Type type, Object value) throws IOException, ReflectiveOperationException {
+        Class<?> raw = rawType(type);
+        if (raw.isPrimitive()) {
+            writePrimitive(out, raw, value);
+            return;
+        }
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        if (raw == String.class) {
+            byte[] chars = ((String) value).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(chars.length);
+            out.write(chars);
+        } else if (Primitives.isWrapperType(raw)) {
+            writePrimitive(out, Primitives.unwrap(raw), value);
+        } else if (raw.isArray()) {
+            Type component = componentType(type);
+            int length = Array.getLength(value);
+            out.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                writeValue(out, component, Array.get(value, i));
+            }
+        } else if (Map.class.isAssignableFrom(raw)) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, arguments[0], entry.getKey());
+                writeValue(out, arguments[1], entry.getValue());
+            }
+        } else if (!raw.getName().startsWith("java.")) {
+            for (Field field : fields(raw)) {
+                writeValue(out, field.getGenericType(), field.get(value));
+            }
+        } else {
+            throw new IOException("Can't compile a " + type.getTypeName());
+        }
+    }
+
+    private void writePrimitive(DataOutputStream out, Class<?> type, Object value) throws IOException {
+        if (type == int.class) {
+            out.writeInt((Integer) value);
+        } else if (type == boolean.class) {
+            out.writeBoolean((Boolean) value);
+        } else if (type == double.class) {
+            out.writeDouble((Double) value);
+        } else if (type == long.class) {
+            out.writeLong((Long) value);
+        } else if (type == float.class) {
+            out.writeFloat((Float) value);
+        } else if (type == short.class) {
+            out.writeShort((Short) value);
+        } else if (type == byte.class) {
+            out.writeByte((Byte) value);
+        } else {
+            out.writeChar((Character) value);
+        }
+    }
+
+    private Object readValue(ByteBuffer in, Type type) throws ReflectiveOperationException {
+        Class<?> raw = rawType(type);
+        if (raw.isPrimitive()) {
+            return readPrimitive(in, raw);
+        }
+        if (in.get() == 0) {
+            return null;
+        }
+        if (raw == String.class) {
+            byte[] chars = new byte[in.getInt()];
+            in.get(chars);
+            return new String(chars, StandardCharsets.UTF_8);
+        } else if (Primitives.isWrapperType(raw)) {
+            return readPrimitive(in, Primitives.unwrap(raw));
+        } else if (raw.isArray()) {
+            Type component = componentType(type);
+            int length = in.getInt();
+            Object array = Array.newInstance(rawType(component), length);
+            if (array instanceof int[]) {
+                in.asIntBuffer().get((int[]) array);
+                in.position(in.position() + length * 4);
+            } else if (array instanceof Object[]) {
+                Object[] elements = (Object[]) array;
+                for (int i = 0; i < length; i++) {
+                    elements[i] = readValue(in, component);
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    Array.set(array, i, readValue(in, component));
+                }
+            }
+            return array;
+        } else if (Map.class.isAssignableFrom(raw)) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            @SuppressWarnings("unchecked")
+            Map<Object, Object> map = (Map<Object, Object>) construct(type);
+            int size = in.getInt();
+            for (int i = 0; i < size; i++) {
+                Object key = readValue(in, arguments[0]);
+                map.put(key, readValue(in, arguments[1]));
+            }
+            return map;
+        }
+        Object value = construct(raw);
+        for (Field field : fields(raw)) {
+            Class<?> fieldType = field.getType();
+            if (fieldType == int.class) {
+                field.setInt(value, in.getInt());
+            } else if (fieldType == boolean.class) {
+                field.setBoolean(value, in.get() != 0);
+            } else {
+                field.set(value, readValue(in, field.getGenericType()));
+            }
+        }
+        return value;
+    }
+
+    private Object readPrimitive(ByteBuffer in, Class<?> type) {
+        if (type == int.class) {
+            return in.getInt();
+        } else if (type == boolean.class) {
+            return in.get() != 0;
+        } else if (type == double.class) {
+            return in.getDouble();
+        } else if (type == long.class) {
+            return in.getLong();
+        } else if (type == float.class) {
+            return in.getFloat();
+        } else if (type == short.class) {
+            return in.getShort();
+        } else if (type == byte.class) {
+            return in.get();
+        }
+        return in.getChar();
+    }
+
+    /**
+     * Creates an object the way Gson does, so both paths hand out the same kinds of maps and objects
+     */
+    private Object construct(Type type) {
+        ObjectConstructor<?> constructor = instanceConstructors.get(type);
+        if (constructor == null) {
+            constructor = constructors.get(TypeToken.get(type));
+            instanceConstructors.put(type, constructor);
+        }
+        return constructor.construct();
+    }
+
+    /**
+     * The fields Gson binds: every field of the class and its superclasses but the static,
+     * transient and synthetic ones
+     */
+    private Field[] fields(Class<?> type) {
+        Field[] fields = boundFields.get(type);
+        if (fields == null) {
+            List<Field> bound = new ArrayList<>();
+            for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if ((field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) != 0 || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    bound.add(field);
+                }
+            }
+            fields = bound.toArray(new Field[bound.size()]);
+            boundFields.put(type, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * A checksum of the classes a type is made of, so compiled files go stale when they change
+     */
+    private int fingerprint(Type type) {
+        StringBuilder description = new StringBuilder();
+        describe(type, description, new HashSet<>());
+        CRC32 crc = new CRC32();
+        crc.update(description.toString().getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    private void describe(Type type, StringBuilder description, Set<Class<?>> seen) {
+        description.append(type.getTypeName()).append(';');
+        Class<?> raw = rawType(type);
+        if (type instanceof ParameterizedType) {
+            for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+                describe(argument, description, seen);
+            }
+        } else if (raw.isArray()) {
+            describe(componentType(type), description, seen);
+        } else if (!raw.isPrimitive() && !raw.getName().startsWith("java.") && seen.add(raw)) {
+            description.append('{');
+            for (Field field : fields(raw)) {
+                description.append(field.getName()).append(':');
+                describe(field.getGenericType(), description, seen);
+            }
+            description.append('}');
+        }
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        throw new IllegalArgumentException("Can't compile a " + type.getTypeName());
+    }
+
+    private static Type componentType(Type type) {
+        if (type instanceof GenericArrayType) {
+            return ((GenericArrayType) type).getGenericComponentType();
+        }
+        return ((Class<?>) type).getComponentType();
+    }
+
+}
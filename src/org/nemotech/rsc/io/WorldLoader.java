@@ -4,39 +4,27 @@ import org.nemotech.rsc.model.GameObject;
 import org.nemotech.rsc.model.Item;
 import org.nemotech.rsc.model.NPC;
 import org.nemotech.rsc.model.landscape.Sector;
+import org.nemotech.rsc.model.landscape.SectorCache;
+import org.nemotech.rsc.model.landscape.TileMap;
 import org.nemotech.rsc.model.World;
 import org.nemotech.rsc.external.location.GameObjectLoc;
 import org.nemotech.rsc.external.location.NPCLoc;
 import org.nemotech.rsc.external.location.ItemLoc;
 import org.nemotech.rsc.external.EntityManager;
-import org.nemotech.rsc.Constants;
-import org.nemotech.rsc.util.Util;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.File;
 import java.nio.ByteBuffer;
-import java.util.zip.ZipFile;
-import java.util.zip.ZipEntry;
+import java.util.concurrent.CompletableFuture;
 
 public class WorldLoader {
     
-    private ZipFile tileArchive;
+    /**
+     * The sections across (and down) each plane of the world
+     */
+    private static final int SECTIONS = 20;
 
-    private void loadSection(int sectionX, int sectionY, int height, World world, int bigX, int bigY) {
-        Sector s = null;
-        try {
-            String filename = "h" + height + "x" + sectionX + "y" + sectionY;
-            ZipEntry e = tileArchive.getEntry(filename);
-            if (e == null) {
-                //throw new Exception("Missing tile: " + filename);
-                return;
-            }
-            ByteBuffer data = Util.streamToBuffer(new BufferedInputStream(tileArchive.getInputStream(e)));
-            s = Sector.unpack(data);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    private void loadSection(ByteBuffer s, World world, int bigX, int bigY) {
+        TileMap tiles = world.getTileMap();
         for (int y = 0; y < Sector.HEIGHT; y++) {
             for (int x = 0; x < Sector.WIDTH; x++) {
                 int bx = bigX + x;
@@ -44,60 +32,77 @@ public class WorldLoader {
                 if (!world.withinWorld(bx, by) || s == null) {
                     continue;
                 }
-                world.getTileValue(bx, by).overlay = s.getTile(x, y).groundOverlay;
-                world.getTileValue(bx, by).diagWallVal = s.getTile(x, y).diagonalWalls;
-                world.getTileValue(bx, by).horizontalWallVal = s.getTile(x, y).horizontalWall;
-                world.getTileValue(bx, by).verticalWallVal = s.getTile(x, y).verticalWall;
-                world.getTileValue(bx, by).elevation = s.getTile(x, y).groundElevation;
+                int tile = (x * Sector.WIDTH + y) * SectorCache.TILE_SIZE;
+                byte overlay = s.get(tile + 2);
+                byte horizontal = s.get(tile + 4);
+                byte vertical = s.get(tile + 5);
+                int diagonalWalls = s.getInt(tile + 6);
+                tiles.setTerrain(bx, by, overlay, horizontal, vertical, diagonalWalls, s.get(tile));
                 
-                if ((s.getTile(x, y).groundOverlay & 0xff) == 250) {
-                    s.getTile(x, y).groundOverlay = (byte) 2;
+                int groundOverlay = overlay & 0xFF;
+                if (groundOverlay == 250) {
+                    groundOverlay = 2;
                 }
-                
-                int groundOverlay = s.getTile(x, y).groundOverlay & 0xFF;
                 if (groundOverlay > 0 && EntityManager.getTile(groundOverlay - 1).getObjectType() != 0) {
-                    world.getTileValue(bx, by).mapValue |= 0x40; // 64
+                    tiles.orMapValue(bx, by, 0x40); // 64
                 }
 
-                int verticalWall = s.getTile(x, y).verticalWall & 0xFF;
+                int verticalWall = vertical & 0xFF;
                 if (verticalWall > 0 && EntityManager.getDoor(verticalWall - 1).getVisibility() == 0 && EntityManager.getDoor(verticalWall - 1).getType() != 0) {
-                    world.getTileValue(bx, by).mapValue |= 1; // 1
-                    world.getTileValue(bx, by - 1).mapValue |= 4; // 4
+                    tiles.orMapValue(bx, by, 1); // 1
+                    tiles.orMapValue(bx, by - 1, 4); // 4
                 }
 
-                int horizontalWall = s.getTile(x, y).horizontalWall & 0xFF;
+                int horizontalWall = horizontal & 0xFF;
                 if (horizontalWall > 0 && EntityManager.getDoor(horizontalWall - 1).getVisibility() == 0 && EntityManager.getDoor(horizontalWall - 1).getType() != 0) {
-                    world.getTileValue(bx, by).mapValue |= 2; // 2
-                    world.getTileValue(bx - 1, by).mapValue |= 8; // 8
+                    tiles.orMapValue(bx, by, 2); // 2
+                    tiles.orMapValue(bx - 1, by, 8); // 8
                 }
 
-                int diagonalWalls = s.getTile(x, y).diagonalWalls;
                 if (diagonalWalls > 0 && diagonalWalls < 12000 && EntityManager.getDoor(diagonalWalls - 1).getVisibility() == 0 && EntityManager.getDoor(diagonalWalls - 1).getType() != 0) {
-                    world.getTileValue(bx, by).mapValue |= 0x20; // 32
+                    tiles.orMapValue(bx, by, 0x20); // 32
                 }
                 if (diagonalWalls > 12000 && diagonalWalls < 24000 && EntityManager.getDoor(diagonalWalls - 12001).getVisibility() == 0 && EntityManager.getDoor(diagonalWalls - 12001).getType() != 0) {
-                    world.getTileValue(bx, by).mapValue |= 0x10; // 16
+                    tiles.orMapValue(bx, by, 0x10); // 16
                 }
             }
         }
     }
     
-    public void loadWorld(World world) {
-        try {
-            tileArchive = new ZipFile(new File(Constants.CACHE_DIRECTORY + "terrain-members.zip"));
-        } catch(IOException e) {
-            e.printStackTrace();
+    /**
+     * Reads the tile records of every section in a plane, in the order loadWorld lays them out
+     */
+    private ByteBuffer[] readPlane(int plane) {
+        ByteBuffer[] sections = new ByteBuffer[SECTIONS * SECTIONS];
+        int wildX = 2304;
+        int wildY = 1776 - (plane * 944);
+        for(int i = 0; i < sections.length; i++) {
+            int x = (i / SECTIONS * 48 + wildX) / 48;
+            int y = (i % SECTIONS * 48 + (plane * 944) + wildY) / 48;
+            try {
+                sections[i] = SectorCache.getTiles(x, y, plane);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
+        return sections;
+    }
     
+    public void loadWorld(World world) {
+        /*
+         * The planes are inflated in parallel but laid onto the tile map one after another,
+         * the last rows of a plane overlap the first of the next
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        CompletableFuture<ByteBuffer[]>[] planes = new CompletableFuture[4];
         for(int plane = 0; plane < 4; plane++) {
-            int wildX = 2304;
-            int wildY = 1776 - (plane * 944);
-            for(int sectionX = 0; sectionX < 944; sectionX += 48) {
-                for(int sectionY = 0; sectionY < 944; sectionY += 48) {
-                    int x = (sectionX + wildX) / 48;
-                    int y = (sectionY + (plane * 944) + wildY) / 48;
-                    loadSection(x, y, plane, world, sectionX, sectionY + (944 * plane));
-                }
+            int p = plane;
+            planes[plane] = CompletableFuture.supplyAsync(() -> readPlane(p));
+        }
+        for(int plane = 0; plane < 4; plane++) {
+            ByteBuffer[] sections = planes[plane].join();
+            for(int i = 0; i < sections.length; i++) {
+                loadSection(sections[i], world, i / SECTIONS * 48, i % SECTIONS * 48 + (944 * plane));
             }
         }
         for(GameObjectLoc loc : EntityManager.getObjectLocs()) {
@@ -115,4 +120,4 @@ public class WorldLoader {
         System.gc();
     }
     
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -62,7 +62,7 @@ public class Entity {
     }
 
     private boolean isMapBlocking(Entity e, int x, int y, byte bit) {
-        byte val = world.getTileValue(x, y).mapValue;
+        byte val = world.getTileMap().getMapValue(x, y);
         //System.out.println("[MAP] " + EntityManager.getGameObjectDef(e.getID()).getName() + " | " + val + " | (" + x + "," + y + ")");
         if ((val & bit) != 0) { // There is a wall in the way
             return true;
@@ -80,7 +80,7 @@ public class Entity {
     }
 
     private boolean isObjectBlocking(Entity e, int x, int y, byte bit) {
-        byte val = world.getTileValue(x, y).objectValue;
+        byte val = world.getTileMap().getObjectValue(x, y);
         if((val & bit) != 0) {
             return true;
         }
@@ -39,19 +39,19 @@ public abstract class Mob extends Entity {
             return true;
         }
         if (minX <= getX() - 1 && maxX >= getX() - 1 && minY <= getY() && maxY >= getY()
-                && (World.getWorld().getTileValue(getX() - 1, getY()).objectValue & CollisionFlags.WALL_WEST) == 0) {
+                && (World.getWorld().getTileMap().getObjectValue(getX() - 1, getY()) & CollisionFlags.WALL_WEST) == 0) {
             return true;
         }
         if (1 + getX() >= minX && getX() + 1 <= maxX && getY() >= minY && maxY >= getY()
-                && (CollisionFlags.WALL_EAST & World.getWorld().getTileValue(getX() + 1, getY()).objectValue) == 0) {
+                && (CollisionFlags.WALL_EAST & World.getWorld().getTileMap().getObjectValue(getX() + 1, getY())) == 0) {
             return true;
         }
         if (minX <= getX() && maxX >= getX() && getY() - 1 >= minY && maxY >= getY() - 1
-                && (CollisionFlags.WALL_SOUTH & World.getWorld().getTileValue(getX(), getY() - 1).objectValue) == 0) {
+                && (CollisionFlags.WALL_SOUTH & World.getWorld().getTileMap().getObjectValue(getX(), getY() - 1)) == 0) {
             return true;
         }
         if (minX <= getX() && getX() <= maxX && minY <= getY() + 1 && maxY >= getY() + 1
-                && (CollisionFlags.WALL_NORTH & World.getWorld().getTileValue(getX(), getY() + 1).objectValue) == 0) {
+                && (CollisionFlags.WALL_NORTH & World.getWorld().getTileMap().getObjectValue(getX(), getY() + 1)) == 0) {
             return true;
         }
         return false;
@@ -17,7 +17,6 @@ import org.nemotech.rsc.client.sound.SoundEffect;
 import org.nemotech.rsc.model.player.Player;
 import org.nemotech.rsc.model.player.states.Action;
 import org.nemotech.rsc.model.player.states.CombatState;
-import org.nemotech.rsc.model.landscape.ActiveTile;
 import org.nemotech.rsc.model.landscape.Path;
 
 public class NPC extends Mob {
@@ -337,7 +336,7 @@ public class NPC extends Mob {
         boolean eventExists = false;
 
         if (timeout != null) {
-            ArrayList<DelayedEvent> events = World.getWorld().getDelayedEventHandler().getEvents();
+            Collection<DelayedEvent> events = World.getWorld().getDelayedEventHandler().getEvents();
 
             // gettin threading problems here without it synced.
             try {
@@ -385,26 +384,19 @@ public class NPC extends Mob {
         if (getChasing() != null) {
             return null;
         }
-        ActiveTile[][] tiles = getViewArea().getViewedArea(2, 2, 2, 2);
-        for (ActiveTile[] tile : tiles) {
-            for (ActiveTile t : tile) {
-                if (t != null) {
-                    for (Player p : t.getPlayers()) {
-                        if (p.inCombat()) {
-                            continue;
-                        }
-                        if (p.isBusy() || now - p.getCombatTimer() < (p.getCombatState() == CombatState.RUNNING || p.getCombatState() == CombatState.WAITING ? 3000 : 1500) || !p.nextTo(this) || !p.getLocation().inBounds(loc.getMinX() - 4, loc.getMinY() - 4, loc.getMaxX() + 4, loc.getMaxY() + 4)) {
-                            continue;
-                        }
-                        if(!(p.isBusy() || now - p.getCombatTimer() < (p.getCombatState() == CombatState.RUNNING || p.getCombatState() == CombatState.WAITING ? 3000 : 1500) || !p.nextTo(this))) {
-                            if (this.getLocation().inWilderness()) {
-                                return p;
-                            }
-                            if(p.getCombatLevel() <= ((this.getCombatLevel() * 2) + 1)) {
-                                return p;
-                            }
-                        }
-                    }
+        for (Player p : getViewArea().playersInArea(2, 2, 2, 2)) {
+            if (p.inCombat()) {
+                continue;
+            }
+            if (p.isBusy() || now - p.getCombatTimer() < (p.getCombatState() == CombatState.RUNNING || p.getCombatState() == CombatState.WAITING ? 3000 : 1500) || !p.nextTo(this) || !p.getLocation().inBounds(loc.getMinX() - 4, loc.getMinY() - 4, loc.getMaxX() + 4, loc.getMaxY() + 4)) {
+                continue;
+            }
+            if(!(p.isBusy() || now - p.getCombatTimer() < (p.getCombatState() == CombatState.RUNNING || p.getCombatState() == CombatState.WAITING ? 3000 : 1500) || !p.nextTo(this))) {
+                if (this.getLocation().inWilderness()) {
+                    return p;
+                }
+                if(p.getCombatLevel() <= ((this.getCombatLevel() * 2) + 1)) {
+                    return p;
                 }
             }
         }
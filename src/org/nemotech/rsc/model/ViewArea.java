@@ -1,125 +1,95 @@
 package org.nemotech.rsc.model;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
 
-import org.nemotech.rsc.model.landscape.ActiveTile;
+import org.nemotech.rsc.model.landscape.Region;
+import org.nemotech.rsc.model.landscape.RegionManager;
 import org.nemotech.rsc.model.player.Player;
 
 public class ViewArea {
     
-    private static World world = World.getWorld();
     private Mob mob;
 
     public ViewArea(Mob mob) {
         this.mob = mob;
     }
 
-    public ActiveTile[][] getViewedArea(int x1, int y1, int x2, int y2) {
-        int mobX = mob.getX();
-        int mobY = mob.getY();
-            int startX, startY, endX, endY;
-            startX = mobX - x1;
-            if (startX < 0) {
-                startX = 0;
-            }
-            startY = mobY - y1;
-            if (startY < 0) {
-                startY = 0;
-            }
-            endX = mobX + x2;
-            if (endX >= World.MAX_WIDTH) {
-                endX = World.MAX_WIDTH - 1;
-            }
-            endY = mobY + y2;
-            if (endY >= World.MAX_HEIGHT) {
-                endY = World.MAX_HEIGHT - 1;
-            }
-            int xWidth;
-            int yWidth;
-            if (startX > endX) {
-                xWidth = startX - endX;
-            }
-            else {
-                xWidth = endX - startX;
-            }
-            if (startY > endY) {
-                yWidth = startY - endY;
-            }
-            else {
-                yWidth = endY - startY;
-            }
-            ActiveTile[][] temp = new ActiveTile[xWidth][yWidth];
-            for (int x = 0; (x + startX) < endX; x++) {
-                for (int y = 0; (y + startY) < endY; y++) {
-                    temp[x][y] = world.tiles[x + startX][y + startY];
-                }
-            }
-            return temp;
+    /**
+     * Whether an entity falls inside the given distances of the mob, with the far
+     * edges exclusive
+     */
+    private boolean inView(Entity e, int x1, int y1, int x2, int y2) {
+        int startX = Math.max(mob.getX() - x1, 0);
+        int startY = Math.max(mob.getY() - y1, 0);
+        int endX = Math.min(mob.getX() + x2, World.MAX_WIDTH - 1);
+        int endY = Math.min(mob.getY() + y2, World.MAX_HEIGHT - 1);
+        int x = e.getX();
+        int y = e.getY();
+        return x >= startX && x < endX && y >= startY && y < endY;
+    }
+
+    private <T extends Entity> Iterable<T> inArea(Function<Region, Collection<T>> bucket, int x1, int y1, int x2, int y2) {
+        return () -> new AreaIterator<>(bucket, x1, y1, x2, y2);
+    }
+
+    /**
+     * The players in view, copied from each region in turn as the loop reaches it
+     */
+    public Iterable<Player> playersInView() {
+        return inArea(Region::getPlayers, 15, 15, 16, 16);
+    }
+
+    /**
+     * The players within the given distances of the mob
+     */
+    public Iterable<Player> playersInArea(int x1, int y1, int x2, int y2) {
+        return inArea(Region::getPlayers, x1, y1, x2, y2);
+    }
+
+    public Iterable<NPC> npcsInView() {
+        return inArea(Region::getNpcs, 15, 15, 16, 16);
+    }
+
+    public Iterable<Item> itemsInView() {
+        return inArea(Region::getGroundItems, 21, 21, 21, 21);
+    }
+
+    public Iterable<GameObject> gameObjectsInView() {
+        return inArea(Region::getGameObjects, 21, 21, 21, 21);
     }
 
     public List<Player> getPlayersInView() {
-        List<Player> players = new ArrayList<Player>();
-        ActiveTile[][] viewArea = getViewedArea(15,15,16,16);
-        for (ActiveTile[] viewArea1 : viewArea) {
-            for (ActiveTile t : viewArea1) {
-                if (t != null) {
-                    List<Player> temp = t.getPlayers();
-                    if (temp != null) {
-                        players.addAll(temp);
-                    }
-                }
-            }
-        }
-        return players;
+        return toList(playersInView());
     }
 
     public List<Item> getItemsInView() {
-        List<Item> items = new ArrayList<Item>();
-        ActiveTile[][] viewArea = getViewedArea(21,21,21,21);
-        for (ActiveTile[] viewArea1 : viewArea) {
-            for (ActiveTile t : viewArea1) {
-                if (t != null) {
-                    items.addAll(t.getItems());
-                }
-            }
-        }
-        return items;
+        return toList(itemsInView());
     }
 
     public List<GameObject> getGameObjectsInView() {
-        List<GameObject> objects = new ArrayList<GameObject>();
-        ActiveTile[][] viewArea = getViewedArea(21,21,21,21);
-        for (ActiveTile[] viewArea1 : viewArea) {
-            for (ActiveTile t : viewArea1) {
-                if (t != null) {
-                    if (t.hasGameObject()) {
-                        objects.add(t.getGameObject());
-                    }
-                }
-            }
-        }
-        return objects;
+        return toList(gameObjectsInView());
     }
 
     public List<NPC> getNpcsInView() {
-        List<NPC> npcs = new ArrayList<NPC>();
-        ActiveTile[][] viewArea = getViewedArea(15,15,16,16);
-        for (ActiveTile[] viewArea1 : viewArea) {
-            for (ActiveTile t : viewArea1) {
-                if (t != null) {
-                    List<NPC> temp = t.getNpcs();
-                    if (temp != null) {
-                        npcs.addAll(temp);
-                    }
-                }
-            }
+        return toList(npcsInView());
+    }
+
+    private static <T> List<T> toList(Iterable<T> entities) {
+        List<T> list = new ArrayList<T>();
+        for (T e : entities) {
+            list.add(e);
         }
-        return npcs;
+        return list;
     }
     
     public GameObject getGameObject(Point location) {
-        for(GameObject o : getGameObjectsInView()) {
+        for(GameObject o : gameObjectsInView()) {
             if(o.getLocation().equals(location) && o.getType() != 1) {
                 return o;
             }
@@ -128,7 +98,7 @@ public class ViewArea {
     }
     
     public GameObject getGameObject(int id, int x, int y) {
-        for(GameObject o : getGameObjectsInView()) {
+        for(GameObject o : gameObjectsInView()) {
             if(o.getID() == id && o.getX() == x && o.getY() == y) {
                 return o;
             }
@@ -143,7 +113,7 @@ public class ViewArea {
      * FACT: RSC uses direction for wall objects, so that it doesn't collapse.
      */
     public GameObject getWallObjectWithDir(Point location, int dir) {
-        for(GameObject o : getGameObjectsInView()) {
+        for(GameObject o : gameObjectsInView()) {
             if(o.getDirection() == dir && o.getLocation().equals(location) && (o.getType() != 0)) {
                 return o;
             }
@@ -152,7 +122,7 @@ public class ViewArea {
     }
     
     public Item getGroundItem(Point location) {
-        for(Item o : getItemsInView()) {
+        for(Item o : itemsInView()) {
             if(o.getLocation().equals(location)) {
                 return o;
             }
@@ -161,7 +131,7 @@ public class ViewArea {
     }
     
     public Item getGroundItem(int id, Point location) {
-        for(Item o : getItemsInView()) {
+        for(Item o : itemsInView()) {
             if(o.getID() == id && o.getLocation().equals(location)) {
                 return o;
             }
@@ -169,4 +139,68 @@ public class ViewArea {
         return null;
     }
 
+    /**
+     * Walks the regions around the mob one at a time, handing back the entities that
+     * are within the area
+     */
+    private class AreaIterator<T extends Entity> implements Iterator<T> {
+
+        private final Function<Region, Collection<T>> bucket;
+        private final int x1, y1, x2, y2;
+        private final int fromRegionX, toRegionX, fromRegionY, toRegionY;
+        private int regionX, regionY;
+        private Iterator<T> current = Collections.emptyIterator();
+        private T next;
+
+        private AreaIterator(Function<Region, Collection<T>> bucket, int x1, int y1, int x2, int y2) {
+            this.bucket = bucket;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.x2 = x2;
+            this.y2 = y2;
+            fromRegionX = Math.max(mob.getX() - x1, 0) / RegionManager.REGION_SIZE;
+            fromRegionY = Math.max(mob.getY() - y1, 0) / RegionManager.REGION_SIZE;
+            toRegionX = Math.min(mob.getX() + x2, World.MAX_WIDTH - 1) / RegionManager.REGION_SIZE;
+            toRegionY = Math.min(mob.getY() + y2, World.MAX_HEIGHT - 1) / RegionManager.REGION_SIZE;
+            regionX = fromRegionX;
+            regionY = fromRegionY;
+            next = advance();
+        }
+
+        private T advance() {
+            while (true) {
+                while (current.hasNext()) {
+                    T e = current.next();
+                    if (inView(e, x1, y1, x2, y2)) {
+                        return e;
+                    }
+                }
+                if (regionX > toRegionX) {
+                    return null;
+                }
+                current = bucket.apply(RegionManager.getRegion(regionX * RegionManager.REGION_SIZE, regionY * RegionManager.REGION_SIZE)).iterator();
+                if (++regionY > toRegionY) {
+                    regionY = fromRegionY;
+                    regionX++;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            T e = next;
+            next = advance();
+            return e;
+        }
+
+    }
+
 }
\ No newline at end of file
@@ -4,9 +4,13 @@ import java.util.*;
 
 import org.nemotech.rsc.Constants;
 import org.nemotech.rsc.client.mudclient;
+import org.nemotech.rsc.core.ClientUpdater;
 import org.nemotech.rsc.core.DelayedEventHandler;
+import org.nemotech.rsc.model.landscape.TileMap;
 import org.nemotech.rsc.model.landscape.TileValue;
 import org.nemotech.rsc.model.landscape.ActiveTile;
+import org.nemotech.rsc.model.landscape.ActiveTileIndex;
+import org.nemotech.rsc.model.landscape.RegionManager;
 
 import org.nemotech.rsc.external.location.GameObjectLoc;
 import org.nemotech.rsc.external.location.NPCLoc;
@@ -16,13 +20,18 @@ import org.nemotech.rsc.io.WorldLoader;
 import org.nemotech.rsc.model.player.Player;
 import org.nemotech.rsc.model.player.states.CombatState;
 import org.nemotech.rsc.plugins.QuestInterface;
+import org.nemotech.rsc.plugins.PluginManager;
 import org.nemotech.rsc.util.EntityList;
 
 public class World {
     
     private Player player;
     
-    public Player getPlayer() {
+    /**
+     * Gets the player, creating one if there is none. Synchronized as startup stages and the
+     * engine can ask for it from different threads.
+     */
+    public synchronized Player getPlayer() {
         if(player == null) {
             player = new Player();
         }
@@ -63,15 +72,20 @@ public class World {
 
     private DelayedEventHandler delayedEventHandler;
 
+    private ClientUpdater clientUpdater;
+
     private final EntityList<NPC> npcs = new EntityList<>(4000); 
 
     private final EntityList<Player> players = new EntityList<>(3000);
 
     private final List<Shop> shops = new ArrayList<>();
     
-    public ActiveTile[][] tiles = new ActiveTile[MAX_WIDTH][MAX_HEIGHT];
+    /**
+     * Tiles that currently have an entity on them
+     */
+    private final ActiveTileIndex activeTiles = new ActiveTileIndex();
 
-    private final TileValue[][] tileType = new TileValue[MAX_WIDTH][MAX_HEIGHT];
+    private final TileMap tileMap = new TileMap(MAX_WIDTH, MAX_HEIGHT);
 
     public synchronized int countNpcs() {
         return npcs.size();
@@ -119,8 +133,8 @@ public class World {
     public void delayedRemoveObject(final GameObject object, final int delay) {
         delayedEventHandler.add(new SingleEvent(null, delay) {
             public void action() {
-                ActiveTile tile = getTile(object.getLocation());
-                if (tile.hasGameObject() && tile.getGameObject().equals(object)) {
+                ActiveTile tile = getTileIfPresent(object.getLocation());
+                if (tile != null && tile.hasGameObject() && tile.getGameObject().equals(object)) {
                     unregisterGameObject(object);
                 }
             }
@@ -154,6 +168,17 @@ public class World {
         return delayedEventHandler;
     }
 
+    /**
+     * Gets the ClientUpdater instance
+     */
+    public ClientUpdater getClientUpdater() {
+        return clientUpdater;
+    }
+
+    public void setClientUpdater(ClientUpdater clientUpdater) {
+        this.clientUpdater = clientUpdater;
+    }
+
     public NPC getNpcById(int id) {
         for (NPC npc : npcs) {
             if (npc.getID() == id) {
@@ -233,28 +258,46 @@ public class World {
         if (!withinWorld(x, y)) {
             return null;
         }
-        ActiveTile t = tiles[x][y];
-        if (t == null) {
-            t = new ActiveTile(x, y);
-            tiles[x][y] = t;
-        }
-        return t;
+        return activeTiles.getOrCreate(x, y);
     }
     
     public ActiveTile getTile(Point p) {
         return getTile(p.getX(), p.getY());
     }
 
-    public TileValue getTileValue(int x, int y) {
+    /**
+     * Gets the tile at the given coords only if something is on it, without creating one
+     */
+    public ActiveTile getTileIfPresent(int x, int y) {
         if (!withinWorld(x, y)) {
-            return new TileValue();
-        }
-        TileValue t = tileType[x][y];
-        if (t == null) {
-            t = new TileValue();
-            tileType[x][y] = t;
+            return null;
         }
-        return t;
+        return activeTiles.get(x, y);
+    }
+
+    public ActiveTile getTileIfPresent(Point p) {
+        return getTileIfPresent(p.getX(), p.getY());
+    }
+
+    /**
+     * Called by a tile once the last entity has left it
+     */
+    public void removeTile(ActiveTile tile) {
+        activeTiles.remove(tile);
+    }
+
+    /**
+     * Gets a copy of the terrain and collision values for a tile
+     */
+    public TileValue getTileValue(int x, int y) {
+        return tileMap.getTileValue(x, y);
+    }
+
+    /**
+     * Gets the terrain and collision data for the whole world
+     */
+    public TileMap getTileMap() {
+        return tileMap;
     }
     
     public boolean hasNpc(NPC n) {
@@ -280,15 +323,15 @@ public class World {
         int dir = o.getDirection();
         int x = o.getX(), y = o.getY();
         if (dir == 0) {
-            getTileValue(x, y).objectValue |= 1;
-            getTileValue(x, y - 1).objectValue |= 4;
+            tileMap.orObjectValue(x, y, 1);
+            tileMap.orObjectValue(x, y - 1, 4);
         } else if (dir == 1) {
-            getTileValue(x, y).objectValue |= 2;
-            getTileValue(x - 1, y).objectValue |= 8;
+            tileMap.orObjectValue(x, y, 2);
+            tileMap.orObjectValue(x - 1, y, 8);
         } else if (dir == 2) {
-            getTileValue(x, y).objectValue |= 0x10;
+            tileMap.orObjectValue(x, y, 0x10);
         } else if (dir == 3) {
-            getTileValue(x, y).objectValue |= 0x20;
+            tileMap.orObjectValue(x, y, 0x20);
         }
     }
     
@@ -305,6 +348,7 @@ public class World {
                 registerDoor(o);
                 break;
         }
+        RegionManager.setLocation(o, null, o.getLocation());
     }
 
     public void registerGameObject(GameObject o) {
@@ -312,12 +356,13 @@ public class World {
     }
 
     public void registerItem(final Item i) {
+        RegionManager.setLocation(i, null, i.getLocation());
         try {
             if (i.getLoc() == null) {
                 delayedEventHandler.add(new DelayedEvent(null, 180000) {
                     public void run() {
-                        ActiveTile tile = getTile(i.getLocation());
-                        if (tile.hasItem(i)) {
+                        ActiveTile tile = getTileIfPresent(i.getLocation());
+                        if (tile != null && tile.hasItem(i)) {
                             unregisterItem(i);
                         }
                         running = false;
@@ -335,13 +380,14 @@ public class World {
         if (npc.startX < npc.minX || npc.startX > npc.maxX || npc.startY < npc.minY || npc.startY > npc.maxY) {
             System.out.println("[NPC Registrar] Impossible coordinate range: [ID:" + npc.id + " X:" + npc.startX + " Y:" + npc.startY + "]");
         }
-        if((getTileValue(npc.startX, npc.startY).mapValue & 64) != 0) {
+        if((tileMap.getMapValue(npc.startX, npc.startY) & 64) != 0) {
             System.out.println("[NPC Registrar] Starting coordinates are unwalkable: [ID:" + npc.id + " X:" + npc.startX + " Y:" + npc.startY + "]");
         }
-        if((getTileValue(npc.startX, npc.startY).mapValue & 64) != 0) {
+        if((tileMap.getMapValue(npc.startX, npc.startY) & 64) != 0) {
             System.out.println("[NPC Registrar] Starting coordinates are on an object: [ID:" + npc.id + " X:" + npc.startX + " Y:" + npc.startY + "]");
         }
         npcs.add(n);
+        RegionManager.setLocation(n, null, n.getLocation());
     }
 
     private void registerObject(GameObject o) {
@@ -360,19 +406,19 @@ public class World {
         for (int x = o.getX(); x < o.getX() + width; x++) {
             for (int y = o.getY(); y < o.getY() + height; y++) {
                 if (o.getGameObjectDef().getType() == 1) {
-                    getTileValue(x, y).objectValue |= 0x40;
+                    tileMap.orObjectValue(x, y, 0x40);
                 } else if (dir == 0) {
-                    getTileValue(x, y).objectValue |= 2;
-                    getTileValue(x - 1, y).objectValue |= 8;
+                    tileMap.orObjectValue(x, y, 2);
+                    tileMap.orObjectValue(x - 1, y, 8);
                 } else if (dir == 2) {
-                    getTileValue(x, y).objectValue |= 4;
-                    getTileValue(x, y + 1).objectValue |= 1;
+                    tileMap.orObjectValue(x, y, 4);
+                    tileMap.orObjectValue(x, y + 1, 1);
                 } else if (dir == 4) {
-                    getTileValue(x, y).objectValue |= 8;
-                    getTileValue(x + 1, y).objectValue |= 2;
+                    tileMap.orObjectValue(x, y, 8);
+                    tileMap.orObjectValue(x + 1, y, 2);
                 } else if (dir == 6) {
-                    getTileValue(x, y).objectValue |= 1;
-                    getTileValue(x, y - 1).objectValue |= 4;
+                    tileMap.orObjectValue(x, y, 1);
+                    tileMap.orObjectValue(x, y - 1, 4);
                 }
             }
         }
@@ -390,7 +436,7 @@ public class World {
             player.reset();
             // Avoid rewriting a save that was intentionally deleted (e.g., Hardcore death)
             if (!player.shouldSkipSaveOnUnregister()) {
-                player.save();
+                player.save(true);
             }
             Mob opponent = player.getOpponent();
             if (opponent != null) {
@@ -398,9 +444,12 @@ public class World {
                 opponent.resetCombat(CombatState.ERROR);
             }
             delayedEventHandler.removePlayersEvents(player);
+            PluginManager.getInstance().cancelScripts(player);
             players.remove(player);
             setLocation(player, player.getLocation(), null);
-            this.player = null;
+            synchronized(this) {
+                this.player = null;
+            }
             mudclient.getInstance().player = null;
             mudclient.getInstance().resetLoginVars();
         } catch(Exception e) {
@@ -423,13 +472,16 @@ public class World {
     public void setLocation(Entity entity, Point oldPoint, Point newPoint) {
         ActiveTile t;
         if (oldPoint != null) {
-            t = getTile(oldPoint);
-            t.remove(entity);
+            t = getTileIfPresent(oldPoint);
+            if (t != null) {
+                t.remove(entity);
+            }
         }
         if (newPoint != null) {
             t = getTile(newPoint);
             t.add(entity);
         }
+        RegionManager.setLocation(entity, oldPoint, newPoint);
     }
 
     /**
@@ -442,15 +494,15 @@ public class World {
         int dir = o.getDirection();
         int x = o.getX(), y = o.getY();
         if (dir == 0) {
-            getTileValue(x, y).objectValue &= 0xfffe;
-            getTileValue(x, y - 1).objectValue &= 65535 - 4;
+            tileMap.andObjectValue(x, y, 0xfffe);
+            tileMap.andObjectValue(x, y - 1, 65535 - 4);
         } else if (dir == 1) {
-            getTileValue(x, y).objectValue &= 0xfffd;
-            getTileValue(x - 1, y).objectValue &= 65535 - 8;
+            tileMap.andObjectValue(x, y, 0xfffd);
+            tileMap.andObjectValue(x - 1, y, 65535 - 8);
         } else if (dir == 2) {
-            getTileValue(x, y).objectValue &= 0xffef;
+            tileMap.andObjectValue(x, y, 0xffef);
         } else if (dir == 3) {
-            getTileValue(x, y).objectValue &= 0xffdf;
+            tileMap.andObjectValue(x, y, 0xffdf);
         }
     }
 
@@ -507,19 +559,19 @@ public class World {
         for (int x = o.getX(); x < o.getX() + width; x++) {
             for (int y = o.getY(); y < o.getY() + height; y++) {
                 if (o.getGameObjectDef().getType() == 1) {
-                    getTileValue(x, y).objectValue &= 0xffbf;
+                    tileMap.andObjectValue(x, y, 0xffbf);
                 } else if (dir == 0) {
-                    getTileValue(x, y).objectValue &= 0xfffd;
-                    getTileValue(x - 1, y).objectValue &= 65535 - 8;
+                    tileMap.andObjectValue(x, y, 0xfffd);
+                    tileMap.andObjectValue(x - 1, y, 65535 - 8);
                 } else if (dir == 2) {
-                    getTileValue(x, y).objectValue &= 0xfffb;
-                    getTileValue(x, y + 1).objectValue &= 65535 - 1;
+                    tileMap.andObjectValue(x, y, 0xfffb);
+                    tileMap.andObjectValue(x, y + 1, 65535 - 1);
                 } else if (dir == 4) {
-                    getTileValue(x, y).objectValue &= 0xfff7;
-                    getTileValue(x + 1, y).objectValue &= 65535 - 2;
+                    tileMap.andObjectValue(x, y, 0xfff7);
+                    tileMap.andObjectValue(x + 1, y, 65535 - 2);
                 } else if (dir == 6) {
-                    getTileValue(x, y).objectValue &= 0xfffe;
-                    getTileValue(x, y - 1).objectValue &= 65535 - 4;
+                    tileMap.andObjectValue(x, y, 0xfffe);
+                    tileMap.andObjectValue(x, y - 1, 65535 - 4);
                 }
             }
         }
@@ -1,6 +1,7 @@
 package org.nemotech.rsc.model.landscape;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.nemotech.rsc.model.Entity;
 import org.nemotech.rsc.model.GameObject;
@@ -15,14 +16,17 @@ public class ActiveTile {
     // World instance
     private final World world = World.getWorld();
     
+    // The lists below are only created once something is added to them, as most
+    // tiles only ever hold one kind of entity
+    
     // A list of all items currently on this tile
-    private final List<Item> items = new LinkedList<>();
+    private List<Item> items = null;
     
     // A list of all npcs currently on this tile
-    private final List<NPC> npcs = new LinkedList<>();
+    private List<NPC> npcs = null;
     
     // A list of all players currently on this tile
-    private final List<Player> players = new LinkedList<>();
+    private List<Player> players = null;
     
     // The object currently on this tile (can only have 1 at a time)
     private GameObject object = null;
@@ -41,10 +45,19 @@ public class ActiveTile {
     // Add an entity to the tile
     public void add(Entity entity) {
         if (entity instanceof Player) {
+            if (players == null) {
+                players = new ArrayList<>(2);
+            }
             players.add((Player) entity);
         } else if (entity instanceof NPC) {
+            if (npcs == null) {
+                npcs = new ArrayList<>(2);
+            }
             npcs.add((NPC) entity);
         } else if (entity instanceof Item) {
+            if (items == null) {
+                items = new ArrayList<>(2);
+            }
             items.add((Item) entity);
         } else if (entity instanceof GameObject) {
             if (object != null) {
@@ -61,15 +74,15 @@ public class ActiveTile {
     }
 
     public List<Item> getItems() {
-        return items;
+        return items == null ? Collections.<Item>emptyList() : items;
     }
 
     public List<NPC> getNpcs() {
-        return npcs;
+        return npcs == null ? Collections.<NPC>emptyList() : npcs;
     }
 
     public List<Player> getPlayers() {
-        return players;
+        return players == null ? Collections.<Player>emptyList() : players;
     }
 
     public int getX() {
@@ -85,7 +98,7 @@ public class ActiveTile {
     }
 
     public boolean hasItem(Item item) {
-        return items.contains(item);
+        return items != null && items.contains(item);
     }
 
     public boolean hasItems() {
@@ -117,31 +130,37 @@ public class ActiveTile {
     // Remove an entity from the tile
     public void remove(Entity entity) {
         if (entity instanceof Player) {
-            players.remove((Player)entity);
+            if (players != null) {
+                players.remove((Player)entity);
+            }
             if (!hasGameObject() && !hasItems() && !hasNpcs() && !hasPlayers() && !specificArea()) {
-                World.getWorld().tiles[getX()][getY()] = null;
+                world.removeTile(this);
             }
         } else if (entity instanceof NPC) {
-            npcs.remove((NPC)entity);
+            if (npcs != null) {
+                npcs.remove((NPC)entity);
+            }
             if (!hasGameObject() && !hasItems() && !hasNpcs() && !hasPlayers() && !specificArea()) {
-                World.getWorld().tiles[getX()][getY()] = null;
+                world.removeTile(this);
             }
         } else if (entity instanceof Item) {
-            items.remove((Item)entity);
+            if (items != null) {
+                items.remove((Item)entity);
+            }
             if (!hasGameObject() && !hasItems() && !hasNpcs() && !hasPlayers() && !specificArea()) {
-                World.getWorld().tiles[getX()][getY()] = null;
+                world.removeTile(this);
             }
         } else if (entity instanceof GameObject) {
             object = null;
             if (!hasGameObject() && !hasItems() && !hasNpcs() && !hasPlayers() && !remove) {
-                World.getWorld().tiles[getX()][getY()] = null;
+                world.removeTile(this);
             }
         }
     }
     
     public void clean() {
         if (!hasGameObject() && !hasItems() && !hasNpcs() && !hasPlayers() && !specificArea()) {
-            World.getWorld().tiles[getX()][getY()] = null;
+            world.removeTile(this);
         }
     }
     
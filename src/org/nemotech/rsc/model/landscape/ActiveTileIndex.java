@@ -0,0 +1,114 @@
+package org.nemotech.rsc.model.landscape;
+
+/**
+ * The tiles that currently have something on them, keyed by their packed coordinates.
+ *
+ * An open-addressed hash table with linear probing, so looking a tile up (or finding
+ * that nothing is there) never allocates. Empty tiles are dropped as soon as their
+ * last entity leaves, which keeps the table to roughly the number of occupied tiles.
+ */
+public final class ActiveTileIndex {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private ActiveTile[] tiles = new ActiveTile[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int size;
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Gets the tile at the given coords, or null if nothing is on it
+     */
+    public synchronized ActiveTile get(int x, int y) {
+        long key = key(x, y);
+        for (int i = hash(key) & mask; tiles[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return tiles[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the tile at the given coords, creating it if it isn't in use yet
+     */
+    public synchronized ActiveTile getOrCreate(int x, int y) {
+        long key = key(x, y);
+        int i = hash(key) & mask;
+        for (; tiles[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return tiles[i];
+            }
+        }
+        ActiveTile tile = new ActiveTile(x, y);
+        keys[i] = key;
+        tiles[i] = tile;
+        if (++size > (mask + 1) >> 1) {
+            resize();
+        }
+        return tile;
+    }
+
+    /**
+     * Drops a tile from the index, as long as it's still the one held for its coords
+     */
+    public synchronized void remove(ActiveTile tile) {
+        long key = key(tile.getX(), tile.getY());
+        int i = hash(key) & mask;
+        for (; tiles[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                break;
+            }
+        }
+        if (tiles[i] != tile) {
+            return;
+        }
+        tiles[i] = null;
+        size--;
+        // shift later entries of the probe run back so lookups don't stop at the gap
+        int gap = i;
+        for (int j = (i + 1) & mask; tiles[j] != null; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                tiles[gap] = tiles[j];
+                tiles[j] = null;
+                gap = j;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        ActiveTile[] oldTiles = tiles;
+        int capacity = oldTiles.length << 1;
+        keys = new long[capacity];
+        tiles = new ActiveTile[capacity];
+        mask = capacity - 1;
+        for (int j = 0; j < oldTiles.length; j++) {
+            if (oldTiles[j] == null) {
+                continue;
+            }
+            int i = hash(oldKeys[j]) & mask;
+            while (tiles[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            tiles[i] = oldTiles[j];
+        }
+    }
+
+}
@@ -134,15 +134,16 @@ public class PathGenerator {
     }
 
     private boolean isBlocking(int x, int y, int bit) {
-        TileValue t = World.getWorld().getTileValue(x, y);
+        TileMap tiles = World.getWorld().getTileMap();
+        byte overlay = tiles.getOverlay(x, y);
         /*if(Area.getArea(Point.getLocation(x, y)).getObject(x, y) != null) {
             if(Area.getArea(Point.getLocation(x, y)).getObject(x, y).getGameObjectDef().getName().equalsIgnoreCase("tree")) {
                 return true;
             } 
         }*/
-        if (t.overlay == 2 || t.overlay == 11) // water & lava
+        if (overlay == 2 || overlay == 11) // water & lava
             return false; 
-        return isBlocking(t.mapValue, (byte) bit);
+        return isBlocking(tiles.getMapValue(x, y), (byte) bit);
     }
 
     /**
@@ -154,25 +155,26 @@ public class PathGenerator {
     }
 
     /**
-     * I've added the wall data to TileValue, now we can allow certain walls to
+     * I've added the wall data to TileMap, now we can allow certain walls to
      * be shot through.
      */
     private boolean isWallAllowed(int x, int y) {
-        TileValue t = World.getWorld().getTileValue(x, y);
+        TileMap tiles = World.getWorld().getTileMap();
+        int verticalWall = tiles.getVerticalWall(x, y) & 0xff;
+        int horizontalWall = tiles.getHorizontalWall(x, y) & 0xff;
+        int diagonalWalls = tiles.getDiagonalWalls(x, y);
 
-        if(t != null) {
-            for (int i = 0; i < ALLOWED_WALL_ID_TYPES[0].length; i++)
-                if (ALLOWED_WALL_ID_TYPES[0][i] == (t.verticalWallVal & 0xff)) 
-                    return true;
+        for (int i = 0; i < ALLOWED_WALL_ID_TYPES[0].length; i++)
+            if (ALLOWED_WALL_ID_TYPES[0][i] == verticalWall) 
+                return true;
 
-            for (int i = 0; i < ALLOWED_WALL_ID_TYPES[1].length; i++)
-                if (ALLOWED_WALL_ID_TYPES[1][i] == (t.horizontalWallVal & 0xff)) 
-                    return true;
+        for (int i = 0; i < ALLOWED_WALL_ID_TYPES[1].length; i++)
+            if (ALLOWED_WALL_ID_TYPES[1][i] == horizontalWall) 
+                return true;
 
-            for (int i = 0; i < ALLOWED_WALL_ID_TYPES[2].length; i++)
-                if (ALLOWED_WALL_ID_TYPES[2][i] == t.diagWallVal) 
-                    return true;
-        }
+        for (int i = 0; i < ALLOWED_WALL_ID_TYPES[2].length; i++)
+            if (ALLOWED_WALL_ID_TYPES[2][i] == diagonalWalls) 
+                return true;
         return false;
     }
     
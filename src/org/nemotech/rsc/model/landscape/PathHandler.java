@@ -191,12 +191,15 @@ public class PathHandler {
     }
 
     private boolean isBlocking(int x, int y, int bit) {
-        TileValue t = world.getTileValue(x, y);
-        return isBlocking(t.mapValue, (byte) bit) || isBlocking(t.objectValue, (byte) bit) || isMobBlocking(x, y);
+        TileMap tiles = world.getTileMap();
+        return isBlocking(tiles.getMapValue(x, y), (byte) bit) || isBlocking(tiles.getObjectValue(x, y), (byte) bit) || isMobBlocking(x, y);
      }
     
     private boolean isMobBlocking(int x, int y) {
-        ActiveTile t = world.getTile(x, y);
+        ActiveTile t = world.getTileIfPresent(x, y);
+        if (t == null) {
+            return false;
+        }
         if (mob instanceof Player) {
             if (t.hasNpcs()) {
                 //if (Constants.GameServer.NPCS_BLOCK_PATH) {
@@ -217,7 +220,6 @@ public class PathHandler {
             if (t.hasNpcs() || (t.hasPlayers() && n.getChasing() != null))
                 return true;
         }
-        t.clean();
         return false;
     }
 
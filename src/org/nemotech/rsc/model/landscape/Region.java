@@ -1,7 +1,10 @@
 package org.nemotech.rsc.model.landscape;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 import org.nemotech.rsc.model.Point;
 import org.nemotech.rsc.model.Entity;
@@ -11,62 +14,70 @@ import org.nemotech.rsc.model.NPC;
 import org.nemotech.rsc.model.player.Player;
 
 public class Region {
+    /*
+     * Membership is by instance: objects and items compare equal by value,
+     * but two of them can briefly share a tile while one replaces the other.
+     *
+     * Entities are added and removed from the engine, client and plugin threads,
+     * so the getters hand back a copy taken under the set's lock.
+     */
+
     /**
      * A list of players in this region.
      */
-    private HashSet<Player> players = new HashSet<>();
+    private Set<Player> players = Collections.newSetFromMap(new IdentityHashMap<>());
 
     /**
      * A list of NPCs in this region.
      */
-    private HashSet<NPC> npcs = new HashSet<>();
+    private Set<NPC> npcs = Collections.newSetFromMap(new IdentityHashMap<>());
 
     /**
      * A list of objects in this region.
      */
-    private HashSet<GameObject> objects = new HashSet<>();
+    private Set<GameObject> objects = Collections.newSetFromMap(new IdentityHashMap<>());
 
     /**
      * A list of objects in this region.
      */
-    private HashSet<Item> items = new HashSet<>();
+    private Set<Item> items = Collections.newSetFromMap(new IdentityHashMap<>());
 
     /**
-     * Gets the list of players.
+     * Gets a copy of the list of players.
      * 
      * @return The list of players.
      */
     public Collection<Player> getPlayers() {
         synchronized (players) {
-            return players;
+            return new ArrayList<>(players);
         }
     }
 
     /**
-     * Gets the list of NPCs.
+     * Gets a copy of the list of NPCs.
      * 
      * @return The list of NPCs.
      */
     public Collection<NPC> getNpcs() {
         synchronized (npcs) {
-            return npcs;
+            return new ArrayList<>(npcs);
         }
     }
 
     /**
-     * Gets the list of objects.
+     * Gets a copy of the list of objects.
      * 
      * @return The list of objects.
      */
     public Collection<GameObject> getGameObjects() {
         synchronized (objects) {
-            return objects;
+            return new ArrayList<>(objects);
         }
     }
 
-    public Iterable<Item> getGroundItems() {
+    public Collection<Item> getGroundItems() {
         synchronized (items) {
-            return items;
+            return new ArrayList<>(items);
         }
     }
 
@@ -1,7 +1,11 @@
 package org.nemotech.rsc.model.landscape;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.nemotech.rsc.model.Point;
 import org.nemotech.rsc.model.Entity;
@@ -92,6 +96,113 @@ public class RegionManager {
         return localItems;
     }
 
+    /**
+     * Gets every region overlapping an area.
+     * 
+     * @param minX
+     *            The lowest x coordinate, inclusive.
+     * @param minY
+     *            The lowest y coordinate, inclusive.
+     * @param maxX
+     *            The highest x coordinate, inclusive.
+     * @param maxY
+     *            The highest y coordinate, inclusive.
+     * @return The regions covering the area.
+     */
+    public static List<Region> getRegionsInArea(int minX, int minY, int maxX, int maxY) {
+        int fromX = Math.max(minX, 0) / REGION_SIZE;
+        int fromY = Math.max(minY, 0) / REGION_SIZE;
+        int toX = Math.min(maxX / REGION_SIZE, HORIZONTAL_PLANES - 1);
+        int toY = Math.min(maxY / REGION_SIZE, VERTICAL_PLANES - 1);
+        List<Region> area = new ArrayList<>();
+        for (int x = fromX; x <= toX; x++) {
+            for (int y = fromY; y <= toY; y++) {
+                area.add(regions[x][y]);
+            }
+        }
+        return area;
+    }
+
+    /**
+     * Finds the entity nearest to a point, measured as the larger of the x and y
+     * distance. Regions are searched one ring at a time outwards from the point,
+     * stopping as soon as no unsearched region could hold anything closer.
+     * 
+     * @param location
+     *            The point to search from.
+     * @param radius
+     *            The furthest distance to search.
+     * @param bucket
+     *            Picks the entities to consider from a region.
+     * @param filter
+     *            Which entities are acceptable.
+     * @return The nearest matching entity, or null if none is in range.
+     */
+    public static <T extends Entity> T getNearest(Point location, int radius, Function<Region, Collection<T>> bucket, Predicate<T> filter) {
+        int x = location.getX();
+        int y = location.getY();
+        int regionX = x / REGION_SIZE;
+        int regionY = y / REGION_SIZE;
+        int maxRing = Math.max(HORIZONTAL_PLANES, VERTICAL_PLANES);
+        T nearest = null;
+        int nearestDist = Integer.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // everything in this ring is at least this far away
+            int ringDist = ring == 0 ? 0 : (ring - 1) * REGION_SIZE + 1;
+            if (ringDist > radius || ringDist >= nearestDist) {
+                break;
+            }
+            for (int rx = regionX - ring; rx <= regionX + ring; rx++) {
+                for (int ry = regionY - ring; ry <= regionY + ring; ry++) {
+                    if (Math.max(Math.abs(rx - regionX), Math.abs(ry - regionY)) != ring) {
+                        continue;
+                    }
+                    Region region = getRegionFromSectorCoordinates(rx, ry);
+                    if (region == null) {
+                        continue;
+                    }
+                    for (T entity : bucket.apply(region)) {
+                        int dist = Math.max(Math.abs(entity.getX() - x), Math.abs(entity.getY() - y));
+                        if (dist <= radius && dist < nearestDist && filter.test(entity)) {
+                            nearestDist = dist;
+                            nearest = entity;
+                        }
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Moves an entity to the region holding its new tile. Called from
+     * World.setLocation whenever an entity is placed, moved or removed.
+     * 
+     * @param entity
+     *            The entity.
+     * @param oldPoint
+     *            Where the entity was, or null if it is being placed.
+     * @param newPoint
+     *            Where the entity is going, or null if it is being removed.
+     */
+    public static void setLocation(Entity entity, Point oldPoint, Point newPoint) {
+        Region oldRegion = oldPoint == null ? null : getRegionFromSectorCoordinates(oldPoint.getX() / REGION_SIZE, oldPoint.getY() / REGION_SIZE);
+        Region newRegion = newPoint == null ? null : getRegionFromSectorCoordinates(newPoint.getX() / REGION_SIZE, newPoint.getY() / REGION_SIZE);
+        if (oldRegion == newRegion) {
+            if (newRegion != null) {
+                // no-op when already indexed, covers entities registered after being placed
+                newRegion.addEntity(entity);
+            }
+            return;
+        }
+        if (oldRegion != null) {
+            oldRegion.removeEntity(entity);
+        }
+        if (newRegion != null) {
+            newRegion.addEntity(entity);
+        }
+    }
+
     /**
      * Gets the regions surrounding a location.
      * 
@@ -0,0 +1,100 @@
+package org.nemotech.rsc.model.landscape;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.nemotech.rsc.Constants;
+
+/**
+ * The landscape sectors in terrain-members.zip, inflated once and shared by the world loader
+ * and the client's terrain.
+ *
+ * Each sector is kept as its raw tile records, 10 bytes a tile in x * 48 + y order: elevation,
+ * texture, overlay, roof texture, horizontal wall, vertical wall and a diagonal wall int. The
+ * whole map is around 40MB like this, so only the most recently used MAX_SECTORS are held.
+ */
+public final class SectorCache {
+
+    public static final int TILE_SIZE = 10;
+
+    /**
+     * Around 12MB of tile records, far more than the client keeps loaded around the player
+     */
+    public static final int MAX_SECTORS = 512;
+
+    /**
+     * Stands in for sectors the archive doesn't have, so they aren't looked up again
+     */
+    private static final byte[] MISSING = new byte[0];
+
+    private static final Map<Integer, byte[]> sectors = new LinkedHashMap<Integer, byte[]>(MAX_SECTORS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+            return size() > MAX_SECTORS;
+        }
+    };
+
+    private static ZipFile archive;
+
+    private SectorCache() {}
+
+    /**
+     * Gets a read only view of a sector's tile records, or null if the map has no such sector
+     */
+    public static ByteBuffer getTiles(int sectionX, int sectionY, int plane) throws IOException {
+        byte[] data = getData(sectionX, sectionY, plane);
+        return data == MISSING ? null : ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    /**
+     * Gets a copy of a sector the caller is free to change, or null if the map has no such sector
+     */
+    public static Sector getSector(int sectionX, int sectionY, int plane) throws IOException {
+        byte[] data = getData(sectionX, sectionY, plane);
+        return data == MISSING ? null : Sector.unpack(ByteBuffer.wrap(data));
+    }
+
+    private static byte[] getData(int sectionX, int sectionY, int plane) throws IOException {
+        Integer key = plane << 16 | sectionX << 8 | sectionY;
+        byte[] data;
+        synchronized (sectors) {
+            data = sectors.get(key);
+        }
+        if (data == null) {
+            data = read("h" + plane + "x" + sectionX + "y" + sectionY);
+            synchronized (sectors) {
+                sectors.put(key, data);
+            }
+        }
+        return data;
+    }
+
+    private static byte[] read(String name) throws IOException {
+        ZipFile archive = getArchive();
+        ZipEntry entry = archive.getEntry(name);
+        if (entry == null) {
+            return MISSING;
+        }
+        byte[] data;
+        try (InputStream in = archive.getInputStream(entry)) {
+            data = in.readAllBytes();
+        }
+        if (data.length < Sector.WIDTH * Sector.HEIGHT * TILE_SIZE) {
+            throw new IOException("Sector " + name + " is too short");
+        }
+        return data;
+    }
+
+    private static synchronized ZipFile getArchive() throws IOException {
+        if (archive == null) {
+            archive = new ZipFile(Constants.CACHE_DIRECTORY + "terrain-members.zip");
+        }
+        return archive;
+    }
+
+}
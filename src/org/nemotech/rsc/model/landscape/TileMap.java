@@ -0,0 +1,125 @@
+package org.nemotech.rsc.model.landscape;
+
+/**
+ * The static terrain and collision data for every tile in the world.
+ *
+ * Each property is held in its own flat primitive plane indexed by
+ * x * height + y, so the whole map is a handful of arrays rather than
+ * millions of TileValue objects, and neighbouring tiles share cache lines.
+ */
+public final class TileMap {
+
+    private final int width, height;
+
+    private final byte[] mapValues;
+    private final byte[] objectValues;
+    private final byte[] overlays;
+    private final byte[] horizontalWalls;
+    private final byte[] verticalWalls;
+    private final byte[] elevations;
+    // diagonal wall values go past a short (up to ~48000), so they are kept unsigned
+    private final char[] diagonalWalls;
+
+    public TileMap(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        mapValues = new byte[size];
+        objectValues = new byte[size];
+        overlays = new byte[size];
+        horizontalWalls = new byte[size];
+        verticalWalls = new byte[size];
+        elevations = new byte[size];
+        diagonalWalls = new char[size];
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private int index(int x, int y) {
+        return x * height + y;
+    }
+
+    /**
+     * Gets a copy of a tile's values, or an empty TileValue outside the map.
+     * Changes made to the copy are not written back.
+     */
+    public TileValue getTileValue(int x, int y) {
+        TileValue t = new TileValue();
+        if (!contains(x, y)) {
+            return t;
+        }
+        int i = index(x, y);
+        t.mapValue = mapValues[i];
+        t.objectValue = objectValues[i];
+        t.overlay = overlays[i];
+        t.horizontalWallVal = horizontalWalls[i];
+        t.verticalWallVal = verticalWalls[i];
+        t.elevation = elevations[i];
+        t.diagWallVal = diagonalWalls[i];
+        return t;
+    }
+
+    public byte getMapValue(int x, int y) {
+        return contains(x, y) ? mapValues[index(x, y)] : 0;
+    }
+
+    public void orMapValue(int x, int y, int bits) {
+        if (contains(x, y)) {
+            mapValues[index(x, y)] |= bits;
+        }
+    }
+
+    public byte getObjectValue(int x, int y) {
+        return contains(x, y) ? objectValues[index(x, y)] : 0;
+    }
+
+    public void orObjectValue(int x, int y, int bits) {
+        if (contains(x, y)) {
+            objectValues[index(x, y)] |= bits;
+        }
+    }
+
+    public void andObjectValue(int x, int y, int mask) {
+        if (contains(x, y)) {
+            objectValues[index(x, y)] &= mask;
+        }
+    }
+
+    public byte getOverlay(int x, int y) {
+        return contains(x, y) ? overlays[index(x, y)] : 0;
+    }
+
+    public byte getHorizontalWall(int x, int y) {
+        return contains(x, y) ? horizontalWalls[index(x, y)] : 0;
+    }
+
+    public byte getVerticalWall(int x, int y) {
+        return contains(x, y) ? verticalWalls[index(x, y)] : 0;
+    }
+
+    public int getDiagonalWalls(int x, int y) {
+        return contains(x, y) ? diagonalWalls[index(x, y)] : 0;
+    }
+
+    public byte getElevation(int x, int y) {
+        return contains(x, y) ? elevations[index(x, y)] : 0;
+    }
+
+    /**
+     * Stores the terrain values read from a sector tile
+     */
+    public void setTerrain(int x, int y, byte overlay, byte horizontalWall, byte verticalWall, int diagonalWalls, byte elevation) {
+        if (!contains(x, y)) {
+            return;
+        }
+        int i = index(x, y);
+        overlays[i] = overlay;
+        horizontalWalls[i] = horizontalWall;
+        verticalWalls[i] = verticalWall;
+        this.diagonalWalls[i] = (char) diagonalWalls;
+        elevations[i] = elevation;
+    }
+
+}
@@ -9,6 +9,11 @@ public class Bank {
     
     private ArrayList<InvItem> list = new ArrayList<>();
     
+    /**
+     * Whether the bank has changed since the player was last saved
+     */
+    private boolean changed;
+    
     public Bank() { }
     
     public ArrayList<InvItem> getItems() {
@@ -22,10 +27,12 @@ public class Bank {
         for(int index = 0;index < list.size();index++) {
             if(item.equals(list.get(index))) {
                 list.get(index).setAmount(list.get(index).getAmount() + item.getAmount());
+                changed = true;
                 return index;
             }
         }
         list.add(item);
+        changed = true;
         return list.size() - 2;
     }
     
@@ -40,6 +47,7 @@ public class Bank {
                 else {
                     iterator.remove();
                 }
+                changed = true;
                 return index;
             }
         }
@@ -135,12 +143,22 @@ public class Bank {
         return (MAX_SIZE - list.size()) >= getRequiredSlots(items);
     }
     
+    /**
+     * Checks whether the bank has changed since this was last called
+     */
+    boolean takeChanged() {
+        boolean result = changed;
+        changed = false;
+        return result;
+    }
+    
     public void swap(int item1, int slot1, int item2, int slot2) {
         if((slot1 > -1) && (slot2 > -1) && (item1 > -1) && (item2 > -1) && (slot1 != slot2) && (item1 != item2)) {
             InvItem bankItem1 = new InvItem(item2, countId(item2));
             InvItem bankItem2 = new InvItem(item1, countId(item1));
             list.set(slot1, bankItem1);
             list.set(slot2, bankItem2);
+            changed = true;
         }
     }
 
@@ -2,8 +2,10 @@ package org.nemotech.rsc.model.player;
 
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 public class Cache implements Serializable {
 
@@ -28,6 +30,12 @@ public class Cache implements Serializable {
      */
     private Map<String, Object> storage = new HashMap<>();
 
+    /**
+     * The keys set or removed since the player was last saved. Not serialized, so a cache read
+     * from an old save starts with this null.
+     */
+    private transient Set<String> changed = new HashSet<>();
+
     /**
      * Store an integer in the cache
      * 
@@ -38,6 +46,7 @@ public class Cache implements Serializable {
      */
     public void set(String key, int i) {
         storage.put(key, i);
+        changed(key);
     }
 
     /**
@@ -50,6 +59,7 @@ public class Cache implements Serializable {
      */
     public void store(String key, String s) {
         storage.put(key, s);
+        changed(key);
     }
 
     /**
@@ -62,6 +72,7 @@ public class Cache implements Serializable {
      */
     public void store(String key, Boolean b) {
         storage.put(key, b);
+        changed(key);
     }
 
     /**
@@ -74,6 +85,7 @@ public class Cache implements Serializable {
      */
     public void store(String key, long l) {
         storage.put(key, l);
+        changed(key);
     }
 
     /**
@@ -165,17 +177,47 @@ public class Cache implements Serializable {
      * @param key
      */
     public void remove(String key) {
-        storage.remove(key);
+        if (storage.remove(key) != null) {
+            changed(key);
+        }
     }
 
     public void remove(String... key) {
         for (String s : key) {
-            if (storage.containsKey(s))
+            if (storage.containsKey(s)) {
                 storage.remove(s);
+                changed(s);
+            }
         }
     }
 
     public void put(String key, Object o) {
         storage.put(key, o);
+        changed(key);
+    }
+
+    /**
+     * A copy of the cache as it is now, which later changes to this one don't affect
+     */
+    public Cache copy() {
+        Cache copy = new Cache();
+        copy.storage.putAll(storage);
+        return copy;
+    }
+
+    /**
+     * Gets the keys set or removed since this was last called
+     */
+    public Set<String> takeChangedKeys() {
+        Set<String> keys = changed != null ? changed : new HashSet<>();
+        changed = new HashSet<>();
+        return keys;
+    }
+
+    private void changed(String key) {
+        if (changed == null) {
+            changed = new HashSet<>();
+        }
+        changed.add(key);
     }
 }
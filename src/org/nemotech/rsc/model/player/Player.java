@@ -27,11 +27,9 @@ import org.nemotech.rsc.model.player.states.CombatState;
 import org.nemotech.rsc.client.update.impl.MiscUpdater;
 
 import java.util.*;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.nemotech.rsc.core.PersistenceService;
 import org.nemotech.rsc.client.mudclient;
 import org.nemotech.rsc.event.impl.BatchEvent;
 import org.nemotech.rsc.client.sound.SoundEffect;
@@ -245,11 +243,13 @@ public final class Player extends Mob {
 
     public void updateQuestStage(QuestInterface q, int stage) {
         questStages.put(q.getQuestID(), stage);
+        changed(PlayerFile.SECTION_QUESTS);
         getSender().sendQuestInfo(q.getQuestID(), stage);
     }
 
     public void updateQuestStage(int q, int stage) {
         questStages.put(q, stage);
+        changed(PlayerFile.SECTION_QUESTS);
         getSender().sendQuestInfo(q, stage);
     }
 
@@ -407,6 +407,10 @@ public final class Player extends Mob {
      * The exp level array
      */
     private int[] exp = new int[18];
+    /**
+     * The save sections changed since the player was last saved, as 1 << section id bits
+     */
+    private int changedSections;
     /**
      * If the player has been sending suscicious packets
      */
@@ -472,9 +476,9 @@ public final class Player extends Mob {
      */
     private boolean maleGender;
     /**
-     * List of all projectiles needing displayed
+     * Projectiles needing displayed, queued from any thread and drained by the engine each tick
      */
-    private ArrayList<Projectile> projectilesNeedingDisplayed = new ArrayList<>();
+    private final Queue<Projectile> projectilesNeedingDisplayed = new ConcurrentLinkedQueue<>();
     /**
      * List of players who have been hit
      */
@@ -484,13 +488,13 @@ public final class Player extends Mob {
      */
     private ArrayList<NPC> npcsNeedingHitsUpdate = new ArrayList<>();
     /**
-     * Chat messages needing displayed
+     * Chat messages needing displayed, queued from any thread and drained by the engine each tick
      */
-    private ArrayList<ChatMessage> chatMessagesNeedingDisplayed = new ArrayList<>();
+    private final Queue<ChatMessage> chatMessagesNeedingDisplayed = new ConcurrentLinkedQueue<>();
     /**
-     * NPC messages needing displayed
+     * NPC messages needing displayed, queued from any thread and drained by the engine each tick
      */
-    private ArrayList<ChatMessage> npcMessagesNeedingDisplayed = new ArrayList<>();
+    private final Queue<ChatMessage> npcMessagesNeedingDisplayed = new ConcurrentLinkedQueue<>();
     /**
      * The time of the last spell cast, used as a throttle
      */
@@ -898,34 +902,13 @@ public final class Player extends Mob {
         world.getDelayedEventHandler().add(drainer);
         
         try {
-            // ensure cache directory exists
-            new java.io.File(Constants.CACHE_DIRECTORY + "players").mkdirs();
-
-            String fileUser = this.username.toLowerCase(java.util.Locale.ROOT);
-
-            // load player cache file from original cache directory (Linux-safe)
-            java.io.File cacheFile =
-                resolvePlayerFile(Constants.CACHE_DIRECTORY, fileUser + "_cache.dat");
-            if (cacheFile != null && cacheFile.exists()) {
-                ObjectInputStream ois = new ObjectInputStream(new FileInputStream(cacheFile));
-                Cache playerCache = (Cache) ois.readObject();
-                cache = playerCache;
-                ois.close();
-            }
-        } catch(Exception e) {
-            e.printStackTrace();
-        }
-
-        try {
-            String fileUser = this.username.toLowerCase(java.util.Locale.ROOT);
-            // load player data file from original cache directory (Linux-safe)
-            java.io.File dataFile =
-                resolvePlayerFile(Constants.CACHE_DIRECTORY, fileUser + "_data.dat");
-            if (dataFile != null && dataFile.exists()) {
-                ObjectInputStream ois = new ObjectInputStream(new FileInputStream(dataFile));
-                SaveFile data = (SaveFile) ois.readObject();
-                playerData = data;
-                ois.close();
+            // load the player's save, or their old serialized save files if they have no .sav yet,
+            // once any save still queued from their last session has been written
+            PersistenceService.getInstance().flush();
+            PlayerFile.Save save = PlayerFile.read(this.username);
+            if (save != null) {
+                playerData = save.data;
+                cache = save.cache;
             }
         } catch(Exception e) {
             e.printStackTrace();
@@ -973,46 +956,44 @@ public final class Player extends Mob {
         setBusy(false);
     }
 
+    /**
+     * Queues what the player has changed to be written off the engine thread
+     */
     public void save() {
-        // save player data
-        playerData.save(this);
-        try {
-            // ensure cache directory exists
-            new java.io.File(Constants.CACHE_DIRECTORY + "players").mkdirs();
-            // save serialized player cache file
-            String fileUser = this.username.toLowerCase(java.util.Locale.ROOT);
-            ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(Constants.CACHE_DIRECTORY + "players/" + fileUser + "_cache.dat"));
-            oos.writeObject(cache);
-            oos.close();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        try {
-            // save serialized player data file
-            String fileUser = this.username.toLowerCase(java.util.Locale.ROOT);
-            ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(Constants.CACHE_DIRECTORY + "players/" + fileUser + "_data.dat"));
-            oos.writeObject(playerData);
-            oos.close();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        save(false);
+    }
+
+    /**
+     * Queues the player's save to be written off the engine thread, compacting it into a full
+     * save in place of the journal of changes if asked, as logging out does
+     */
+    public void save(boolean compact) {
+        PersistenceService.getInstance().save(this, compact);
+    }
 
+    /**
+     * Copies the player's save data as it is now, for the persistence service to write
+     */
+    public PlayerFile.Save snapshot() {
+        playerData.save(this);
+        return new PlayerFile.Save(playerData.copy(), cache.copy());
     }
 
-    // Resolve a player file with case-insensitive matching inside a directory.
-    private static java.io.File resolvePlayerFile(String baseDir, String filename) {
-        java.io.File exact = new java.io.File(baseDir + "players/" + filename);
-        if (exact.exists()) return exact;
-        java.io.File dir = new java.io.File(baseDir + "players");
-        java.io.File[] files = dir.listFiles();
-        if (files != null) {
-            for (java.io.File f : files) {
-                if (f.getName().equalsIgnoreCase(filename)) {
-                    return f;
-                }
-            }
+    /**
+     * Gets the save sections changed since this was last called, as 1 << section id bits.
+     * Cache keys are tracked by the cache itself.
+     */
+    public int takeChangedSections() {
+        int sections = changedSections;
+        if (bank != null && bank.takeChanged()) {
+            sections |= 1 << PlayerFile.SECTION_BANK;
         }
-        return null;
+        changedSections = 0;
+        return sections;
+    }
+
+    private void changed(int section) {
+        changedSections |= 1 << section;
     }
 
     public void setCharged() {
@@ -1044,6 +1025,7 @@ public final class Player extends Mob {
                 setHardcoreDead(true);
                 skipSaveOnUnregister = true;
                 String fileUser = this.username.toLowerCase(java.util.Locale.ROOT);
+                PersistenceService.getInstance().discard(this.username);
                 deleteAllPlayerSaveFiles(fileUser);
             } catch (Throwable t) {
                 t.printStackTrace();
@@ -1053,6 +1035,7 @@ public final class Player extends Mob {
                 curStat[i] = maxStat[i];
                 getSender().sendStat(i);
             }
+            changed(PlayerFile.SECTION_STATS);
             // Drop items
             dropItemsOnDeath();
             // Send UI updates
@@ -1074,6 +1057,7 @@ public final class Player extends Mob {
             curStat[i] = maxStat[i];
             getSender().sendStat(i);
         }
+        changed(PlayerFile.SECTION_STATS);
         dropItemsOnDeath();
         // Respawn at appropriate spawn point
         boolean inTutorial = getLocation().inTutorialLanding();
@@ -1149,7 +1133,7 @@ public final class Player extends Mob {
     // Delete known save files for this username from potential locations (non-blocking minimal scan).
     private static void deleteAllPlayerSaveFiles(String fileUser) {
         String[] bases = new String[] { org.nemotech.rsc.Constants.CACHE_DIRECTORY, org.nemotech.rsc.Constants.SAVE_DIRECTORY };
-        String[] targets = new String[] { fileUser + "_cache.dat", fileUser + "_data.dat" };
+        String[] targets = new String[] { fileUser + PlayerFile.EXTENSION, fileUser + PlayerJournal.EXTENSION, fileUser + "_cache.dat", fileUser + "_data.dat" };
         for (String base : bases) {
             java.io.File dir = new java.io.File(base, "players");
             if (!dir.isDirectory()) {
@@ -1219,20 +1203,18 @@ public final class Player extends Mob {
         npcMessagesNeedingDisplayed.add(cm);
     }
 
-    public List<ChatMessage> getNpcMessagesNeedingDisplayed() {
-        return npcMessagesNeedingDisplayed;
-    }
-
-    public List<ChatMessage> getChatMessagesNeedingDisplayed() {
-        return chatMessagesNeedingDisplayed;
-    }
-
-    public void clearNpcMessagesNeedingDisplayed() {
-        npcMessagesNeedingDisplayed.clear();
+    /**
+     * Takes the npc messages queued since the last call, so one queued meanwhile waits for the next tick
+     */
+    public List<ChatMessage> drainNpcMessagesNeedingDisplayed() {
+        return drain(npcMessagesNeedingDisplayed);
     }
 
-    public void clearChatMessagesNeedingDisplayed() {
-        chatMessagesNeedingDisplayed.clear();
+    /**
+     * Takes the chat messages queued since the last call, so one queued meanwhile waits for the next tick
+     */
+    public List<ChatMessage> drainChatMessagesNeedingDisplayed() {
+        return drain(chatMessagesNeedingDisplayed);
     }
 
     public void informOfModifiedHits(Mob mob) {
@@ -1264,12 +1246,20 @@ public final class Player extends Mob {
         projectilesNeedingDisplayed.add(p);
     }
 
-    public List<Projectile> getProjectilesNeedingDisplayed() {
-        return projectilesNeedingDisplayed;
+    /**
+     * Takes the projectiles queued since the last call, so one queued meanwhile waits for the next tick
+     */
+    public List<Projectile> drainProjectilesNeedingDisplayed() {
+        return drain(projectilesNeedingDisplayed);
     }
 
-    public void clearProjectilesNeedingDisplayed() {
-        projectilesNeedingDisplayed.clear();
+    private static <T> List<T> drain(Queue<T> queue) {
+        List<T> drained = new ArrayList<>();
+        T next;
+        while((next = queue.poll()) != null) {
+            drained.add(next);
+        }
+        return drained;
     }
 
     public void addPrayerDrain(int prayerID) {
@@ -1436,6 +1426,7 @@ public final class Player extends Mob {
 
     public void setBank(Bank b) {
         bank = b;
+        changed(PlayerFile.SECTION_BANK);
     }
     
     public void setGameSettings(boolean[] settings) {
@@ -1573,8 +1564,7 @@ public final class Player extends Mob {
     }
 
     public void updateViewedPlayers() {
-        List<Player> playersInView = viewArea.getPlayersInView();
-        for (Player p : playersInView) {
+        for (Player p : viewArea.playersInView()) {
             if (p.getIndex() != getIndex() && p.isLoggedIn()) {
                 this.informOfPlayer(p);
                 p.informOfPlayer(this);             
@@ -1583,8 +1573,7 @@ public final class Player extends Mob {
     }
 
     public void updateViewedObjects() {
-        List<GameObject> objectsInView = viewArea.getGameObjectsInView();
-        for (GameObject o : objectsInView) {
+        for (GameObject o : viewArea.gameObjectsInView()) {
             if (!watchedObjects.contains(o) && !o.isRemoved() && withinRange(o)) {
                 watchedObjects.add(o);
             }
@@ -1592,8 +1581,7 @@ public final class Player extends Mob {
     }
 
     public void updateViewedItems() {
-        List<Item> itemsInView = viewArea.getItemsInView();
-        for (Item i : itemsInView) {
+        for (Item i : viewArea.itemsInView()) {
             if (!watchedItems.contains(i) && !i.isRemoved() && withinRange(i) && i.visibleTo(this)) {
                 watchedItems.add(i);
             }
@@ -1601,8 +1589,7 @@ public final class Player extends Mob {
     }
 
     public void updateViewedNpcs() {
-        List<NPC> npcsInView = viewArea.getNpcsInView();
-        for (NPC n : npcsInView) {
+        for (NPC n : viewArea.npcsInView()) {
             if ((!watchedNpcs.contains(n) || watchedNpcs.isRemoving(n)) && withinRange(n)) {
                 watchedNpcs.add(n);
             }
@@ -1737,6 +1724,7 @@ public final class Player extends Mob {
             lvl = 0;
         }
         curStat[id] = lvl;
+        changed(PlayerFile.SECTION_STATS);
         if(this != null) {
             if(getSender() != null) {
                 getSender().sendStat(id);
@@ -1753,6 +1741,7 @@ public final class Player extends Mob {
             lvl = 0;
         }
         maxStat[id] = lvl;
+        changed(PlayerFile.SECTION_STATS);
     }
 
     public int[] getMaxStats() {
@@ -1772,6 +1761,7 @@ public final class Player extends Mob {
         if(curStat[i] < 0) {
             curStat[i] = 0;
         }
+        changed(PlayerFile.SECTION_STATS);
     }
 
     public void incMaxStat(int i, int amount) {
@@ -1779,6 +1769,7 @@ public final class Player extends Mob {
         if(maxStat[i] < 0) {
             maxStat[i] = 0;
         }
+        changed(PlayerFile.SECTION_STATS);
     }
 
     public void setFatigue(int fatigue) {
@@ -1805,6 +1796,7 @@ public final class Player extends Mob {
         if(exp[i] < 0) {
             exp[i] = 0;
         }
+        changed(PlayerFile.SECTION_STATS);
         int level = Formulae.experienceToLevel(exp[i]);
         if(level != maxStat[i]) {
             int advanced = level - maxStat[i];
@@ -1840,10 +1832,12 @@ public final class Player extends Mob {
             lvl = 0;
         }
         exp[id] = lvl;
+        changed(PlayerFile.SECTION_STATS);
     }
 
     public void setExp(int[] lvls) {
         exp = lvls;
+        changed(PlayerFile.SECTION_STATS);
     }
 
     @Override
@@ -1855,4 +1849,9 @@ public final class Player extends Mob {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return Long.hashCode(usernameHash);
+    }
+
 }
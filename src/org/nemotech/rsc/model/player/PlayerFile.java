@@ -0,0 +1,436 @@
+package org.nemotech.rsc.model.player;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.nemotech.rsc.Constants;
+
+/**
+ * Reads and writes a player's save, players/<name>.sav.
+ *
+ * A save is a header (magic, format version, the payload's length and CRC32) then the payload:
+ * sections for the profile, stats, quests, inventory, bank and cache, each an id and a length
+ * so a reader can skip the ones it doesn't know. Saves are written to a temporary file, synced
+ * and renamed over the old one, so a crash leaves either the old save or the new one. Changes
+ * made since a save was written are in the player's PlayerJournal, which read applies.
+ *
+ * Players saved before this format have a _data.dat and _cache.dat holding a serialized
+ * SaveFile and Cache, which are read when there is no .sav yet.
+ */
+public final class PlayerFile {
+
+    private static final int MAGIC = 0x52534350; // RSCP
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    static final int SECTION_PROFILE = 1;
+    static final int SECTION_STATS = 2;
+    static final int SECTION_QUESTS = 3;
+    static final int SECTION_INVENTORY = 4;
+    static final int SECTION_BANK = 5;
+    static final int SECTION_CACHE = 6;
+
+    private static final int VALUE_INT = 0;
+    private static final int VALUE_LONG = 1;
+    private static final int VALUE_BOOLEAN = 2;
+    private static final int VALUE_STRING = 3;
+    private static final int VALUE_REMOVED = 4;
+
+    public static final String EXTENSION = ".sav";
+
+    /**
+     * A player's saved data and cache, as read from a save
+     */
+    public static final class Save {
+
+        public final SaveFile data;
+        public final Cache cache;
+
+        public Save(SaveFile data, Cache cache) {
+            this.data = data;
+            this.cache = cache;
+        }
+
+    }
+
+    private PlayerFile() {}
+
+    /**
+     * Checks whether a player has a save, in either format
+     */
+    public static boolean exists(String username) {
+        return find(username, EXTENSION) != null || find(username, "_data.dat") != null;
+    }
+
+    /**
+     * Reads a player's save with their journal applied over it, or their old serialized save
+     * if they haven't been saved since, or returns null if they have neither
+     */
+    public static Save read(String username) throws IOException {
+        File file = find(username, EXTENSION);
+        if (file != null) {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            Save save = decode(bytes);
+            PlayerJournal.replay(username, save, ByteBuffer.wrap(bytes).getInt(12));
+            save.cache.takeChangedKeys();
+            return save;
+        }
+        return readLegacy(username);
+    }
+
+    /**
+     * Writes a player's save in place of their old one
+     */
+    public static void write(String username, SaveFile data, Cache cache) throws IOException {
+        byte[] save = encode(data, cache);
+        File directory = new File(Constants.CACHE_DIRECTORY + "players");
+        directory.mkdirs();
+        String name = username.toLowerCase(Locale.ROOT) + EXTENSION;
+        File temp = new File(directory, name + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(save);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        File existing = find(username, EXTENSION);
+        File target = existing != null ? existing : new File(directory, name);
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static byte[] encode(SaveFile data, Cache cache) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(2048);
+        DataOutputStream out = new DataOutputStream(payload);
+        for (int id = SECTION_PROFILE; id <= SECTION_CACHE; id++) {
+            out.write(encodeSection(id, data, cache, null));
+        }
+        out.flush();
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer save = ByteBuffer.allocate(HEADER_SIZE + bytes.length);
+        save.putInt(MAGIC).putInt(VERSION).putInt(bytes.length).putInt((int) crc.getValue());
+        save.put(bytes);
+        return save.array();
+    }
+
+    /**
+     * Encodes one section with its id and length. The cache section holds every key, or with
+     * cacheKeys only those keys, where a key no longer in the cache is written as removed.
+     */
+    static byte[] encodeSection(int id, SaveFile data, Cache cache, Collection<String> cacheKeys) throws IOException {
+        ByteArrayOutputStream section = new ByteArrayOutputStream(id == SECTION_CACHE || id == SECTION_BANK ? 1024 : 256);
+        DataOutputStream body = new DataOutputStream(section);
+        switch (id) {
+            case SECTION_PROFILE:
+                body.writeBoolean(data.admin);
+                body.writeInt(data.x);
+                body.writeInt(data.y);
+                body.writeInt(data.fatigue);
+                body.writeLong(data.lastLogin);
+                body.writeInt(data.combatStyle);
+                body.writeBoolean(data.male);
+                body.writeInt(data.questPoints);
+                body.writeInt(data.applicationWidth);
+                body.writeInt(data.applicationHeight);
+                body.writeInt(data.xpRate);
+                body.writeBoolean(data.hardcore);
+                body.writeBoolean(data.hardcoreDead);
+                body.writeBoolean(data.hideRoofs);
+                writeInts(body, data.appearance);
+                writeBooleans(body, data.gameSettings);
+                break;
+            case SECTION_STATS:
+                writeInts(body, data.expStats);
+                writeInts(body, data.curStats);
+                break;
+            case SECTION_QUESTS:
+                writeInts(body, data.quests);
+                break;
+            case SECTION_INVENTORY:
+                body.writeShort(data.inventoryCount);
+                for (int i = 0; i < data.inventoryCount; i++) {
+                    body.writeShort(data.inventoryItems[i]);
+                    body.writeInt(data.inventoryAmounts[i]);
+                    body.writeBoolean(data.inventoryWielded[i]);
+                }
+                break;
+            case SECTION_BANK:
+                body.writeShort(data.bankCount);
+                for (int i = 0; i < data.bankCount; i++) {
+                    body.writeShort(data.bankItems[i]);
+                    body.writeInt(data.bankAmounts[i]);
+                }
+                break;
+            case SECTION_CACHE:
+                Map<String, Object> storage = cache.getCacheMap();
+                List<String> keys = new ArrayList<>();
+                for (String key : cacheKeys == null ? storage.keySet() : cacheKeys) {
+                    Object value = storage.get(key);
+                    if (value instanceof Integer || value instanceof Long || value instanceof Boolean || value instanceof String
+                            || value == null && cacheKeys != null) {
+                        keys.add(key);
+                    } else {
+                        System.out.println("Not saving cache key " + key + ", can't save a " + (value == null ? "null" : value.getClass().getSimpleName()));
+                    }
+                }
+                body.writeInt(keys.size());
+                for (String key : keys) {
+                    Object value = storage.get(key);
+                    body.writeUTF(key);
+                    if (value instanceof Integer) {
+                        body.writeByte(VALUE_INT);
+                        body.writeInt((Integer) value);
+                    } else if (value instanceof Long) {
+                        body.writeByte(VALUE_LONG);
+                        body.writeLong((Long) value);
+                    } else if (value instanceof Boolean) {
+                        body.writeByte(VALUE_BOOLEAN);
+                        body.writeBoolean((Boolean) value);
+                    } else if (value instanceof String) {
+                        body.writeByte(VALUE_STRING);
+                        body.writeUTF((String) value);
+                    } else {
+                        body.writeByte(VALUE_REMOVED);
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown section " + id);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(section.size() + 5);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(id);
+        out.writeInt(section.size());
+        section.writeTo(out);
+        return bytes.toByteArray();
+    }
+
+    static Save decode(byte[] save) throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(save);
+        if (save.length < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException("Not a player save");
+        }
+        int version = header.getInt();
+        if (version > VERSION) {
+            throw new IOException("Player save is from a newer version (" + version + ")");
+        }
+        int length = header.getInt();
+        int checksum = header.getInt();
+        if (length != save.length - HEADER_SIZE) {
+            throw new IOException("Player save is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(save, HEADER_SIZE, length);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Player save is corrupt");
+        }
+        Save decoded = new Save(new SaveFile(true), new Cache());
+        decodeSections(save, HEADER_SIZE, length, decoded);
+        return decoded;
+    }
+
+    /**
+     * Reads a run of sections over a save, replacing the sections it holds and applying the
+     * cache keys it sets or removes
+     */
+    static void decodeSections(byte[] bytes, int offset, int length, Save save) throws IOException {
+        SaveFile data = save.data;
+        Cache cache = save.cache;
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, offset, length));
+        while (in.available() > 0) {
+            int id = in.readUnsignedByte();
+            byte[] section = new byte[in.readInt()];
+            in.readFully(section);
+            DataInputStream body = new DataInputStream(new ByteArrayInputStream(section));
+            switch (id) {
+                case SECTION_PROFILE:
+                    data.admin = body.readBoolean();
+                    data.x = body.readInt();
+                    data.y = body.readInt();
+                    data.fatigue = body.readInt();
+                    data.lastLogin = body.readLong();
+                    data.combatStyle = body.readInt();
+                    data.male = body.readBoolean();
+                    data.questPoints = body.readInt();
+                    data.applicationWidth = body.readInt();
+                    data.applicationHeight = body.readInt();
+                    data.xpRate = body.readInt();
+                    data.hardcore = body.readBoolean();
+                    data.hardcoreDead = body.readBoolean();
+                    data.hideRoofs = body.readBoolean();
+                    data.appearance = readInts(body, 6);
+                    data.gameSettings = readBooleans(body, 5);
+                    break;
+                case SECTION_STATS:
+                    data.expStats = readInts(body, 18);
+                    data.curStats = readInts(body, 18);
+                    break;
+                case SECTION_QUESTS:
+                    data.quests = readInts(body, 50);
+                    break;
+                case SECTION_INVENTORY:
+                    data.inventoryCount = body.readUnsignedShort();
+                    data.inventoryItems = new int[data.inventoryCount];
+                    data.inventoryAmounts = new int[data.inventoryCount];
+                    data.inventoryWielded = new boolean[data.inventoryCount];
+                    for (int i = 0; i < data.inventoryCount; i++) {
+                        data.inventoryItems[i] = body.readUnsignedShort();
+                        data.inventoryAmounts[i] = body.readInt();
+                        data.inventoryWielded[i] = body.readBoolean();
+                    }
+                    break;
+                case SECTION_BANK:
+                    data.bankCount = body.readUnsignedShort();
+                    data.bankItems = new int[data.bankCount];
+                    data.bankAmounts = new int[data.bankCount];
+                    for (int i = 0; i < data.bankCount; i++) {
+                        data.bankItems[i] = body.readUnsignedShort();
+                        data.bankAmounts[i] = body.readInt();
+                    }
+                    break;
+                case SECTION_CACHE:
+                    int count = body.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String key = body.readUTF();
+                        int type = body.readUnsignedByte();
+                        if (type == VALUE_INT) {
+                            cache.set(key, body.readInt());
+                        } else if (type == VALUE_LONG) {
+                            cache.store(key, body.readLong());
+                        } else if (type == VALUE_BOOLEAN) {
+                            cache.store(key, (Boolean) body.readBoolean());
+                        } else if (type == VALUE_STRING) {
+                            cache.store(key, body.readUTF());
+                        } else if (type == VALUE_REMOVED) {
+                            cache.remove(key);
+                        } else {
+                            throw new IOException("Unknown cache value type " + type);
+                        }
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Reads the CRC32 from a save's header, which a journal records to know which save it follows
+     */
+    static int checksum(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                throw new IOException("Not a player save");
+            }
+            return header.getInt(12);
+        }
+    }
+
+    /**
+     * Reads the serialized _data.dat and _cache.dat a player was saved to before .sav files
+     */
+    private static Save readLegacy(String username) throws IOException {
+        File dataFile = find(username, "_data.dat");
+        if (dataFile == null) {
+            return null;
+        }
+        try {
+            SaveFile data;
+            try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(dataFile))) {
+                data = (SaveFile) in.readObject();
+            }
+            Cache cache = new Cache();
+            File cacheFile = find(username, "_cache.dat");
+            if (cacheFile != null) {
+                try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(cacheFile))) {
+                    cache = (Cache) in.readObject();
+                }
+            }
+            return new Save(data, cache);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Finds one of a player's files, matching the name regardless of case
+     */
+    static File find(String username, String suffix) {
+        String filename = username.trim() + suffix;
+        File directory = new File(Constants.CACHE_DIRECTORY + "players");
+        File exact = new File(directory, filename);
+        if (exact.exists()) {
+            return exact;
+        }
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().equalsIgnoreCase(filename)) {
+                    return file;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        int length = values == null ? 0 : values.length;
+        out.writeShort(length);
+        for (int i = 0; i < length; i++) {
+            out.writeInt(values[i]);
+        }
+    }
+
+    private static void writeBooleans(DataOutputStream out, boolean[] values) throws IOException {
+        int length = values == null ? 0 : values.length;
+        out.writeShort(length);
+        for (int i = 0; i < length; i++) {
+            out.writeBoolean(values[i]);
+        }
+    }
+
+    /**
+     * Reads an array, at least as long as the game expects it to be
+     */
+    private static int[] readInts(DataInputStream in, int minimum) throws IOException {
+        int length = in.readUnsignedShort();
+        int[] values = new int[Math.max(length, minimum)];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private static boolean[] readBooleans(DataInputStream in, int minimum) throws IOException {
+        int length = in.readUnsignedShort();
+        boolean[] values = new boolean[Math.max(length, minimum)];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readBoolean();
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,184 @@
+package org.nemotech.rsc.model.player;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+import org.nemotech.rsc.Constants;
+
+/**
+ * A player's journal, players/<name>.jnl: what has changed since their save was last written,
+ * appended on each save so an autosave only writes the sections that changed.
+ *
+ * A journal is a header (magic, format version, the CRC32 of the save it follows) then records,
+ * each a length, a CRC32 and the changed sections in the save's layout, where the cache section
+ * only holds the keys set or removed. Reading stops at the first torn or corrupt record, and a
+ * journal that follows some other save than the one on disk, as a crash while compacting can
+ * leave behind, is dropped. Once a journal grows past MAX_LENGTH, and whenever the player logs
+ * out, the save is written in full and the journal deleted.
+ */
+public final class PlayerJournal {
+
+    private static final int MAGIC = 0x52534a4e; // RSJN
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    public static final String EXTENSION = ".jnl";
+
+    /**
+     * How long a journal can grow, in bytes, before the next save compacts it
+     */
+    public static final int MAX_LENGTH = 64 * 1024;
+
+    /**
+     * The sections the game changes in place from too many places to track, such as the
+     * player's position and item amounts, which are compared with what was last written instead
+     */
+    private static final int COMPARED = 1 << PlayerFile.SECTION_PROFILE | 1 << PlayerFile.SECTION_INVENTORY;
+
+    private final String username;
+    private final File file;
+
+    /**
+     * The compared sections as they were last written, by section id
+     */
+    private final byte[][] written = new byte[PlayerFile.SECTION_CACHE][];
+
+    /**
+     * Set while a write is underway, so that after one fails the next writes the save in full
+     * rather than leave out the changes the failed one held
+     */
+    private boolean failed;
+
+    public PlayerJournal(String username) {
+        this.username = username;
+        this.file = file(username);
+    }
+
+    /**
+     * Appends the sections that changed to the journal. The whole save is written instead,
+     * and the journal started again, when compacting, when there is no save for the journal
+     * to follow yet or when the journal is full.
+     *
+     * @param sections the sections changed since the last write, as 1 << section id bits
+     * @param cacheKeys the cache keys set or removed since the last write
+     */
+    public void write(PlayerFile.Save save, int sections, Collection<String> cacheKeys, boolean compact) throws IOException {
+        compact |= failed;
+        failed = true;
+        append(save, sections, cacheKeys, compact);
+        failed = false;
+    }
+
+    private void append(PlayerFile.Save save, int sections, Collection<String> cacheKeys, boolean compact) throws IOException {
+        File saveFile = PlayerFile.find(username, PlayerFile.EXTENSION);
+        if (compact || saveFile == null || file.length() > MAX_LENGTH) {
+            PlayerFile.write(username, save.data, save.cache);
+            Files.deleteIfExists(file.toPath());
+            for (int id = PlayerFile.SECTION_PROFILE; id < PlayerFile.SECTION_CACHE; id++) {
+                if ((COMPARED & 1 << id) != 0) {
+                    written[id] = PlayerFile.encodeSection(id, save.data, save.cache, null);
+                }
+            }
+            return;
+        }
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(512);
+        byte[][] compared = new byte[written.length][];
+        for (int id = PlayerFile.SECTION_PROFILE; id < PlayerFile.SECTION_CACHE; id++) {
+            if ((COMPARED & 1 << id) != 0) {
+                byte[] section = PlayerFile.encodeSection(id, save.data, save.cache, null);
+                if (!Arrays.equals(section, written[id])) {
+                    payload.write(section);
+                    compared[id] = section;
+                }
+            } else if ((sections & 1 << id) != 0) {
+                payload.write(PlayerFile.encodeSection(id, save.data, save.cache, null));
+            }
+        }
+        if (!cacheKeys.isEmpty()) {
+            payload.write(PlayerFile.encodeSection(PlayerFile.SECTION_CACHE, save.data, save.cache, cacheKeys));
+        }
+        if (payload.size() == 0) {
+            return;
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        // a journal too short to have its header was cut off while being started, so start it again
+        boolean start = file.length() < HEADER_SIZE;
+        ByteBuffer record = ByteBuffer.allocate((start ? HEADER_SIZE : 0) + RECORD_HEADER_SIZE + bytes.length);
+        if (start) {
+            record.putInt(MAGIC).putInt(VERSION).putInt(PlayerFile.checksum(saveFile));
+        }
+        record.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes).flip();
+        StandardOpenOption mode = start ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(true);
+        }
+        for (int id = 0; id < compared.length; id++) {
+            if (compared[id] != null) {
+                written[id] = compared[id];
+            }
+        }
+    }
+
+    /**
+     * Applies a player's journal over the save it follows. A torn record left at the end by a
+     * crash is cut off, so the records appended after it can be read.
+     *
+     * @param checksum the CRC32 from the save's header
+     */
+    static void replay(String username, PlayerFile.Save save, int checksum) throws IOException {
+        File file = file(username);
+        if (!file.exists()) {
+            return;
+        }
+        byte[] journal = Files.readAllBytes(file.toPath());
+        ByteBuffer buffer = ByteBuffer.wrap(journal);
+        if (journal.length >= HEADER_SIZE && buffer.getInt(0) == MAGIC && buffer.getInt(4) > VERSION) {
+            throw new IOException("Player journal is from a newer version (" + buffer.getInt(4) + ")");
+        }
+        if (journal.length < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(8) != checksum) {
+            System.out.println("Dropping " + file.getName() + ", it doesn't follow the player's save");
+            Files.delete(file.toPath());
+            return;
+        }
+        int end = HEADER_SIZE;
+        while (journal.length - end >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt(end);
+            if (length < 0 || length > journal.length - end - RECORD_HEADER_SIZE) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(journal, end + RECORD_HEADER_SIZE, length);
+            if ((int) crc.getValue() != buffer.getInt(end + 4)) {
+                break;
+            }
+            PlayerFile.decodeSections(journal, end + RECORD_HEADER_SIZE, length, save);
+            end += RECORD_HEADER_SIZE + length;
+        }
+        if (end < journal.length) {
+            System.out.println("Cutting a torn record from the end of " + file.getName());
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+            }
+        }
+    }
+
+    private static File file(String username) {
+        return new File(Constants.CACHE_DIRECTORY + "players", username.trim().toLowerCase(Locale.ROOT) + EXTENSION);
+    }
+
+}
@@ -123,6 +123,41 @@ public class SaveFile implements Serializable {
         mudclient.getInstance().hideRoofs = hideRoofs;
     }
     
+    /**
+     * A copy sharing no arrays with this one or the player, so it can be written on another thread
+     */
+    public SaveFile copy() {
+        SaveFile copy = new SaveFile(false);
+        copy.password = password;
+        copy.admin = admin;
+        copy.x = x;
+        copy.y = y;
+        copy.fatigue = fatigue;
+        copy.lastLogin = lastLogin;
+        copy.combatStyle = combatStyle;
+        copy.male = male;
+        copy.questPoints = questPoints;
+        copy.applicationWidth = applicationWidth;
+        copy.applicationHeight = applicationHeight;
+        copy.xpRate = xpRate;
+        copy.hardcore = hardcore;
+        copy.hardcoreDead = hardcoreDead;
+        copy.hideRoofs = hideRoofs;
+        copy.expStats = expStats == null ? null : expStats.clone();
+        copy.curStats = curStats == null ? null : curStats.clone();
+        copy.quests = quests == null ? null : quests.clone();
+        copy.appearance = appearance == null ? null : appearance.clone();
+        copy.gameSettings = gameSettings == null ? null : gameSettings.clone();
+        copy.inventoryCount = inventoryCount;
+        copy.inventoryItems = inventoryItems == null ? null : inventoryItems.clone();
+        copy.inventoryAmounts = inventoryAmounts == null ? null : inventoryAmounts.clone();
+        copy.inventoryWielded = inventoryWielded == null ? null : inventoryWielded.clone();
+        copy.bankCount = bankCount;
+        copy.bankItems = bankItems == null ? null : bankItems.clone();
+        copy.bankAmounts = bankAmounts == null ? null : bankAmounts.clone();
+        return copy;
+    }
+    
     public void save(Player player) {
         admin = player.isAdmin();
         x = player.getLocation().getX();
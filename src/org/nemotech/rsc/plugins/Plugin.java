@@ -20,7 +20,8 @@ import org.nemotech.rsc.external.location.GameObjectLoc;
 import org.nemotech.rsc.util.Util;
 import org.nemotech.rsc.client.sound.SoundEffect;
 import org.nemotech.rsc.model.Point;
-import org.nemotech.rsc.model.landscape.TileValue;
+
+import java.util.concurrent.CancellationException;
 
 public class Plugin {
     
@@ -636,7 +637,6 @@ public class Plugin {
     }
     
     private static boolean isBlocking(NPC npc, int x, int y, int bit) {
-        TileValue t = World.getWorld().getTileValue(x, y);
         Point p = new Point(x, y);
         for(NPC n : npc.getViewArea().getNpcsInView()) {
             if(n.getLocation().equals(p)) {
@@ -648,7 +648,7 @@ public class Plugin {
                 return true;
             }
         }
-        return isBlocking(t.objectValue, (byte) bit);
+        return isBlocking(World.getWorld().getTileMap().getObjectValue(x, y), (byte) bit);
     }
     
     private static Point canWalk(NPC n, int x, int y) {
@@ -1261,7 +1261,9 @@ public class Plugin {
         try {
             Thread.sleep(ms);
         } catch (InterruptedException e) {
-            // ignore
+            // the script was cancelled (e.g. the player logged out), unwind it
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
         }
     }
 
@@ -1,5 +1,8 @@
 package org.nemotech.rsc.plugins;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -8,13 +11,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
 import org.nemotech.rsc.Constants;
+import org.nemotech.rsc.model.player.Player;
 
-import org.nemotech.rsc.util.Util;
+import org.nemotech.rsc.util.ClassIndex;
 import org.nemotech.rsc.model.World;
 
 public final class PluginManager {
@@ -67,9 +72,18 @@ public final class PluginManager {
 
     private Map<String, Set<Object>> actionPlugins = new HashMap<>();
     private Map<String, Set<Object>> executivePlugins = new HashMap<>();
-    private ExecutorService executor = Executors.newCachedThreadPool();
+    private ExecutorService executor = createDefaultExecutor();
+    /**
+     * Plugin invocations still running, by the player they were started for
+     */
+    private final Map<Player, Set<FutureTask<?>>> running = new ConcurrentHashMap<>();
     private List<Class<?>> knownInterfaces = new ArrayList<>();
     private Map<String, Class<?>> queue = new ConcurrentHashMap<>();
+    /**
+     * Listener bindings by event name, built once plugins are loaded
+     */
+    private final Map<String, Binding[]> actionDispatch = new HashMap<>();
+    private final Map<String, Binding[]> executiveDispatch = new HashMap<>();
 
     public boolean blockDefaultAction(final String interfce, final Object[] data) {
         return blockDefaultAction(interfce, data, true);
@@ -86,25 +100,20 @@ public final class PluginManager {
     public boolean blockDefaultAction(final String interfce, final Object[] data, final boolean callAction) {
         boolean shouldBlock = false, flagStop = false;
         queue.clear();
-        if (executivePlugins.containsKey(interfce + "ExecutiveListener")) {
-            for (final Object c : executivePlugins.get(interfce + "ExecutiveListener")) {
+        final Binding[] bindings = executiveDispatch.get(interfce);
+        if (bindings != null) {
+            for (final Binding b : bindings) {
                 try {
-                    final Class<?>[] dataClasses = new Class<?>[data.length];
-                    int i = 0;
-                    for (final Object o : data) {
-                        dataClasses[i++] = o.getClass();
-                    }
-                    final Method m = c.getClass().getMethod("block" + interfce, dataClasses);
-                    shouldBlock = (Boolean) m.invoke(c, data);
+                    shouldBlock = (boolean) b.handle.invokeExact(b.plugin, data);
                     if (shouldBlock) {
-                        queue.put(interfce, c.getClass());
+                        queue.put(interfce, b.plugin.getClass());
                         flagStop = true;
                     } else if(queue.size() > 1) {
 
                     } else if (queue.isEmpty()) {
                         queue.put(interfce, defaultHandler.getClass());
                     }
-                } catch (final Exception e) {
+                } catch (final Throwable e) {
                     e.printStackTrace();
                 }
             }
@@ -129,53 +138,119 @@ public final class PluginManager {
         return executor;
     }
 
+    /**
+     * Replaces the executor plugin scripts run on, the old one finishes what it already has
+     */
+    public void setExecutor(ExecutorService executor) {
+        ExecutorService old = this.executor;
+        this.executor = executor;
+        old.shutdown();
+    }
+
+    /**
+     * Scripts spend most of their time asleep in dialogue, so on Java 21+ each one gets a
+     * virtual thread rather than holding a platform thread. Looked up reflectively as the
+     * game is still built for older JVMs, which fall back to a cached pool.
+     */
+    private static ExecutorService createDefaultExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Interrupts every plugin script still running for the player, e.g. on logout.
+     * A script stops at its next sleep or dialogue wait.
+     */
+    public void cancelScripts(Player player) {
+        Set<FutureTask<?>> tasks = running.remove(player);
+        if (tasks == null) {
+            return;
+        }
+        for (FutureTask<?> task : tasks) {
+            task.cancel(true);
+        }
+    }
+
+    private void submit(final Object[] data, final Runnable script) {
+        Player owner = null;
+        for (final Object o : data) {
+            if (o instanceof Player) {
+                owner = (Player) o;
+                break;
+            }
+        }
+        if (owner == null) {
+            getExecutor().execute(script);
+            return;
+        }
+        final Set<FutureTask<?>> tasks = running.computeIfAbsent(owner, p -> ConcurrentHashMap.newKeySet());
+        final FutureTask<Integer> task = new FutureTask<Integer>(script, 1) {
+            @Override
+            protected void done() {
+                tasks.remove(this);
+            }
+        };
+        tasks.add(task);
+        getExecutor().execute(task);
+    }
+
     public List<Class<?>> getKnownInterfaces() {
         return knownInterfaces;
     }
 
     public void handleAction(final String interfce, final Object[] data) {
-        if (actionPlugins.containsKey(interfce + "Listener")) {
-            for (final Object c : actionPlugins.get(interfce + "Listener")) {
+        final Binding[] bindings = actionDispatch.get(interfce);
+        if (bindings == null) {
+            return;
+        }
+        final Class<?> chosen = queue.get(interfce);
+        for (final Binding b : bindings) {
+            if (chosen != null && chosen != b.plugin.getClass()) {
+                continue;
+            }
+            if (chosen != null && Constants.DEBUG_PLUGINS) {
+                System.out.println("Executing with : " + chosen.getName());
+            }
+            submit(data, () -> {
                 try {
-                    final Class<?>[] dataClasses = new Class<?>[data.length];
-                    int i = 0;
-                    for (final Object o : data) {
-                        dataClasses[i++] = o.getClass();
-                    }
-
-                    final Method m = c.getClass().getMethod("on" + interfce, dataClasses);
-                    boolean flag = false;
-
-                    if (queue.containsKey(interfce)) {
-                        for (final Class<?> clz : queue.values()) {
-                            if (clz.getName().equalsIgnoreCase(c.getClass().getName())) {
-                                flag = true;
-                                if(Constants.DEBUG_PLUGINS) {
-                                    System.out.println("Executing with : " + clz.getName());
-                                }
-                                break;
-                            }
-                        }
-                    } else {
-                        flag = true;
-                    }
-
-                    if (flag) {
-                        final FutureTask<Integer> task = new FutureTask<>(() -> {
-                            try {
-                                m.invoke(c, data);
-                            } catch (Exception cme) {
-                                cme.printStackTrace();
-                            }
-                            return 1;
-                        });
-                        getExecutor().execute(task);
-                    }
-                } catch (final Exception e) {
+                    b.handle.invokeExact(b.plugin, data);
+                } catch (CancellationException e) {
+                    // the player logged out mid-script
+                } catch (Throwable e) {
                     System.err.println("Exception at plugin handling: ");
                     e.printStackTrace();
                 }
+            });
+        }
+    }
+
+    /**
+     * Binds every loaded plugin to its listener method once, so events don't need to look
+     * methods up by name. The tables are keyed by the event name, e.g. "TalkToNpc".
+     */
+    private void buildDispatchTables() throws ReflectiveOperationException {
+        for (final Class<?> interfce : knownInterfaces) {
+            final String interfceName = interfce.getSimpleName();
+            final boolean executive = interfceName.endsWith("ExecutiveListener");
+            final Set<Object> plugins = (executive ? executivePlugins : actionPlugins).get(interfceName);
+            if (plugins == null) {
+                continue;
             }
+            final Method method = interfce.getMethods()[0];
+            final MethodType type = MethodType.methodType(executive ? boolean.class : void.class, Object.class, Object[].class);
+            final MethodHandle handle = MethodHandles.publicLookup().unreflect(method)
+                .asSpreader(Object[].class, method.getParameterCount()).asType(type);
+            final Binding[] bindings = new Binding[plugins.size()];
+            int i = 0;
+            for (final Object plugin : plugins) {
+                bindings[i++] = new Binding(plugin, handle);
+            }
+            final String event = interfceName.substring(0, interfceName.length() - (executive ? "ExecutiveListener" : "Listener").length());
+            (executive ? executiveDispatch : actionDispatch).put(event, bindings);
         }
     }
 
@@ -184,11 +259,11 @@ public final class PluginManager {
         List<Class<?>> loadedClassFiles = new ArrayList<>();
         
         for(String packageName : PLUGIN_PACKAGES) {
-            List<Class<?>> temp = Util.loadClasses(PLUGIN_PREFIX + packageName);
+            List<Class<?>> temp = ClassIndex.getClasses(PLUGIN_PREFIX + packageName);
             loadedClassFiles.addAll(temp);
         }
 
-        for (final Class<?> interfce : Util.loadInterfaces("org.nemotech.rsc.plugins.listeners.action")) {
+        for (final Class<?> interfce : ClassIndex.getInterfaces("org.nemotech.rsc.plugins.listeners.action")) {
             final String interfceName = interfce.getName().substring(interfce.getName().lastIndexOf(".") + 1);
             knownInterfaces.add(interfce);
             for (final Class<?> plugin : loadedClassFiles) {
@@ -234,7 +309,7 @@ public final class PluginManager {
                 }
             }
         }
-        for (final Class<?> interfce : Util.loadInterfaces("org.nemotech.rsc.plugins.listeners.executive")) {
+        for (final Class<?> interfce : ClassIndex.getInterfaces("org.nemotech.rsc.plugins.listeners.executive")) {
             final String interfceName = interfce.getName().substring(interfce.getName().lastIndexOf(".") + 1);
             knownInterfaces.add(interfce);
             for (final Class<?> plugin : loadedClassFiles) {
@@ -270,8 +345,24 @@ public final class PluginManager {
                 }
             }
         }
+        buildDispatchTables();
         System.out.println("[Plugin Manager] Loaded " + World.getWorld().getQuests().size() + " quests");
         System.out.println("[Plugin Manager] Loaded " + loadedPlugins.size() + " plugins");
     }
     
+    /**
+     * A plugin instance paired with a handle to its listener method
+     */
+    private static final class Binding {
+
+        private final Object plugin;
+        private final MethodHandle handle;
+
+        private Binding(Object plugin, MethodHandle handle) {
+            this.plugin = plugin;
+            this.handle = handle;
+        }
+
+    }
+
 }
\ No newline at end of file
@@ -317,22 +317,18 @@ public class Admin extends Plugin implements CommandListener {
             }
             try {
                 String uname = target.replace("_", " ");
-                java.io.File file = new java.io.File(org.nemotech.rsc.Constants.CACHE_DIRECTORY + "players" + java.io.File.separator + uname + "_data.dat");
-                if (!file.exists()) {
+                org.nemotech.rsc.core.PersistenceService.getInstance().flush();
+                org.nemotech.rsc.model.player.PlayerFile.Save save = org.nemotech.rsc.model.player.PlayerFile.read(uname);
+                if (save == null) {
                     player.getSender().sendMessage("Account does not exist: " + target);
                     return;
                 }
-                java.io.ObjectInputStream ois = new java.io.ObjectInputStream(new java.io.FileInputStream(file));
-                org.nemotech.rsc.model.player.SaveFile data = (org.nemotech.rsc.model.player.SaveFile) ois.readObject();
-                ois.close();
-                if (!data.hardcore) {
+                if (!save.data.hardcore) {
                     player.getSender().sendMessage("Account is not hardcore: " + target);
                     return;
                 }
-                data.hardcoreDead = false;
-                java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(new java.io.FileOutputStream(file));
-                oos.writeObject(data);
-                oos.close();
+                save.data.hardcoreDead = false;
+                org.nemotech.rsc.model.player.PlayerFile.write(uname, save.data, save.cache);
                 player.getSender().sendMessage("Hardcore revive complete for: " + target);
             } catch (Exception e) {
                 e.printStackTrace();
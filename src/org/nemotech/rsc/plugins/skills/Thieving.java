@@ -532,7 +532,7 @@ public class Thieving extends Plugin
                 fromX++;
             }
             /* If there is no unwalkable object in the way */
-            if((World.getWorld().getTileValue(fromX, fromY).objectValue & 64) != 0) {
+            if((World.getWorld().getTileMap().getObjectValue(fromX, fromY) & 64) != 0) {
                 stop = true;
                 return false;
             }
@@ -0,0 +1,45 @@
+package org.nemotech.rsc.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The classes in each plugin and handler package, listed at build time by
+ * ClassIndexGenerator so startup doesn't have to scan the jar once per package.
+ */
+public final class ClassIndex {
+
+    private static final Map<String, Class<?>[]> index = new HashMap<>();
+
+    static {
+        GeneratedClassIndex.register(index);
+    }
+
+    private ClassIndex() {}
+
+    /**
+     * Gets the top level classes in a package. Packages missing from the index
+     * are scanned from the classpath as before.
+     */
+    public static List<Class<?>> getClasses(String pckgname) throws ClassNotFoundException {
+        Class<?>[] classes = index.get(pckgname);
+        if (classes == null) {
+            return Util.loadClasses(pckgname);
+        }
+        return new ArrayList<>(Arrays.asList(classes));
+    }
+
+    public static List<Class<?>> getInterfaces(String pckgname) throws ClassNotFoundException {
+        List<Class<?>> interfaces = new ArrayList<>();
+        for (Class<?> discovered : getClasses(pckgname)) {
+            if (discovered.isInterface()) {
+                interfaces.add(discovered);
+            }
+        }
+        return interfaces;
+    }
+
+}
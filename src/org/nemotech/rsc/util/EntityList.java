@@ -1,123 +1,184 @@
 package org.nemotech.rsc.util;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 import org.nemotech.rsc.model.Entity;
 
+/**
+ * A fixed set of index slots for entities. Which slots are in use is kept in a bitset,
+ * so adding, removing and contains are O(1) and iterating doesn't copy anything.
+ * Freed slots go to the back of a queue, so an index isn't handed out again until
+ * every other free one has been.
+ */
 public class EntityList<T extends Entity> implements Iterable<T> {
-    
+
     public static final int DEFAULT_CAPACITY = 2000;
-    
+
     protected Object[] entities;
-    protected Set<Integer> indicies = new HashSet<>();
-    protected int curIndex = 0;
+    /**
+     * One bit per slot, set while the slot holds an entity
+     */
+    protected long[] used;
+    /**
+     * Free slots as a ring buffer, taken from the head and returned to the tail
+     */
+    protected int[] free;
+    protected int freeHead = 0;
+    protected int freeCount;
+    protected int size = 0;
     protected int capacity;
 
     public EntityList(int capacity) {
-        entities = new Object[capacity];
         this.capacity = capacity;
+        entities = new Object[capacity];
+        used = new long[(capacity + 63) >> 6];
+        free = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            free[i] = i;
+        }
+        freeCount = capacity;
     }
 
     public EntityList() {
         this(DEFAULT_CAPACITY);
     }
 
-    public void remove(T entity) {
-        entities[entity.getIndex()] = null;
-        indicies.remove(entity.getIndex());
+    public synchronized void remove(T entity) {
+        int index = entity.getIndex();
+        if (index >= 0 && index < capacity && entities[index] == entity) {
+            remove(index);
+        }
     }
 
-    public T remove(int index) {
+    public synchronized T remove(int index) {
         Object temp = entities[index];
-        entities[index] = null;
-        indicies.remove(index);
+        if (temp != null) {
+            entities[index] = null;
+            used[index >> 6] &= ~(1L << index);
+            free[(freeHead + freeCount) % capacity] = index;
+            freeCount++;
+            size--;
+        }
         return (T) temp;
     }
 
     public T get(int index) {
         return (T) entities[index];
     }
-    
-    public void add(T entity) {
-        if(entities[curIndex] != null) {
-            increaseIndex();
-            add(entity);
+
+    public synchronized void add(T entity) {
+        if (freeCount == 0) {
+            grow();
         }
-        else {
-            entities[curIndex] = entity;
-            entity.setIndex(curIndex);
-            indicies.add(curIndex);
-            increaseIndex();
+        int index = free[freeHead];
+        freeHead = (freeHead + 1) % capacity;
+        freeCount--;
+        entities[index] = entity;
+        entity.setIndex(index);
+        used[index >> 6] |= 1L << index;
+        size++;
+    }
+
+    private void grow() {
+        int newCapacity = capacity * 2;
+        entities = Arrays.copyOf(entities, newCapacity);
+        used = Arrays.copyOf(used, (newCapacity + 63) >> 6);
+        // the queue is empty, so it can simply restart with the new slots
+        free = new int[newCapacity];
+        for (int i = capacity; i < newCapacity; i++) {
+            free[i - capacity] = i;
         }
+        freeHead = 0;
+        freeCount = newCapacity - capacity;
+        capacity = newCapacity;
     }
 
     @Override
     public Iterator<T> iterator() {
-        return new EntityListIterator<>(entities, indicies, this);
-    }
-
-    public void increaseIndex() {
-        curIndex++;
-        if (curIndex >= capacity) {
-            curIndex = 0;
-        }
+        return new EntityListIterator();
     }
 
     public boolean contains(T entity) {
         return indexOf(entity) > -1;
     }
 
+    /**
+     * Looks the entity up by the index it was given when added
+     */
     public int indexOf(T entity) {
-        for (int index : indicies) {
-            if (entities[index].equals(entity)) {
-                return index;
-            }
+        int index = entity.getIndex();
+        if (index < 0 || index >= capacity) {
+            return -1;
         }
-        return -1;
+        Object e = entities[index];
+        return e != null && e.equals(entity) ? index : -1;
     }
 
     public int count() {
-        return indicies.size();
+        return size;
     }
-    
+
     public int size() {
-        return indicies.size();
+        return size;
     }
-    
-    private class EntityListIterator<E extends Entity> implements Iterator<E> {
-        
-        private Integer[] indicies;
-        private Object[] entities;
-        private EntityList<E> entityList;
-        private int curIndex = 0;
-
-        public EntityListIterator(Object[] entities, Set<Integer> indicies, EntityList<E> entityList) {
-            this.entities = entities;
-            this.indicies = indicies.toArray(new Integer[0]);
-            this.entityList = entityList;
+
+    /**
+     * Walks the bitset directly, so entities removed during iteration are simply skipped
+     */
+    private class EntityListIterator implements Iterator<T> {
+
+        private int next;
+        private int last = -1;
+
+        private EntityListIterator() {
+            next = nextUsed(0);
+        }
+
+        private int nextUsed(int from) {
+            long[] words = used;
+            int word = from >> 6;
+            if (word >= words.length) {
+                return -1;
+            }
+            long bits = words[word] & (-1L << from);
+            while (true) {
+                if (bits != 0) {
+                    return (word << 6) + Long.numberOfTrailingZeros(bits);
+                }
+                if (++word >= words.length) {
+                    return -1;
+                }
+                bits = words[word];
+            }
         }
 
         @Override
         public boolean hasNext() {
-            return indicies.length != curIndex;
+            while (next != -1 && entities[next] == null) {
+                next = nextUsed(next + 1);
+            }
+            return next != -1;
         }
 
         @Override
-        public E next() {
-            Object temp = entities[indicies[curIndex]];
-            curIndex++;
-            return (E) temp;
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = nextUsed(last + 1);
+            return (T) entities[last];
         }
 
         @Override
         public void remove() {
-            if (curIndex >= 1) {
-                entityList.remove(indicies[curIndex - 1]);
+            if (last >= 0) {
+                EntityList.this.remove(last);
             }
         }
-        
+
     }
-    
+
 }
\ No newline at end of file
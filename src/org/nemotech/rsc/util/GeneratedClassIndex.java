@@ -0,0 +1,557 @@
+package org.nemotech.rsc.util;
+
+import java.util.Map;
+
+/**
+ * Generated by ClassIndexGenerator, do not edit by hand
+ */
+final class GeneratedClassIndex {
+
+    static void register(Map<String, Class<?>[]> index) {
+        index.put("org.nemotech.rsc.client.action.impl", new Class<?>[] {
+            org.nemotech.rsc.client.action.impl.AppearanceHandler.class,
+            org.nemotech.rsc.client.action.impl.BankHandler.class,
+            org.nemotech.rsc.client.action.impl.CastHandler.class,
+            org.nemotech.rsc.client.action.impl.CommandHandler.class,
+            org.nemotech.rsc.client.action.impl.DoorActionHandler.class,
+            org.nemotech.rsc.client.action.impl.DropHandler.class,
+            org.nemotech.rsc.client.action.impl.InventoryActionHandler.class,
+            org.nemotech.rsc.client.action.impl.InventoryUseOnDoorHandler.class,
+            org.nemotech.rsc.client.action.impl.InventoryUseOnGroundItemHandler.class,
+            org.nemotech.rsc.client.action.impl.InventoryUseOnItemHandler.class,
+            org.nemotech.rsc.client.action.impl.InventoryUseOnNPCHandler.class,
+            org.nemotech.rsc.client.action.impl.InventoryUseOnObjectHandler.class,
+            org.nemotech.rsc.client.action.impl.LoginHandler.class,
+            org.nemotech.rsc.client.action.impl.LogoutHandler.class,
+            org.nemotech.rsc.client.action.impl.NPCHandler.class,
+            org.nemotech.rsc.client.action.impl.ObjectActionHandler.class,
+            org.nemotech.rsc.client.action.impl.OptionHandler.class,
+            org.nemotech.rsc.client.action.impl.PickupHandler.class,
+            org.nemotech.rsc.client.action.impl.PrayerHandler.class,
+            org.nemotech.rsc.client.action.impl.RegisterHandler.class,
+            org.nemotech.rsc.client.action.impl.ShopHandler.class,
+            org.nemotech.rsc.client.action.impl.SleepHandler.class,
+            org.nemotech.rsc.client.action.impl.WalkHandler.class,
+            org.nemotech.rsc.client.action.impl.WieldHandler.class
+        });
+        index.put("org.nemotech.rsc.client.update.impl", new Class<?>[] {
+            org.nemotech.rsc.client.update.impl.ItemUpdater.class,
+            org.nemotech.rsc.client.update.impl.MiscUpdater.class,
+            org.nemotech.rsc.client.update.impl.NPCUpdater.class,
+            org.nemotech.rsc.client.update.impl.ObjectUpdater.class,
+            org.nemotech.rsc.client.update.impl.PlayerUpdater.class,
+            org.nemotech.rsc.client.update.impl.WallUpdater.class
+        });
+        index.put("org.nemotech.rsc.plugins", new Class<?>[] {
+            org.nemotech.rsc.plugins.DefaultHandler.class,
+            org.nemotech.rsc.plugins.Plugin.class,
+            org.nemotech.rsc.plugins.PluginManager.class,
+            org.nemotech.rsc.plugins.QuestInterface.class,
+            org.nemotech.rsc.plugins.ShopInterface.class
+        });
+        index.put("org.nemotech.rsc.plugins.commands", new Class<?>[] {
+            org.nemotech.rsc.plugins.commands.Admin.class,
+            org.nemotech.rsc.plugins.commands.BotCommands.class,
+            org.nemotech.rsc.plugins.commands.Graphics.class,
+            org.nemotech.rsc.plugins.commands.User.class
+        });
+        index.put("org.nemotech.rsc.plugins.default_", new Class<?>[] {
+            org.nemotech.rsc.plugins.default_.Default.class,
+            org.nemotech.rsc.plugins.default_.DoorAction.class,
+            org.nemotech.rsc.plugins.default_.Ladders.class
+        });
+        index.put("org.nemotech.rsc.plugins.items", new Class<?>[] {
+            org.nemotech.rsc.plugins.items.CombinePotions.class,
+            org.nemotech.rsc.plugins.items.Drinkables.class,
+            org.nemotech.rsc.plugins.items.Eating.class,
+            org.nemotech.rsc.plugins.items.InvAction.class,
+            org.nemotech.rsc.plugins.items.InvItemPoisoning.class,
+            org.nemotech.rsc.plugins.items.InvUseOnItem.class,
+            org.nemotech.rsc.plugins.items.Refill.class,
+            org.nemotech.rsc.plugins.items.SleepingBag.class,
+            org.nemotech.rsc.plugins.items.SpinningWheel.class
+        });
+        index.put("org.nemotech.rsc.plugins.listeners.action", new Class<?>[] {
+            org.nemotech.rsc.plugins.listeners.action.CommandListener.class,
+            org.nemotech.rsc.plugins.listeners.action.DropListener.class,
+            org.nemotech.rsc.plugins.listeners.action.InvActionListener.class,
+            org.nemotech.rsc.plugins.listeners.action.InvUseOnGroundItemListener.class,
+            org.nemotech.rsc.plugins.listeners.action.InvUseOnItemListener.class,
+            org.nemotech.rsc.plugins.listeners.action.InvUseOnNpcListener.class,
+            org.nemotech.rsc.plugins.listeners.action.InvUseOnObjectListener.class,
+            org.nemotech.rsc.plugins.listeners.action.InvUseOnWallObjectListener.class,
+            org.nemotech.rsc.plugins.listeners.action.NpcCommandListener.class,
+            org.nemotech.rsc.plugins.listeners.action.ObjectActionListener.class,
+            org.nemotech.rsc.plugins.listeners.action.PickupListener.class,
+            org.nemotech.rsc.plugins.listeners.action.PlayerAttackNpcListener.class,
+            org.nemotech.rsc.plugins.listeners.action.PlayerKilledNpcListener.class,
+            org.nemotech.rsc.plugins.listeners.action.PlayerMageNpcListener.class,
+            org.nemotech.rsc.plugins.listeners.action.PlayerRangeNpcListener.class,
+            org.nemotech.rsc.plugins.listeners.action.TalkToNpcListener.class,
+            org.nemotech.rsc.plugins.listeners.action.UnwieldListener.class,
+            org.nemotech.rsc.plugins.listeners.action.WallObjectActionListener.class,
+            org.nemotech.rsc.plugins.listeners.action.WieldListener.class
+        });
+        index.put("org.nemotech.rsc.plugins.listeners.executive", new Class<?>[] {
+            org.nemotech.rsc.plugins.listeners.executive.DropExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.InvActionExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.InvUseOnGroundItemExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.InvUseOnItemExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.InvUseOnNpcExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.InvUseOnObjectExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.InvUseOnWallObjectExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.NpcCommandExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.ObjectActionExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.PickupExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.PlayerAttackNpcExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.PlayerKilledNpcExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.PlayerMageNpcExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.PlayerRangeNpcExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.TalkToNpcExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.UnwieldExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.WallObjectActionExecutiveListener.class,
+            org.nemotech.rsc.plugins.listeners.executive.WieldExecutiveListener.class
+        });
+        index.put("org.nemotech.rsc.plugins.menu", new Class<?>[] {
+            org.nemotech.rsc.plugins.menu.Menu.class,
+            org.nemotech.rsc.plugins.menu.Option.class
+        });
+        index.put("org.nemotech.rsc.plugins.minigames.barcrawl", new Class<?>[] {
+            org.nemotech.rsc.plugins.minigames.barcrawl.AlfredGrimhandBarCrawl.class
+        });
+        index.put("org.nemotech.rsc.plugins.minigames.blurberrysbar", new Class<?>[] {
+            org.nemotech.rsc.plugins.minigames.blurberrysbar.BlurberrysBar.class,
+            org.nemotech.rsc.plugins.minigames.blurberrysbar.DrinkHeating.class,
+            org.nemotech.rsc.plugins.minigames.blurberrysbar.DrinkMixing.class
+        });
+        index.put("org.nemotech.rsc.plugins.minigames.fishingtrawler", new Class<?>[] {
+            org.nemotech.rsc.plugins.minigames.fishingtrawler.BailingBucket.class,
+            org.nemotech.rsc.plugins.minigames.fishingtrawler.ExitBarrel.class,
+            org.nemotech.rsc.plugins.minigames.fishingtrawler.FillHole.class,
+            org.nemotech.rsc.plugins.minigames.fishingtrawler.InspectNet.class,
+            org.nemotech.rsc.plugins.minigames.fishingtrawler.Murphy.class,
+            org.nemotech.rsc.plugins.minigames.fishingtrawler.TrawlerCatch.class
+        });
+        index.put("org.nemotech.rsc.plugins.minigames.gnomerestaurant", new Class<?>[] {
+            org.nemotech.rsc.plugins.minigames.gnomerestaurant.GnomeCooking.class,
+            org.nemotech.rsc.plugins.minigames.gnomerestaurant.GnomeMixing.class,
+            org.nemotech.rsc.plugins.minigames.gnomerestaurant.GnomeRestaurant.class,
+            org.nemotech.rsc.plugins.minigames.gnomerestaurant.GnomeSlice.class,
+            org.nemotech.rsc.plugins.minigames.gnomerestaurant.SwampToads.class
+        });
+        index.put("org.nemotech.rsc.plugins.misc", new Class<?>[] {
+            org.nemotech.rsc.plugins.misc.BananaTree.class,
+            org.nemotech.rsc.plugins.misc.Bed.class,
+            org.nemotech.rsc.plugins.misc.Casket.class,
+            org.nemotech.rsc.plugins.misc.CoalTrucks.class,
+            org.nemotech.rsc.plugins.misc.Cow.class,
+            org.nemotech.rsc.plugins.misc.CrystalChest.class,
+            org.nemotech.rsc.plugins.misc.CutWeb.class,
+            org.nemotech.rsc.plugins.misc.DeadTree.class,
+            org.nemotech.rsc.plugins.misc.DragonstoneAmulet.class,
+            org.nemotech.rsc.plugins.misc.Dummy.class,
+            org.nemotech.rsc.plugins.misc.Hopper.class,
+            org.nemotech.rsc.plugins.misc.KittenToCat.class,
+            org.nemotech.rsc.plugins.misc.LadyOfTheWaves.class,
+            org.nemotech.rsc.plugins.misc.LeafyPalmTree.class,
+            org.nemotech.rsc.plugins.misc.MagicGuildPortals.class,
+            org.nemotech.rsc.plugins.misc.MagicalPool.class,
+            org.nemotech.rsc.plugins.misc.MuddyChest.class,
+            org.nemotech.rsc.plugins.misc.Necromancer.class,
+            org.nemotech.rsc.plugins.misc.Panning.class,
+            org.nemotech.rsc.plugins.misc.Pick.class,
+            org.nemotech.rsc.plugins.misc.PineappleTree.class,
+            org.nemotech.rsc.plugins.misc.RandomObjects.class,
+            org.nemotech.rsc.plugins.misc.SalarinTheTwistedMageAI.class,
+            org.nemotech.rsc.plugins.misc.SewerValve.class,
+            org.nemotech.rsc.plugins.misc.Sheep.class,
+            org.nemotech.rsc.plugins.misc.SinisterChest.class,
+            org.nemotech.rsc.plugins.misc.SpiritTrees.class,
+            org.nemotech.rsc.plugins.misc.StrangeBarrels.class,
+            org.nemotech.rsc.plugins.misc.Zamorak.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.Bankers.class,
+            org.nemotech.rsc.plugins.npcs.Certer.class,
+            org.nemotech.rsc.plugins.npcs.GeneralStore.class,
+            org.nemotech.rsc.plugins.npcs.Man.class,
+            org.nemotech.rsc.plugins.npcs.MonkHealer.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.alkharid", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.alkharid.BorderGuard.class,
+            org.nemotech.rsc.plugins.npcs.alkharid.GemTrader.class,
+            org.nemotech.rsc.plugins.npcs.alkharid.KebabSeller.class,
+            org.nemotech.rsc.plugins.npcs.alkharid.LouieLegs.class,
+            org.nemotech.rsc.plugins.npcs.alkharid.RanaelSkirt.class,
+            org.nemotech.rsc.plugins.npcs.alkharid.ShantayPassNpcs.class,
+            org.nemotech.rsc.plugins.npcs.alkharid.SilkTrader.class,
+            org.nemotech.rsc.plugins.npcs.alkharid.Tanner.class,
+            org.nemotech.rsc.plugins.npcs.alkharid.Warrior.class,
+            org.nemotech.rsc.plugins.npcs.alkharid.ZekeScimitars.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.ardougne.east", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.ardougne.east.ArdougneGeneralShop.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.BakerMerchant.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.BartenderFlyingHorseInn.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.CaptainBarnaby.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.DoctorOrbon.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.FurMerchant.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.GemMerchant.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.Gunnjorn.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.KingLathasKeeper.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.SilkMerchant.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.SilverMerchant.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.SpiceMerchant.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.east.Zenesha.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.ardougne.west", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.ardougne.west.Chadwell.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.west.DarkMage.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.west.Mourner.class,
+            org.nemotech.rsc.plugins.npcs.ardougne.west.SpiritOfScorpius.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.barbarian", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.barbarian.Barbarians.class,
+            org.nemotech.rsc.plugins.npcs.barbarian.Oracle.class,
+            org.nemotech.rsc.plugins.npcs.barbarian.PeksaHelmets.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.brimhaven", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.brimhaven.AlfonseTheWaiter.class,
+            org.nemotech.rsc.plugins.npcs.brimhaven.BoatFromBrimhaven.class,
+            org.nemotech.rsc.plugins.npcs.brimhaven.BrimHavenBartender.class,
+            org.nemotech.rsc.plugins.npcs.brimhaven.CharlieTheCook.class,
+            org.nemotech.rsc.plugins.npcs.brimhaven.DavonShop.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.catherby", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.catherby.ArheinGeneralShop.class,
+            org.nemotech.rsc.plugins.npcs.catherby.CandleMakerShop.class,
+            org.nemotech.rsc.plugins.npcs.catherby.Chef.class,
+            org.nemotech.rsc.plugins.npcs.catherby.HarrysFishingShack.class,
+            org.nemotech.rsc.plugins.npcs.catherby.HicktonArcheryShop.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.draynor", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.draynor.Aggie.class,
+            org.nemotech.rsc.plugins.npcs.draynor.Klarense.class,
+            org.nemotech.rsc.plugins.npcs.draynor.Ned.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.dwarvenmine", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.dwarvenmine.Boot.class,
+            org.nemotech.rsc.plugins.npcs.dwarvenmine.Drogo.class,
+            org.nemotech.rsc.plugins.npcs.dwarvenmine.NurmofPickaxe.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.edgeville", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.edgeville.BrotherJered.class,
+            org.nemotech.rsc.plugins.npcs.edgeville.OziachsRunePlateShop.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.entrana", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.entrana.FrincosVialShopEntrana.class,
+            org.nemotech.rsc.plugins.npcs.entrana.HighPriestOfEntrana.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.falador", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.falador.Barmaid.class,
+            org.nemotech.rsc.plugins.npcs.falador.Bartender.class,
+            org.nemotech.rsc.plugins.npcs.falador.CassieShields.class,
+            org.nemotech.rsc.plugins.npcs.falador.FlynnMaces.class,
+            org.nemotech.rsc.plugins.npcs.falador.HerquinGems.class,
+            org.nemotech.rsc.plugins.npcs.falador.MakeOverMage.class,
+            org.nemotech.rsc.plugins.npcs.falador.WaynesChains.class,
+            org.nemotech.rsc.plugins.npcs.falador.WysonTheGardener.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.grandtree", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.grandtree.Blurberry.class,
+            org.nemotech.rsc.plugins.npcs.grandtree.GnomeWaiter.class,
+            org.nemotech.rsc.plugins.npcs.grandtree.Gnomes.class,
+            org.nemotech.rsc.plugins.npcs.grandtree.Gulluck.class,
+            org.nemotech.rsc.plugins.npcs.grandtree.HeckelFunchGroceries.class,
+            org.nemotech.rsc.plugins.npcs.grandtree.HudoGlenfadGroceries.class,
+            org.nemotech.rsc.plugins.npcs.grandtree.Rometti.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.gutanoth", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.gutanoth.GrudsHerblawStall.class,
+            org.nemotech.rsc.plugins.npcs.gutanoth.OgreTrader.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.hemenster", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.hemenster.FishingGuildGeneralShop.class,
+            org.nemotech.rsc.plugins.npcs.hemenster.MasterFisher.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.karamja", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.karamja.BoatFromKaramja.class,
+            org.nemotech.rsc.plugins.npcs.karamja.ZamboRum.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.khazard", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.khazard.Docky.class,
+            org.nemotech.rsc.plugins.npcs.khazard.FishingTrawlerGeneralStore.class,
+            org.nemotech.rsc.plugins.npcs.khazard.KhazardBartender.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.lostcity", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.lostcity.FairyLunderwin.class,
+            org.nemotech.rsc.plugins.npcs.lostcity.FairyQueen.class,
+            org.nemotech.rsc.plugins.npcs.lostcity.Irksol.class,
+            org.nemotech.rsc.plugins.npcs.lostcity.Jakut.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.lumbridge", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.lumbridge.BobsAxes.class,
+            org.nemotech.rsc.plugins.npcs.lumbridge.DukeOfLumbridge.class,
+            org.nemotech.rsc.plugins.npcs.lumbridge.Hans.class,
+            org.nemotech.rsc.plugins.npcs.lumbridge.Priest.class,
+            org.nemotech.rsc.plugins.npcs.lumbridge.Urhney.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.portsarim", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.portsarim.BettysMagicEmporium.class,
+            org.nemotech.rsc.plugins.npcs.portsarim.BriansBattleAxes.class,
+            org.nemotech.rsc.plugins.npcs.portsarim.GerrantsFishingGear.class,
+            org.nemotech.rsc.plugins.npcs.portsarim.GrumsGoldShop.class,
+            org.nemotech.rsc.plugins.npcs.portsarim.MonkOfEntrana.class,
+            org.nemotech.rsc.plugins.npcs.portsarim.NedInShip.class,
+            org.nemotech.rsc.plugins.npcs.portsarim.PortSarimSailor.class,
+            org.nemotech.rsc.plugins.npcs.portsarim.WormBrain.class,
+            org.nemotech.rsc.plugins.npcs.portsarim.WydinsGrocery.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.rimmington", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.rimmington.CraftingEquipmentShops.class,
+            org.nemotech.rsc.plugins.npcs.rimmington.MasterCrafter.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.seers", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.seers.BrotherGalahad.class,
+            org.nemotech.rsc.plugins.npcs.seers.SeersBartender.class,
+            org.nemotech.rsc.plugins.npcs.seers.Stankers.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.shilo", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.shilo.CartDriver.class,
+            org.nemotech.rsc.plugins.npcs.shilo.Fernahei.class,
+            org.nemotech.rsc.plugins.npcs.shilo.Jiminua.class,
+            org.nemotech.rsc.plugins.npcs.shilo.JungleForester.class,
+            org.nemotech.rsc.plugins.npcs.shilo.Kaleb.class,
+            org.nemotech.rsc.plugins.npcs.shilo.Obli.class,
+            org.nemotech.rsc.plugins.npcs.shilo.Serevel.class,
+            org.nemotech.rsc.plugins.npcs.shilo.Yanni.class,
+            org.nemotech.rsc.plugins.npcs.shilo.Yohnus.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.taverly", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.taverly.GaiusTwoHandlerShop.class,
+            org.nemotech.rsc.plugins.npcs.taverly.HelemosShop.class,
+            org.nemotech.rsc.plugins.npcs.taverly.JatixHerblawShop.class,
+            org.nemotech.rsc.plugins.npcs.taverly.Lady.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.tutorial", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.tutorial.BankAssistant.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.Boatman.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.CombatInstructor.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.CommunityInstructor.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.ControlsGuide.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.CookingInstructor.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.FatigueExpert.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.FinancialAdvisor.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.FishingInstructor.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.Guide.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.MagicInstructor.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.MiningInstructor.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.QuestAdvisor.class,
+            org.nemotech.rsc.plugins.npcs.tutorial.WildernessGuide.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.varrock", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.varrock.Apothecary.class,
+            org.nemotech.rsc.plugins.npcs.varrock.AuburysRunes.class,
+            org.nemotech.rsc.plugins.npcs.varrock.Baraek.class,
+            org.nemotech.rsc.plugins.npcs.varrock.Bartender.class,
+            org.nemotech.rsc.plugins.npcs.varrock.ChampionsGuild.class,
+            org.nemotech.rsc.plugins.npcs.varrock.Curator.class,
+            org.nemotech.rsc.plugins.npcs.varrock.DancingDonkeyInnBartender.class,
+            org.nemotech.rsc.plugins.npcs.varrock.Guildmaster.class,
+            org.nemotech.rsc.plugins.npcs.varrock.HeadChef.class,
+            org.nemotech.rsc.plugins.npcs.varrock.HorvikTheArmourer.class,
+            org.nemotech.rsc.plugins.npcs.varrock.JollyBoarInnBartender.class,
+            org.nemotech.rsc.plugins.npcs.varrock.King.class,
+            org.nemotech.rsc.plugins.npcs.varrock.LowesArchery.class,
+            org.nemotech.rsc.plugins.npcs.varrock.ManPhoenix.class,
+            org.nemotech.rsc.plugins.npcs.varrock.Reldo.class,
+            org.nemotech.rsc.plugins.npcs.varrock.Tailor.class,
+            org.nemotech.rsc.plugins.npcs.varrock.TeaSeller.class,
+            org.nemotech.rsc.plugins.npcs.varrock.ThessaliasClothes.class,
+            org.nemotech.rsc.plugins.npcs.varrock.Thrander.class,
+            org.nemotech.rsc.plugins.npcs.varrock.Tramp.class,
+            org.nemotech.rsc.plugins.npcs.varrock.VarrockSwords.class,
+            org.nemotech.rsc.plugins.npcs.varrock.ZaffsStaffs.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.wilderness.banditcamp", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.wilderness.banditcamp.FatTony.class,
+            org.nemotech.rsc.plugins.npcs.wilderness.banditcamp.Noterazzo.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.wilderness.mage_arena", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.wilderness.mage_arena.Chamber_Guardian.class,
+            org.nemotech.rsc.plugins.npcs.wilderness.mage_arena.Gundai.class,
+            org.nemotech.rsc.plugins.npcs.wilderness.mage_arena.Lundail.class
+        });
+        index.put("org.nemotech.rsc.plugins.npcs.yanille", new Class<?>[] {
+            org.nemotech.rsc.plugins.npcs.yanille.BartenderDragonInn.class,
+            org.nemotech.rsc.plugins.npcs.yanille.ColonelRadick.class,
+            org.nemotech.rsc.plugins.npcs.yanille.Frenita.class,
+            org.nemotech.rsc.plugins.npcs.yanille.MagicStoreOwner.class,
+            org.nemotech.rsc.plugins.npcs.yanille.SidneySmith.class,
+            org.nemotech.rsc.plugins.npcs.yanille.SigbertTheAdventurer.class,
+            org.nemotech.rsc.plugins.npcs.yanille.WizardFrumscone.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.free", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.free.BlackKnightsFortress.class,
+            org.nemotech.rsc.plugins.quests.free.CooksAssistant.class,
+            org.nemotech.rsc.plugins.quests.free.DemonSlayer.class,
+            org.nemotech.rsc.plugins.quests.free.Dorics.class,
+            org.nemotech.rsc.plugins.quests.free.DragonSlayer.class,
+            org.nemotech.rsc.plugins.quests.free.ErnestTheChicken.class,
+            org.nemotech.rsc.plugins.quests.free.GoblinDiplomacy.class,
+            org.nemotech.rsc.plugins.quests.free.ImpCatcher.class,
+            org.nemotech.rsc.plugins.quests.free.KnightsSword.class,
+            org.nemotech.rsc.plugins.quests.free.PiratesTreasure.class,
+            org.nemotech.rsc.plugins.quests.free.PrinceAliRescue.class,
+            org.nemotech.rsc.plugins.quests.free.RomeoAndJuliet.class,
+            org.nemotech.rsc.plugins.quests.free.SheepShearer.class,
+            org.nemotech.rsc.plugins.quests.free.ShieldOfArrav.class,
+            org.nemotech.rsc.plugins.quests.free.TheRestlessGhost.class,
+            org.nemotech.rsc.plugins.quests.free.VampireSlayer.class,
+            org.nemotech.rsc.plugins.quests.free.WitchesPotion.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.Biohazard.class,
+            org.nemotech.rsc.plugins.quests.members.ClockTower.class,
+            org.nemotech.rsc.plugins.quests.members.DruidicRitual.class,
+            org.nemotech.rsc.plugins.quests.members.DwarfCannon.class,
+            org.nemotech.rsc.plugins.quests.members.FamilyCrest.class,
+            org.nemotech.rsc.plugins.quests.members.FightArena.class,
+            org.nemotech.rsc.plugins.quests.members.FishingContest.class,
+            org.nemotech.rsc.plugins.quests.members.GertrudesCat.class,
+            org.nemotech.rsc.plugins.quests.members.HazeelCult.class,
+            org.nemotech.rsc.plugins.quests.members.HerosQuest.class,
+            org.nemotech.rsc.plugins.quests.members.JunglePotion.class,
+            org.nemotech.rsc.plugins.quests.members.LostCity.class,
+            org.nemotech.rsc.plugins.quests.members.MerlinsCrystal.class,
+            org.nemotech.rsc.plugins.quests.members.MonksFriend.class,
+            org.nemotech.rsc.plugins.quests.members.MurderMystery.class,
+            org.nemotech.rsc.plugins.quests.members.Observatory.class,
+            org.nemotech.rsc.plugins.quests.members.PlagueCity.class,
+            org.nemotech.rsc.plugins.quests.members.ScorpionCatcher.class,
+            org.nemotech.rsc.plugins.quests.members.SeaSlug.class,
+            org.nemotech.rsc.plugins.quests.members.SheepHerder.class,
+            org.nemotech.rsc.plugins.quests.members.TempleOfIkov.class,
+            org.nemotech.rsc.plugins.quests.members.TheHolyGrail.class,
+            org.nemotech.rsc.plugins.quests.members.TreeGnomeVillage.class,
+            org.nemotech.rsc.plugins.quests.members.TribalTotem.class,
+            org.nemotech.rsc.plugins.quests.members.Waterfall.class,
+            org.nemotech.rsc.plugins.quests.members.WitchesHouse.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.digsite", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.digsite.DigsiteDigAreas.class,
+            org.nemotech.rsc.plugins.quests.members.digsite.DigsiteExaminer.class,
+            org.nemotech.rsc.plugins.quests.members.digsite.DigsiteExpert.class,
+            org.nemotech.rsc.plugins.quests.members.digsite.DigsiteGuide.class,
+            org.nemotech.rsc.plugins.quests.members.digsite.DigsiteMiscs.class,
+            org.nemotech.rsc.plugins.quests.members.digsite.DigsiteObjects.class,
+            org.nemotech.rsc.plugins.quests.members.digsite.DigsiteStudents.class,
+            org.nemotech.rsc.plugins.quests.members.digsite.DigsiteWinch.class,
+            org.nemotech.rsc.plugins.quests.members.digsite.DigsiteWorkman.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.grandtree", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.grandtree.GnomeGlider.class,
+            org.nemotech.rsc.plugins.quests.members.grandtree.GrandTree.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.legendsquest.mechanism", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.legendsquest.mechanism.LegendsQuestBullRoarer.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.mechanism.LegendsQuestInvAction.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.mechanism.LegendsQuestMapJungle.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.mechanism.LegendsQuestOnDrop.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.legendsquest.npcs", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.LegendsQuestEchnedZekin.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.LegendsQuestGuildGuard.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.LegendsQuestGujuo.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.LegendsQuestIrvigSenay.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.LegendsQuestNezikchened.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.LegendsQuestRanalphDevere.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.LegendsQuestSanTojalon.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.LegendsQuestSirRadimusErkle.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.LegendsQuestUngadulu.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.LegendsQuestViyeldi.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.shop", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.shop.Fionella.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.npcs.shop.SiegfriedErkel.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.legendsquest.obstacles", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.legendsquest.obstacles.LegendsQuestCaveAgility.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.obstacles.LegendsQuestDarkMetalGate.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.obstacles.LegendsQuestGameObjects.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.obstacles.LegendsQuestGates.class,
+            org.nemotech.rsc.plugins.quests.members.legendsquest.obstacles.LegendsQuestWallObjects.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.shilovillage", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.shilovillage.ShiloVillageMosolRei.class,
+            org.nemotech.rsc.plugins.quests.members.shilovillage.ShiloVillageNazastarool.class,
+            org.nemotech.rsc.plugins.quests.members.shilovillage.ShiloVillageObjects.class,
+            org.nemotech.rsc.plugins.quests.members.shilovillage.ShiloVillageTombDolmen.class,
+            org.nemotech.rsc.plugins.quests.members.shilovillage.ShiloVillageTrufitusInvUse.class,
+            org.nemotech.rsc.plugins.quests.members.shilovillage.ShiloVillageUtils.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.touristtrap", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.touristtrap.TouristTrap.class,
+            org.nemotech.rsc.plugins.quests.members.touristtrap.Tourist_Trap_Mechanism.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.undergroundpass.mechanism", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.mechanism.UndergroundPassMechanismMap1.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.mechanism.UndergroundPassMechanismMap2.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.undergroundpass.npcs", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.npcs.UndergroundPassDemons.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.npcs.UndergroundPassDwarfs.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.npcs.UndergroundPassIban.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.npcs.UndergroundPassIbanDisciple.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.npcs.UndergroundPassKalrag.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.npcs.UndergroundPassKardiaTheWitch.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.npcs.UndergroundPassKoftik.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.npcs.UndergroundPassPaladin.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.npcs.UndergroundPassSlaves.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.undergroundpass.obstacles", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.obstacles.UndergroundPassAgilityObstacles.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.obstacles.UndergroundPassDungeonFloor.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.obstacles.UndergroundPassObstaclesMap1.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.obstacles.UndergroundPassObstaclesMap2.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.obstacles.UndergroundPassObstaclesMap3.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.obstacles.UndergroundPassOrbs.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.obstacles.UndergroundPassPuzzle.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.obstacles.UndergroundPassSmearDollOfIban.class,
+            org.nemotech.rsc.plugins.quests.members.undergroundpass.obstacles.UndergroundPassWell.class
+        });
+        index.put("org.nemotech.rsc.plugins.quests.members.watchtower", new Class<?>[] {
+            org.nemotech.rsc.plugins.quests.members.watchtower.WatchTowerDialogues.class,
+            org.nemotech.rsc.plugins.quests.members.watchtower.WatchTowerGateObstacles.class,
+            org.nemotech.rsc.plugins.quests.members.watchtower.WatchTowerGorad.class,
+            org.nemotech.rsc.plugins.quests.members.watchtower.WatchTowerMechanism.class,
+            org.nemotech.rsc.plugins.quests.members.watchtower.WatchTowerObstacles.class,
+            org.nemotech.rsc.plugins.quests.members.watchtower.WatchTowerShaman.class
+        });
+        index.put("org.nemotech.rsc.plugins.skills", new Class<?>[] {
+            org.nemotech.rsc.plugins.skills.BattlestaffCrafting.class,
+            org.nemotech.rsc.plugins.skills.Crafting.class,
+            org.nemotech.rsc.plugins.skills.Firemaking.class,
+            org.nemotech.rsc.plugins.skills.Fishing.class,
+            org.nemotech.rsc.plugins.skills.Fletching.class,
+            org.nemotech.rsc.plugins.skills.GemMining.class,
+            org.nemotech.rsc.plugins.skills.Herblaw.class,
+            org.nemotech.rsc.plugins.skills.InventoryCooking.class,
+            org.nemotech.rsc.plugins.skills.Mining.class,
+            org.nemotech.rsc.plugins.skills.ObjectCooking.class,
+            org.nemotech.rsc.plugins.skills.Prayer.class,
+            org.nemotech.rsc.plugins.skills.Smelting.class,
+            org.nemotech.rsc.plugins.skills.Smithing.class,
+            org.nemotech.rsc.plugins.skills.Thieving.class,
+            org.nemotech.rsc.plugins.skills.Woodcutting.class
+        });
+        index.put("org.nemotech.rsc.plugins.skills.agility", new Class<?>[] {
+            org.nemotech.rsc.plugins.skills.agility.AgilityShortcuts.class,
+            org.nemotech.rsc.plugins.skills.agility.AgilityUtils.class,
+            org.nemotech.rsc.plugins.skills.agility.BarbarianAgilityCourse.class,
+            org.nemotech.rsc.plugins.skills.agility.GnomeAgilityCourse.class,
+            org.nemotech.rsc.plugins.skills.agility.WildernessAgilityCourse.class
+        });
+    }
+
+}
@@ -0,0 +1,117 @@
+package org.nemotech.rsc.util.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Writes GeneratedClassIndex, the list of plugin, action handler and updater classes
+ * that ClassIndex hands out at startup instead of scanning the classpath.
+ * Run by compile.txt before the main compile: java ClassIndexGenerator [source dir]
+ */
+public class ClassIndexGenerator {
+
+    private static final String BASE = "org.nemotech.rsc";
+
+    /**
+     * The packages that are indexed, those ending in ".*" take every sub package too
+     */
+    private static final String[] PACKAGES = {
+        BASE + ".plugins.*",
+        BASE + ".client.action.impl",
+        BASE + ".client.update.impl"
+    };
+
+    private static final String OUTPUT = BASE + ".util.GeneratedClassIndex";
+
+    public static void main(String[] args) throws IOException {
+        File src = new File(args.length > 0 ? args[0] : "src");
+        Map<String, List<String>> index = new TreeMap<>();
+        for (String pckg : PACKAGES) {
+            boolean recursive = pckg.endsWith(".*");
+            String name = recursive ? pckg.substring(0, pckg.length() - 2) : pckg;
+            scan(new File(src, name.replace('.', File.separatorChar)), name, recursive, index);
+        }
+        File out = new File(src, OUTPUT.replace('.', File.separatorChar) + ".java");
+        Files.write(out.toPath(), render(index).getBytes(StandardCharsets.ISO_8859_1));
+        int count = 0;
+        for (List<String> classes : index.values()) {
+            count += classes.size();
+        }
+        System.out.println("[ClassIndexGenerator] Indexed " + count + " classes in " + index.size() + " packages");
+    }
+
+    private static void scan(File dir, String pckg, boolean recursive, Map<String, List<String>> index) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            throw new IOException(dir + " does not appear to be a valid package");
+        }
+        List<String> classes = new ArrayList<>();
+        List<File> subPackages = new ArrayList<>();
+        for (File file : files) {
+            String fileName = file.getName();
+            if (file.isDirectory()) {
+                subPackages.add(file);
+            } else if (fileName.endsWith(".java")) {
+                String className = fileName.substring(0, fileName.length() - 5);
+                if (declares(file, className)) {
+                    classes.add(className);
+                }
+            }
+        }
+        if (!classes.isEmpty()) {
+            classes.sort(null);
+            index.put(pckg, classes);
+        }
+        if (recursive) {
+            for (File sub : subPackages) {
+                scan(sub, pckg + "." + sub.getName(), true, index);
+            }
+        }
+    }
+
+    /**
+     * Whether the file still declares its public type (some plugins are commented out whole)
+     */
+    private static boolean declares(File file, String className) throws IOException {
+        Pattern declaration = Pattern.compile("^\\s*public\\s+(?:(?:final|abstract)\\s+)*(?:class|interface|enum)\\s+" + Pattern.quote(className) + "\\b.*");
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.ISO_8859_1)) {
+            if (declaration.matcher(line).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String render(Map<String, List<String>> index) {
+        String pckg = OUTPUT.substring(0, OUTPUT.lastIndexOf('.'));
+        String name = OUTPUT.substring(OUTPUT.lastIndexOf('.') + 1);
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(pckg).append(";\n\n");
+        sb.append("import java.util.Map;\n\n");
+        sb.append("/**\n");
+        sb.append(" * Generated by ClassIndexGenerator, do not edit by hand\n");
+        sb.append(" */\n");
+        sb.append("final class ").append(name).append(" {\n\n");
+        sb.append("    static void register(Map<String, Class<?>[]> index) {\n");
+        for (Map.Entry<String, List<String>> entry : index.entrySet()) {
+            sb.append("        index.put(\"").append(entry.getKey()).append("\", new Class<?>[] {\n");
+            List<String> classes = entry.getValue();
+            for (int i = 0; i < classes.size(); i++) {
+                sb.append("            ").append(entry.getKey()).append('.').append(classes.get(i)).append(".class");
+                sb.append(i < classes.size() - 1 ? ",\n" : "\n");
+            }
+            sb.append("        });\n");
+        }
+        sb.append("    }\n\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.nemotech.rsc.util.tools;
+
+import org.nemotech.rsc.client.HeadlessRenderer;
+import org.nemotech.rsc.client.Surface;
+
+/**
+ * Times the client renderer headlessly: scene rendering, terrain building, sprite and
+ * text drawing at a few resolutions. Run with -Djava.awt.headless=true on a box
+ * without a display: java RendererBenchmark [seconds per benchmark]
+ */
+public class RendererBenchmark {
+
+    private static final int[][] RESOLUTIONS = {
+        { 512, 334 }, { 950, 500 }, { 1920, 1080 }
+    };
+
+    /**
+     * Lumbridge, where the client's login screen camera looks
+     */
+    private static final int SECTOR_X = 50 * 48 + 23;
+    private static final int SECTOR_Y = 50 * 48 + 23;
+
+    private static long measureNanos;
+
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        measureNanos = (long) (seconds * 1000000000L);
+        HeadlessRenderer.loadResources();
+        System.out.println(String.format("%-34s %12s %12s %10s", "benchmark", "us/op", "best us/op", "ops"));
+        for (int[] resolution : RESOLUTIONS) {
+            int width = resolution[0];
+            int height = resolution[1];
+            HeadlessRenderer renderer = new HeadlessRenderer(width, height);
+            renderer.loadSector(SECTOR_X, SECTOR_Y, 0);
+            Surface surface = renderer.getSurface();
+            String suffix = " " + width + "x" + height;
+            int[] frame = new int[1];
+
+            run("scene.render" + suffix, () -> {
+                renderer.setCamera(8800, 9200, frame[0]++ * 4 & 0xff, 1600);
+                renderer.renderFrame();
+            });
+            run("surface.drawSprite" + suffix, () -> {
+                int i = frame[0]++;
+                surface.drawSprite(i * 37 % width, i * 53 % height, HeadlessRenderer.SPRITE_MEDIA);
+            });
+            run("surface.spriteClipping" + suffix, () -> {
+                int i = frame[0]++;
+                surface.spriteClipping(i * 37 % width, i * 53 % height, 64 + i % 128, 64 + i % 96, HeadlessRenderer.SPRITE_MEDIA);
+            });
+            run("surface.drawString" + suffix, () -> {
+                int i = frame[0]++;
+                surface.drawString("The quick brown fox jumps over the lazy dog", i * 37 % width, 20 + i * 53 % (height - 20), 1, 0xffff00);
+            });
+            run("terrain.loadSector" + suffix, () -> renderer.loadSector(SECTOR_X, SECTOR_Y, 0));
+        }
+    }
+
+    /**
+     * Warms the operation up for a second, then times it in batches for the configured time
+     */
+    private static void run(String name, Runnable op) {
+        long warmupEnd = System.nanoTime() + 1000000000L;
+        while (System.nanoTime() < warmupEnd) {
+            op.run();
+        }
+        long ops = 0;
+        long best = Long.MAX_VALUE;
+        long start = System.nanoTime();
+        long end = start + measureNanos;
+        long now = start;
+        while (now < end) {
+            long batchStart = now;
+            op.run();
+            now = System.nanoTime();
+            best = Math.min(best, now - batchStart);
+            ops++;
+        }
+        double mean = (now - start) / (double) ops / 1000;
+        System.out.println(String.format("%-34s %12.1f %12.1f %10d", name, mean, best / 1000.0, ops));
+    }
+
+}